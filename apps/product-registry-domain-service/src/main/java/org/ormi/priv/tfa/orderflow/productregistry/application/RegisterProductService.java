@@ -3,6 +3,7 @@ package org.ormi.priv.tfa.orderflow.productregistry.application;
 import org.ormi.priv.tfa.orderflow.cqrs.EventEnvelope;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.EventLogEntity;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.OutboxEntity;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRepository;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
 import org.ormi.priv.tfa.orderflow.kernel.Product;
@@ -59,6 +60,21 @@ public class RegisterProductService {
      */
     @Transactional
     public ProductId handle(RegisterProductCommand cmd) throws IllegalArgumentException {
+        return handle(cmd, DeliveryLane.INTERACTIVE);
+    }
+
+    /**
+     * Traite la commande d'enregistrement en publiant l'événement dans la file
+     * de livraison donnée ({@link DeliveryLane#BULK} pour les imports en masse).
+     *
+     * @param cmd commande contenant les informations du produit à créer
+     * @param lane file de livraison de l'événement vers les read models
+     * @return identifiant unique du produit créé
+     * @throws IllegalArgumentException si un produit avec le même SKU existe déjà
+     * @throws IllegalStateException si le produit a été modifié par une commande concurrente
+     */
+    @Transactional
+    public ProductId handle(RegisterProductCommand cmd, DeliveryLane lane) throws IllegalArgumentException {
         if (repository.existsBySkuId(cmd.skuId())) {
             throw new IllegalArgumentException(String.format("SKU already exists: %s", cmd.skuId()));
         }
@@ -67,13 +83,17 @@ public class RegisterProductService {
                 cmd.description(),
                 cmd.skuId());
         // Save domain object
-        repository.save(product);
+        if (!repository.save(product).applied()) {
+            // Version déjà écrite par une commande concurrente : l'événement serait en double
+            throw new IllegalStateException("Product " + product.getId().value() + " was modified concurrently");
+        }
         EventEnvelope<ProductRegistered> evt = EventEnvelope.with(new ProductRegistered(product.getId(), product.getSkuId(), cmd.name(), cmd.description()), product.getVersion());
         // Appends event to the log
         final EventLogEntity persistedEvent = eventLog.append(evt);
         // Publish outbox
         outbox.publish(OutboxEntity.Builder()
                 .sourceEvent(persistedEvent)
+                .lane(lane)
                 .build());
         return product.getId();
     }
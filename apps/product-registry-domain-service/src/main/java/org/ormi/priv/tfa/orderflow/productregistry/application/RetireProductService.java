@@ -3,6 +3,7 @@ package org.ormi.priv.tfa.orderflow.productregistry.application;
 import org.ormi.priv.tfa.orderflow.cqrs.EventEnvelope;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.EventLogEntity;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.OutboxEntity;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRepository;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
 import org.ormi.priv.tfa.orderflow.kernel.Product;
@@ -55,15 +56,33 @@ public class RetireProductService {
      */
     @Transactional
     public void retire(RetireProductCommand cmd) throws IllegalArgumentException {
+        retire(cmd, DeliveryLane.INTERACTIVE);
+    }
+
+    /**
+     * Traite la commande de mise à la retraite en publiant l'événement dans la
+     * file de livraison donnée.
+     *
+     * @param cmd commande contenant l'identifiant du produit à retirer
+     * @param lane file de livraison de l'événement vers les read models
+     * @throws IllegalArgumentException si le produit n'existe pas
+     * @throws IllegalStateException si le produit a été modifié par une commande concurrente
+     */
+    @Transactional
+    public void retire(RetireProductCommand cmd, DeliveryLane lane) throws IllegalArgumentException {
         Product product = repository.findById(cmd.productId())
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
         EventEnvelope<ProductRetired> evt = product.retire();
-        repository.save(product);
+        if (!repository.save(product).applied()) {
+            // Version déjà écrite par une commande concurrente : l'événement serait en double
+            throw new IllegalStateException("Product " + product.getId().value() + " was modified concurrently");
+        }
         // Append event to the log
         final EventLogEntity persistedEvent = eventLog.append(evt);
         // Publish outbox
         outbox.publish(OutboxEntity.Builder()
                 .sourceEvent(persistedEvent)
+                .lane(lane)
                 .build());
     }
 }
@@ -3,6 +3,7 @@ package org.ormi.priv.tfa.orderflow.productregistry.application;
 import org.ormi.priv.tfa.orderflow.cqrs.EventEnvelope;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.EventLogEntity;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.OutboxEntity;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRepository;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
 import org.ormi.priv.tfa.orderflow.kernel.Product;
@@ -58,17 +59,35 @@ public class UpdateProductService {
      */
     @Transactional
     public void handle(UpdateProductNameCommand cmd) throws IllegalArgumentException {
+        handle(cmd, DeliveryLane.INTERACTIVE);
+    }
+
+    /**
+     * Traite la commande de mise à jour du nom en publiant l'événement dans la
+     * file de livraison donnée.
+     *
+     * @param cmd commande contenant l'ID du produit et la nouvelle valeur
+     * @param lane file de livraison de l'événement vers les read models
+     * @throws IllegalArgumentException si le produit n'existe pas
+     * @throws IllegalStateException si le produit a été modifié par une commande concurrente
+     */
+    @Transactional
+    public void handle(UpdateProductNameCommand cmd, DeliveryLane lane) throws IllegalArgumentException {
         Product product = repository.findById(cmd.productId())
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
         EventEnvelope<ProductNameUpdated> event = product.updateName(cmd.newName());
         // Save domain object
-        repository.save(product);
+        if (!repository.save(product).applied()) {
+            // Version déjà écrite par une commande concurrente : l'événement serait en double
+            throw new IllegalStateException("Product " + product.getId().value() + " was modified concurrently");
+        }
         // Append event to event log
         final EventLogEntity persistedEvent = eventLog.append(event);
         // Publish event to outbox
         outbox.publish(
             OutboxEntity.Builder()
                 .sourceEvent(persistedEvent)
+                .lane(lane)
                 .build()
         );
     }
@@ -84,17 +103,35 @@ public class UpdateProductService {
      */
     @Transactional
     public void handle(UpdateProductDescriptionCommand cmd) throws IllegalArgumentException {
+        handle(cmd, DeliveryLane.INTERACTIVE);
+    }
+
+    /**
+     * Traite la commande de mise à jour de la description en publiant l'événement dans la
+     * file de livraison donnée.
+     *
+     * @param cmd commande contenant l'ID du produit et la nouvelle valeur
+     * @param lane file de livraison de l'événement vers les read models
+     * @throws IllegalArgumentException si le produit n'existe pas
+     * @throws IllegalStateException si le produit a été modifié par une commande concurrente
+     */
+    @Transactional
+    public void handle(UpdateProductDescriptionCommand cmd, DeliveryLane lane) throws IllegalArgumentException {
         Product product = repository.findById(cmd.productId())
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
         EventEnvelope<ProductDescriptionUpdated> event = product.updateDescription(cmd.newDescription());
         // Save domain object
-        repository.save(product);
+        if (!repository.save(product).applied()) {
+            // Version déjà écrite par une commande concurrente : l'événement serait en double
+            throw new IllegalStateException("Product " + product.getId().value() + " was modified concurrently");
+        }
         // Append event to event log
         final EventLogEntity persistedEvent = eventLog.append(event);
         // Publish event to outbox
         outbox.publish(
             OutboxEntity.Builder()
                 .sourceEvent(persistedEvent)
+                .lane(lane)
                 .build()
         );
     }
@@ -1,12 +1,14 @@
 package org.ormi.priv.tfa.orderflow.productregistry.infra.api;
 
 import java.net.URI;
+import java.util.Locale;
 import java.util.UUID;
 
 import org.jboss.resteasy.reactive.RestResponse;
 import org.ormi.priv.tfa.orderflow.contracts.productregistry.v1.write.RegisterProductCommandDto;
 import org.ormi.priv.tfa.orderflow.contracts.productregistry.v1.write.UpdateProductDescriptionParamsDto;
 import org.ormi.priv.tfa.orderflow.contracts.productregistry.v1.write.UpdateProductNameParamsDto;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductId;
 import org.ormi.priv.tfa.orderflow.productregistry.application.ProductCommand.RetireProductCommand;
 import org.ormi.priv.tfa.orderflow.productregistry.application.ProductCommand.UpdateProductDescriptionCommand;
@@ -17,8 +19,11 @@ import org.ormi.priv.tfa.orderflow.productregistry.application.UpdateProductServ
 import org.ormi.priv.tfa.orderflow.productregistry.infra.web.dto.CommandDtoMapper;
 
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.Consumes;
 import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.HeaderParam;
 import jakarta.ws.rs.PATCH;
 import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
@@ -33,11 +38,19 @@ import jakarta.ws.rs.core.UriInfo;
  * <p>
  * Fournit les endpoints pour créer, retirer et mettre à jour les produits via
  * les services métier correspondants. Utilise le pattern CQRS avec mapping DTO.
+ * <p>
+ * L'en-tête {@value #DELIVERY_LANE_HEADER} ({@code interactive} par défaut,
+ * {@code bulk} pour les imports en masse) choisit la file de livraison des
+ * événements vers les read models : un import ne retarde pas les éditions
+ * utilisateur.
  */
 @Path("/products")
 @Produces(MediaType.APPLICATION_JSON)
 public class ProductRegistryCommandResource {
 
+    /** En-tête de sélection de la file de livraison */
+    public static final String DELIVERY_LANE_HEADER = "X-Delivery-Lane";
+
     private final CommandDtoMapper mapper;
     private final RegisterProductService registerProductService;
     private final RetireProductService retireProductService;
@@ -70,12 +83,14 @@ public class ProductRegistryCommandResource {
      *
      * @param cmd DTO contenant les informations du produit
      * @param uriInfo informations d'URI pour construire la réponse de création
+     * @param lane file de livraison (en-tête {@value #DELIVERY_LANE_HEADER})
      * @return réponse 201 avec l'URI du produit créé
      */
     @POST
     @Consumes(MediaType.APPLICATION_JSON)
-    public RestResponse<Void> registerProduct(RegisterProductCommandDto cmd, @Context UriInfo uriInfo) {
-        final ProductId productId = registerProductService.handle(mapper.toCommand(cmd));
+    public RestResponse<Void> registerProduct(RegisterProductCommandDto cmd, @Context UriInfo uriInfo,
+            @HeaderParam(DELIVERY_LANE_HEADER) @DefaultValue("interactive") String lane) {
+        final ProductId productId = registerProductService.handle(mapper.toCommand(cmd), toDeliveryLane(lane));
         return RestResponse.created(
                 URI.create(uriInfo.getAbsolutePathBuilder().path("/products/" + productId.value()).build().toString()));
     }
@@ -84,12 +99,15 @@ public class ProductRegistryCommandResource {
      * Met à la retraite un produit existant.
      *
      * @param productId identifiant UUID du produit à retirer
+     * @param lane file de livraison (en-tête {@value #DELIVERY_LANE_HEADER})
      * @return réponse 204 (no content)
      */
     @DELETE
     @Path("/{id}")
-    public RestResponse<Void> retireProduct(@PathParam("id") String productId) {
-        retireProductService.retire(new RetireProductCommand(new ProductId(UUID.fromString(productId))));
+    public RestResponse<Void> retireProduct(@PathParam("id") String productId,
+            @HeaderParam(DELIVERY_LANE_HEADER) @DefaultValue("interactive") String lane) {
+        retireProductService.retire(new RetireProductCommand(new ProductId(UUID.fromString(productId))),
+                toDeliveryLane(lane));
         return RestResponse.noContent();
     }
 
@@ -98,14 +116,17 @@ public class ProductRegistryCommandResource {
      *
      * @param productId identifiant UUID du produit
      * @param params DTO contenant le nouveau nom
+     * @param lane file de livraison (en-tête {@value #DELIVERY_LANE_HEADER})
      * @return réponse 204 (no content)
      */
     @PATCH
     @Path("/{id}/name")
     @Consumes(MediaType.APPLICATION_JSON)
-    public RestResponse<Void> updateProductName(@PathParam("id") String productId, UpdateProductNameParamsDto params) {
+    public RestResponse<Void> updateProductName(@PathParam("id") String productId, UpdateProductNameParamsDto params,
+            @HeaderParam(DELIVERY_LANE_HEADER) @DefaultValue("interactive") String lane) {
         updateProductService
-                .handle(new UpdateProductNameCommand(new ProductId(UUID.fromString(productId)), params.name()));
+                .handle(new UpdateProductNameCommand(new ProductId(UUID.fromString(productId)), params.name()),
+                        toDeliveryLane(lane));
         return RestResponse.noContent();
     }
 
@@ -114,15 +135,30 @@ public class ProductRegistryCommandResource {
      *
      * @param productId identifiant UUID du produit
      * @param params DTO contenant la nouvelle description
+     * @param lane file de livraison (en-tête {@value #DELIVERY_LANE_HEADER})
      * @return réponse 204 (no content)
      */
     @PATCH
     @Path("/{id}/description")
     @Consumes(MediaType.APPLICATION_JSON)
     public RestResponse<Void> updateProductDescription(@PathParam("id") String productId,
-            UpdateProductDescriptionParamsDto params) {
+            UpdateProductDescriptionParamsDto params,
+            @HeaderParam(DELIVERY_LANE_HEADER) @DefaultValue("interactive") String lane) {
         updateProductService.handle(new UpdateProductDescriptionCommand(new ProductId(UUID.fromString(productId)),
-                params.description()));
+                params.description()), toDeliveryLane(lane));
         return RestResponse.noContent();
     }
+
+    /**
+     * Convertit la valeur de l'en-tête en file de livraison.
+     *
+     * @throws BadRequestException si la valeur n'est ni {@code interactive} ni {@code bulk}
+     */
+    private static DeliveryLane toDeliveryLane(String lane) {
+        try {
+            return DeliveryLane.valueOf(lane.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unknown " + DELIVERY_LANE_HEADER + ": " + lane);
+        }
+    }
 }
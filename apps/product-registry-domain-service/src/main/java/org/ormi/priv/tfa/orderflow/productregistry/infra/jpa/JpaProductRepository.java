@@ -9,6 +9,7 @@ import org.ormi.priv.tfa.orderflow.kernel.product.ProductIdMapper;
 import org.ormi.priv.tfa.orderflow.kernel.product.SkuId;
 import org.ormi.priv.tfa.orderflow.kernel.product.SkuIdMapper;
 import org.ormi.priv.tfa.orderflow.kernel.product.persistence.ProductRepository;
+import org.ormi.priv.tfa.orderflow.kernel.product.persistence.SaveOutcome;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -21,10 +22,34 @@ import jakarta.transaction.Transactional;
  * Gère la persistance des entités {@link Product} via des mappers pour convertir
  * entre le domaine et les entités JPA. Supporte la mise à jour, la recherche par ID
  * et la vérification d'unicité par SKU.
+ * <p>
+ * L'écriture est un upsert unique gardé par version : aucune lecture préalable de
+ * l'entité, et une version déjà écrite n'est jamais écrasée par une plus ancienne.
  */
 @ApplicationScoped
 public class JpaProductRepository implements PanacheRepositoryBase<ProductEntity, UUID>, ProductRepository {
 
+    /**
+     * Upsert gardé par version : version écrite (null si rejetée par la garde) et
+     * version stockée au début de l'instruction (null si nouveau produit).
+     */
+    private static final String SQL_UPSERT_PRODUCT = """
+            WITH stored AS (
+                SELECT version FROM domain.products WHERE id = :id
+            ), upsert AS (
+                INSERT INTO domain.products (id, name, description, sku_id, status, version)
+                VALUES (:id, :name, :description, :skuId, :status, :version)
+                ON CONFLICT (id) DO UPDATE SET
+                    name = EXCLUDED.name,
+                    description = EXCLUDED.description,
+                    status = EXCLUDED.status,
+                    version = EXCLUDED.version
+                WHERE products.version < EXCLUDED.version
+                RETURNING version
+            )
+            SELECT (SELECT version FROM upsert), (SELECT version FROM stored)
+            """;
+
     private final ProductJpaMapper mapper;
     private final ProductIdMapper productIdMapper;    
     private final SkuIdMapper skuIdMapper;
@@ -46,21 +71,27 @@ public class JpaProductRepository implements PanacheRepositoryBase<ProductEntity
     /**
      * Persiste ou met à jour un produit dans la base de données.
      * <p>
-     * Si le produit existe déjà, met à jour l'entité existante. Sinon, crée une
-     * nouvelle entité et la merge.
+     * Insère le produit, ou met à jour la ligne existante si sa version stockée
+     * est antérieure, en une instruction.
      *
      * @param product produit à persister
+     * @return issue de l'écriture (non appliquée si le produit a été modifié entre-temps)
      */
     @Override
     @Transactional
-    public void save(Product product) {
-        findByIdOptional(productIdMapper.map(product.getId()))
-                .ifPresentOrElse(e -> {
-                    mapper.updateEntity(product, e);
-                }, () -> {
-                    ProductEntity newEntity = mapper.toEntity(product);
-                    getEntityManager().merge(newEntity);
-                });
+    public SaveOutcome save(Product product) {
+        final ProductEntity entity = mapper.toEntity(product);
+        final Object[] versions = (Object[]) getEntityManager().createNativeQuery(SQL_UPSERT_PRODUCT)
+                .setParameter("id", entity.getId())
+                .setParameter("name", entity.getName())
+                .setParameter("description", entity.getDescription())
+                .setParameter("skuId", entity.getSkuId())
+                .setParameter("status", entity.getStatus().name())
+                .setParameter("version", entity.getVersion())
+                .getSingleResult();
+        return SaveOutcome.of(versions[0] == null ? null : ((Number) versions[0]).longValue(),
+                versions[1] == null ? null : ((Number) versions[1]).longValue(),
+                entity.getVersion());
     }
 
     /**
@@ -0,0 +1,118 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.application;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.Projector.ProjectionResult;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.projection.ProjectionHandler;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.projection.ProjectionRuntime;
+import org.ormi.priv.tfa.orderflow.kernel.common.AggregateType;
+import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1Envelope;
+import org.ormi.priv.tfa.orderflow.kernel.product.jpa.ProductEventJpaMapper;
+import org.ormi.priv.tfa.orderflow.kernel.product.persistence.ProductEventVersion;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Projection de lots d'événements lus directement dans eventing.event_log.
+ *
+ * <p>Utilisée par les modes de livraison sans outbox (réplication logique,
+ * curseur checkpointé) : les lots arrivent dans l'ordre du log, donc des
+ * versions par agrégat, et sont projetés via
+ * {@link ProjectionDispatcher#dispatchAll} (une lecture et une écriture par
+ * agrégat), dans une seule transaction par lot (un commit pour toutes les vues
+ * du lot).</p>
+ *
+ * <p>En mode cursor, c'est la projection {@code orderflow.cursor.consumer-name}
+ * du {@link ProjectionRuntime} (checkpoint inchangé) : elle ne reçoit que les
+ * événements produit et avance sur sa propre lane, indépendamment des autres
+ * read models.</p>
+ *
+ * <h3>Résultats</h3>
+ * <ul>
+ *   <li>Success → vue persistée et diffusée</li>
+ *   <li>Version déjà projetée (re-livraison) → ignorée</li>
+ *   <li>NoOp → journalisé, ignoré</li>
+ *   <li>Failure → journalisé puis ignoré (pas de dead letter hors outbox)</li>
+ *   <li>Exception (base indisponible...) → lot annulé et propagé : il est re-livré</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class EventLogProjection implements ProjectionHandler {
+
+    private static final Logger LOG = Logger.getLogger(EventLogProjection.class);
+
+    private final ProjectionDispatcher dispatcher;
+    private final ProductEventJpaMapper mapper;
+    private final String name;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public EventLogProjection(
+            ProjectionDispatcher dispatcher,
+            ProductEventJpaMapper mapper,
+            @ConfigProperty(name = "orderflow.cursor.consumer-name", defaultValue = "product-registry-read") String name) {
+        this.dispatcher = dispatcher;
+        this.mapper = mapper;
+        this.name = name;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    /**
+     * Événements produit (versions non supportées journalisées par {@link #project}).
+     */
+    @Override
+    public boolean supports(EventLogRecord event) {
+        return AggregateType.PRODUCT.value().equals(event.aggregateType());
+    }
+
+    /**
+     * Projette les événements produit V1 d'un lot, dans l'ordre.
+     */
+    @Override
+    @Transactional(rollbackOn = Exception.class)
+    public void project(List<EventLogRecord> events) throws Exception {
+        final List<EventLogRecord> supported = new ArrayList<>(events.size());
+        final List<ProductEventV1Envelope<?>> envelopes = new ArrayList<>(events.size());
+        for (EventLogRecord ev : events) {
+            if (!AggregateType.PRODUCT.value().equals(ev.aggregateType())) {
+                continue;
+            }
+            if (ev.eventVersion() != ProductEventVersion.V1.getValue()) {
+                LOG.warnf("Unsupported event version skipped: eventLog=%d, version=%d",
+                        ev.id(), ev.eventVersion());
+                continue;
+            }
+            supported.add(ev);
+            envelopes.add(mapper.toProductEventV1(ev));
+        }
+        if (envelopes.isEmpty()) {
+            return;
+        }
+        final List<ProjectionResult<ProductView>> results = dispatcher.dispatchAll(envelopes, false);
+        for (int i = 0; i < supported.size(); i++) {
+            final EventLogRecord ev = supported.get(i);
+            final ProjectionResult<ProductView> result = results.get(i);
+            if (result.isNoOp()) {
+                LOG.debugf("Projection NoOp: eventLog=%d, aggregateId=%s: %s",
+                        ev.id(), ev.aggregateId(), result.getNoopReason());
+            }
+            if (result.isFailure()) {
+                LOG.errorf("Projection FAILED: eventLog=%d, aggregateId=%s: %s",
+                        ev.id(), ev.aggregateId(), result.getError());
+            }
+        }
+    }
+}
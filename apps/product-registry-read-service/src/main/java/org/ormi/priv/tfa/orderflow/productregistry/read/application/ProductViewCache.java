@@ -0,0 +1,241 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.application;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.ormi.priv.tfa.orderflow.contracts.productregistry.v1.read.ProductStreamElementDto;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView.ProductViewEvent;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Cache borné des vues produit récemment projetées, propre au chemin de
+ * projection outbox (write-behind).
+ *
+ * <p>Les événements consécutifs d'un produit sont repliés sur la vue en mémoire
+ * au lieu de relire sa ligne (désérialisation du jsonb complet) ; les écritures
+ * d'un produit sont coalescées jusqu'au flush de ses messages différés par le
+ * poller, qui les acquitte dans la même transaction.</p>
+ *
+ * <h3>Entrées</h3>
+ * <table>
+ *   <tr><th>État</th><th>Signification</th><th>Éviction</th></tr>
+ *   <tr><td>propre</td><td>identique à la ligne écrite par ce nœud</td><td>LRU au-delà de max-entries</td></tr>
+ *   <tr><td>en attente</td><td>en avance sur la base, messages non acquittés</td><td>jamais (flush ou abandon)</td></tr>
+ * </table>
+ *
+ * <h3>Cohérence par version</h3>
+ * <ul>
+ *   <li>Entrée propre utilisée seulement si le prochain événement la suit
+ *       (séquence ≤ version + 1) : un trou signifie que la base a avancé ailleurs
+ *       (shard repris par un autre nœud), l'entrée est évincée et la vue relue</li>
+ *   <li>Entrée en attente toujours utilisée : c'est l'état le plus récent</li>
+ *   <li>Écritures hors write-behind (cursor, réplication) → entrée propre évincée</li>
+ * </ul>
+ *
+ * <h3>Événements gardés</h3>
+ * <p>Une vue en cache ne garde pas tout ce qui a été replié : entrée propre →
+ * les {@code recent-events} derniers événements (ceux de la ligne écrite) ;
+ * entrée en attente → cette fenêtre plus les événements pas encore écrits en
+ * base. La mémoire d'une entrée reste bornée quelle que soit la durée de vie
+ * du produit, et {@code save} n'a que la fin non écrite à ajouter à
+ * l'historique.</p>
+ *
+ * <p>Thread-safe (moniteur) ; les entrées d'un produit ne sont modifiées que
+ * depuis sa mailbox.</p>
+ */
+@ApplicationScoped
+public class ProductViewCache {
+
+    /**
+     * Écriture en attente d'un produit.
+     *
+     * @param view vue à écrire
+     * @param notification notification du dernier événement appliqué
+     */
+    public record PendingWrite(ProductView view, ProductStreamElementDto notification) {
+    }
+
+    private static final class Entry {
+        private ProductView view;
+        /** Notification à diffuser au flush (null si l'entrée est propre) */
+        private ProductStreamElementDto pending;
+        /** Dernière version connue en base (événements au-delà pas encore écrits) */
+        private long storedVersion;
+    }
+
+    private final int maxEntries;
+    /** Taille de la fenêtre d'événements de la ligne de vue */
+    private final int recentEvents;
+    /** Ordre d'accès (LRU) */
+    private final Map<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Constructeur CDI.
+     *
+     * @param maxEntries nombre max de vues gardées (les vues en attente n'en sont jamais évincées)
+     * @param recentEvents événements gardés par une vue propre (fenêtre de la ligne de vue)
+     * @throws IllegalStateException si max-entries ou recent-events est négatif
+     */
+    @Inject
+    public ProductViewCache(
+            @ConfigProperty(name = "orderflow.read.product-view.cache.max-entries", defaultValue = "10000") int maxEntries,
+            @ConfigProperty(name = "orderflow.read.product-view.recent-events", defaultValue = "20") int recentEvents) {
+        if (maxEntries < 0) {
+            throw new IllegalStateException("Invalid product view cache size: " + maxEntries);
+        }
+        if (recentEvents < 0) {
+            throw new IllegalStateException("Invalid product view recent events: " + recentEvents);
+        }
+        this.maxEntries = maxEntries;
+        this.recentEvents = recentEvents;
+    }
+
+    /**
+     * Vue en mémoire d'un produit, si elle peut servir de base au repli d'un lot
+     * commençant à {@code nextSequence}.
+     */
+    public synchronized Optional<ProductView> find(UUID productId, long nextSequence) {
+        final Entry entry = entries.get(productId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.pending == null && entry.view.getVersion() < nextSequence - 1) {
+            // Base avancée ailleurs : relecture
+            entries.remove(productId);
+            return Optional.empty();
+        }
+        return Optional.of(entry.view);
+    }
+
+    /**
+     * Garde la vue repliée en attente d'écriture (remplace l'écriture précédente
+     * non flushée du produit), réduite à la fenêtre récente et aux événements
+     * pas encore écrits.
+     *
+     * @param view vue repliée
+     * @param notification notification du dernier événement appliqué
+     * @param storedVersion version en base de la vue de départ du repli (0 si
+     *        absente), ignorée si le produit est déjà en cache
+     * @return false si le cache est plein de vues en attente (écrire directement)
+     */
+    public synchronized boolean stage(ProductView view, ProductStreamElementDto notification,
+            long storedVersion) {
+        final UUID productId = view.getId().value();
+        Entry entry = entries.get(productId);
+        if (entry == null) {
+            if (!makeRoom()) {
+                return false;
+            }
+            entry = new Entry();
+            entry.storedVersion = storedVersion;
+            entries.put(productId, entry);
+        } else if (entry.pending == null) {
+            // Entrée propre : identique à la ligne écrite
+            entry.storedVersion = entry.view.getVersion();
+        }
+        entry.view = trim(view, entry.storedVersion);
+        entry.pending = notification;
+        return true;
+    }
+
+    /**
+     * Écriture en attente d'un produit.
+     */
+    public synchronized Optional<PendingWrite> pending(UUID productId) {
+        final Entry entry = entries.get(productId);
+        return entry == null || entry.pending == null
+                ? Optional.empty()
+                : Optional.of(new PendingWrite(entry.view, entry.pending));
+    }
+
+    /**
+     * Indique si le produit a une écriture en attente.
+     */
+    public synchronized boolean hasPending(UUID productId) {
+        final Entry entry = entries.get(productId);
+        return entry != null && entry.pending != null;
+    }
+
+    /**
+     * Vue écrite : l'entrée redevient propre (réduite à la fenêtre récente) si
+     * elle n'a pas avancé entre-temps.
+     */
+    public synchronized void written(UUID productId, long version) {
+        final Entry entry = entries.get(productId);
+        if (entry != null && entry.pending != null) {
+            entry.storedVersion = Math.max(entry.storedVersion, version);
+            entry.view = trim(entry.view, entry.storedVersion);
+            if (entry.view.getVersion() == version) {
+                entry.pending = null;
+                makeRoom();
+            }
+        }
+    }
+
+    /**
+     * Retire la vue d'un produit, écriture en attente comprise (flush annulé).
+     */
+    public synchronized void evict(UUID productId) {
+        entries.remove(productId);
+    }
+
+    /**
+     * Retire la vue d'un produit si elle est propre (écrite par un autre chemin).
+     */
+    public synchronized void evictIfWritten(UUID productId) {
+        final Entry entry = entries.get(productId);
+        if (entry != null && entry.pending == null) {
+            entries.remove(productId);
+        }
+    }
+
+    /**
+     * Retire toutes les vues propres (tables remplacées par une reconstruction).
+     */
+    public synchronized void evictAllWritten() {
+        entries.values().removeIf(entry -> entry.pending == null);
+    }
+
+    /**
+     * Vue réduite aux {@code recent-events} derniers événements et à ceux
+     * postérieurs à {@code storedVersion} (événements triés par séquence).
+     */
+    private ProductView trim(ProductView view, long storedVersion) {
+        final List<ProductViewEvent> events = view.getEvents();
+        int from = Math.max(0, events.size() - recentEvents);
+        while (from > 0 && events.get(from - 1).getSequence() > storedVersion) {
+            from--;
+        }
+        if (from == 0) {
+            return view;
+        }
+        return ProductView.Builder()
+                .with(view)
+                .events(events.subList(from, events.size()))
+                .build();
+    }
+
+    /**
+     * Évince les vues propres les moins récemment utilisées jusqu'à repasser sous
+     * max-entries.
+     *
+     * @return false s'il ne reste que des vues en attente et aucune place
+     */
+    private boolean makeRoom() {
+        final Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() >= maxEntries && eldest.hasNext()) {
+            if (eldest.next().pending == null) {
+                eldest.remove();
+            }
+        }
+        return entries.size() < maxEntries;
+    }
+}
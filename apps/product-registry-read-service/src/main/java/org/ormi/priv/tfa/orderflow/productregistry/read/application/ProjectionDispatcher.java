@@ -1,6 +1,14 @@
 package org.ormi.priv.tfa.orderflow.productregistry.read.application;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+
+import org.jboss.logging.Logger;
 
 import org.ormi.priv.tfa.orderflow.contracts.productregistry.v1.read.ProductStreamElementDto;
 import org.ormi.priv.tfa.orderflow.cqrs.Projector.ProjectionResult;
@@ -8,6 +16,7 @@ import org.ormi.priv.tfa.orderflow.kernel.Product;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1Envelope;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductId;
 import org.ormi.priv.tfa.orderflow.kernel.product.persistence.ProductViewRepository;
+import org.ormi.priv.tfa.orderflow.kernel.product.persistence.SaveOutcome;
 import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
 import org.ormi.priv.tfa.orderflow.productregistry.read.projection.ProductViewProjector;
 
@@ -31,9 +40,26 @@ import jakarta.transaction.Transactional;
  *   <li>Persistance transactionnelle si succès</li>
  *   <li>Diffusion via {@link ProductEventBroadcaster}</li>
  * </ol>
+ *
+ * <h3>Lots par agrégat</h3>
+ * <p>{@link #dispatchAll} regroupe un lot par agrégat et replie tous les
+ * événements d'un agrégat avec {@link ProductViewProjector#projectAll} à partir
+ * d'un seul {@code findById} : une rafale de N mises à jour d'un produit coûte
+ * 1 lecture, 1 écriture et 1 notification au lieu de N cycles
+ * lecture-modification-écriture. Les événements de version inférieure ou égale à
+ * celle de la vue (re-livraison) sont ignorés par le repli.</p>
+ *
+ * <h3>Écriture différée (outbox)</h3>
+ * <p>{@link #dispatchAllDeferred} replie sur la vue gardée par
+ * {@link ProductViewCache} (relecture seulement si absente ou distancée) et y
+ * laisse la vue repliée au lieu de l'écrire : l'écriture et la notification ont
+ * lieu au {@link #flushDeferred} de l'agrégat, dans la transaction qui acquitte
+ * ses messages. Cache plein de vues en attente → écriture immédiate.</p>
  */
 @ApplicationScoped
 public class ProjectionDispatcher {
+
+    private static final Logger LOG = Logger.getLogger(ProjectionDispatcher.class);
     
     /** Type d'agrégat géré (Product.class.getSimpleName()) */
     private static final String PRODUCT_AGGREGATE_TYPE = Product.class.getSimpleName();
@@ -41,6 +67,7 @@ public class ProjectionDispatcher {
     private final Instance<ProductViewProjector> productViewProjector;
     private final ProductViewRepository productViewRepository;
     private final ProductEventBroadcaster productEventBroadcaster;
+    private final ProductViewCache productViewCache;
 
     /**
      * Constructeur CDI avec injection de dépendances.
@@ -48,15 +75,18 @@ public class ProjectionDispatcher {
      * @param productViewProjector instance dynamique du projecteur (CDI Instance)
      * @param productViewRepository repository des vues de lecture
      * @param productEventBroadcaster broadcaster pour diffuser les projections
+     * @param productViewCache vues gardées en mémoire par le chemin outbox
      */
     @Inject
     public ProjectionDispatcher(
             Instance<ProductViewProjector> productViewProjector,
             ProductViewRepository productViewRepository,
-            ProductEventBroadcaster productEventBroadcaster) {
+            ProductEventBroadcaster productEventBroadcaster,
+            ProductViewCache productViewCache) {
         this.productViewProjector = productViewProjector;
         this.productViewRepository = productViewRepository;
         this.productEventBroadcaster = productEventBroadcaster;
+        this.productViewCache = productViewCache;
     }
 
     /**
@@ -72,11 +102,7 @@ public class ProjectionDispatcher {
      *   <li>Persiste et diffuse UNIQUEMENT si succès</li>
      * </ul>
      *
-     * <p><b>TODOs en cours :</b></p>
-     * <ul>
-     *   <li>Logger les échecs de projection (cas anormal)</li>
-     *   <li>Logger les NoOp (ordering cassé temporairement)</li>
-     * </ul>
+     * <p>Lot d'un seul événement de {@link #dispatchAll}.</p>
      *
      * @param event l'enveloppe d'événement à projeter
      * @return résultat de la projection ({@link ProjectionResult})
@@ -85,35 +111,198 @@ public class ProjectionDispatcher {
     @Transactional
     public ProjectionResult<ProductView> dispatch(ProductEventV1Envelope<?> event) 
             throws IllegalStateException {
-        
-        if (event.aggregateType().equals(PRODUCT_AGGREGATE_TYPE)) {
-            final Optional<ProductView> currentView = productViewRepository
-                    .findById(new ProductId(event.aggregateId()));
-            
-            final ProjectionResult<ProductView> result = 
-                productViewProjector.get().project(currentView, event);
-            
-            if (result.isFailure()) {
-                // TODO: Hey ! Log the failure. It is not a normal case
-                // log.error("Projection failed for {}: {}", event.aggregateId(), result.getError());
-                return result;
+        return dispatchAll(List.of(event), false).getFirst();
+    }
+
+    /**
+     * Dispatche un lot d'événements produit, regroupés par agrégat (ordre des
+     * versions conservé au sein d'un agrégat).
+     *
+     * <h3>Par agrégat</h3>
+     * <ol>
+     *   <li>1 {@code findById} de la vue courante</li>
+     *   <li>Repli de tous ses événements via {@code projectAll} (versions déjà
+     *       projetées ignorées)</li>
+     *   <li>Repli rejeté → repli pas à pas pour situer l'événement fautif ;
+     *       les événements appliqués avant lui sont conservés</li>
+     *   <li>1 {@code save} et 1 notification (dernier événement appliqué) si la
+     *       vue a avancé</li>
+     * </ol>
+     *
+     * @param events événements du lot, dans l'ordre des versions par agrégat
+     * @param haltOnFailure true pour ne plus appliquer les événements d'un agrégat
+     *        après son premier rejet (ordre strict de l'outbox), false pour les
+     *        projeter quand même (livraison depuis event_log)
+     * @return un résultat par événement, dans l'ordre du lot (vue finale de
+     *         l'agrégat pour les événements appliqués par le repli)
+     * @throws IllegalStateException si type d'agrégat inconnu
+     */
+    @Transactional
+    public List<ProjectionResult<ProductView>> dispatchAll(List<ProductEventV1Envelope<?>> events,
+            boolean haltOnFailure) throws IllegalStateException {
+        return dispatchAll(events, haltOnFailure, false);
+    }
+
+    /**
+     * Dispatche un lot outbox comme {@link #dispatchAll} (arrêt au premier rejet
+     * par agrégat), écritures différées : les vues repliées restent dans
+     * {@link ProductViewCache} jusqu'à {@link #flushDeferred}.
+     *
+     * @param events événements du lot, dans l'ordre des versions par agrégat
+     * @return un résultat par événement, dans l'ordre du lot
+     * @throws IllegalStateException si type d'agrégat inconnu
+     */
+    @Transactional
+    public List<ProjectionResult<ProductView>> dispatchAllDeferred(List<ProductEventV1Envelope<?>> events)
+            throws IllegalStateException {
+        return dispatchAll(events, true, true);
+    }
+
+    /**
+     * Indique si la vue d'un agrégat attend son {@link #flushDeferred}.
+     */
+    public boolean hasDeferredWrite(UUID aggregateId) {
+        return productViewCache.hasPending(aggregateId);
+    }
+
+    /**
+     * Écrit la vue en attente d'un agrégat et diffuse sa notification, dans la
+     * transaction courante (celle qui acquitte ses messages différés).
+     */
+    @Transactional
+    public void flushDeferred(UUID aggregateId) {
+        productViewCache.pending(aggregateId).ifPresent(pending -> {
+            final SaveOutcome outcome = productViewRepository.save(pending.view());
+            if (!outcome.applied()) {
+                // Base déjà au-delà (autre nœud, reconstruction) : vue relue au prochain lot
+                LOG.debugf("Deferred ProductView write %s for %s (version %d)",
+                        outcome, aggregateId, pending.view().getVersion());
+                productViewCache.evict(aggregateId);
+                return;
+            }
+            productEventBroadcaster.broadcast(pending.notification());
+            productViewCache.written(aggregateId, pending.view().getVersion());
+        });
+    }
+
+    /**
+     * Oublie la vue en attente d'un agrégat (flush annulé : relue au prochain lot).
+     */
+    public void discardDeferred(UUID aggregateId) {
+        productViewCache.evict(aggregateId);
+    }
+
+    private List<ProjectionResult<ProductView>> dispatchAll(List<ProductEventV1Envelope<?>> events,
+            boolean haltOnFailure, boolean deferWrites) throws IllegalStateException {
+        final Map<UUID, List<Integer>> positionsByAggregate = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            final ProductEventV1Envelope<?> event = events.get(i);
+            if (!event.aggregateType().equals(PRODUCT_AGGREGATE_TYPE)) {
+                throw new IllegalStateException("Unmatched aggregate type: " + event.aggregateType());
+            }
+            positionsByAggregate.computeIfAbsent(event.aggregateId(), aggregate -> new ArrayList<>()).add(i);
+        }
+        final List<ProjectionResult<ProductView>> results = new ArrayList<>(
+                Collections.nCopies(events.size(), null));
+        for (Map.Entry<UUID, List<Integer>> aggregate : positionsByAggregate.entrySet()) {
+            final List<Integer> positions = aggregate.getValue();
+            final List<ProjectionResult<ProductView>> aggregateResults = projectAggregate(aggregate.getKey(),
+                    positions.stream().map(events::get).toList(), haltOnFailure, deferWrites);
+            for (int i = 0; i < positions.size(); i++) {
+                results.set(positions.get(i), aggregateResults.get(i));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Projette les événements d'un agrégat à partir d'une seule lecture de sa vue
+     * (aucune si elle est en cache et que les écritures sont différées).
+     */
+    private List<ProjectionResult<ProductView>> projectAggregate(UUID aggregateId,
+            List<ProductEventV1Envelope<?>> events, boolean haltOnFailure, boolean deferWrites) {
+        final Optional<ProductView> currentView = deferWrites
+                ? productViewCache.find(aggregateId, events.getFirst().sequence())
+                        .or(() -> productViewRepository.findById(new ProductId(aggregateId)))
+                : productViewRepository.findById(new ProductId(aggregateId));
+        final long initialVersion = currentView.map(ProductView::getVersion).orElse(0L);
+        final ProductViewProjector projector = productViewProjector.get();
+        final ProjectionResult<ProductView> folded = projector.projectAll(currentView, events, initialVersion);
+        if (folded.isSuccess()) {
+            // Cas nominal : tous les événements appliqués (ou déjà projetés)
+            final ProductView view = folded.getProjection();
+            if (view.getVersion() > initialVersion) {
+                persist(view, events.stream()
+                        .filter(event -> event.sequence().equals(view.getVersion()))
+                        .findFirst()
+                        .orElse(events.getLast()), initialVersion, deferWrites);
+            }
+            return Collections.nCopies(events.size(), folded);
+        }
+        // Au moins un rejet : repli pas à pas (sans écriture intermédiaire)
+        final List<ProjectionResult<ProductView>> results = new ArrayList<>(events.size());
+        Optional<ProductView> view = currentView;
+        ProductEventV1Envelope<?> lastApplied = null;
+        boolean halted = false;
+        for (ProductEventV1Envelope<?> event : events) {
+            if (halted) {
+                results.add(ProjectionResult.noOp("Skipped: a previous event of the aggregate was not projected"));
+                continue;
             }
-            
-            if (result.isNoOp()) {
-                // TODO: Log info. It may happen if ordering is temporarily broken
-                // log.info("Projection NoOp for {} (possible ordering issue)", event.aggregateId());
+            if (view.isPresent() && event.sequence() <= view.get().getVersion()) {
+                // Re-livraison : déjà dans la vue
+                results.add(ProjectionResult.projected(view.get()));
+                continue;
             }
-            
+            final ProjectionResult<ProductView> result = projector.project(view, event);
+            results.add(result);
             if (result.isSuccess()) {
-                productViewRepository.save(result.getProjection());
-                productEventBroadcaster.broadcast(new ProductStreamElementDto(
-                    event.event().eventType(),
-                    event.aggregateId().toString(),
-                    event.timestamp()
-                ));
+                view = Optional.of(result.getProjection());
+                lastApplied = event;
+                continue;
             }
-            return result;
+            if (result.isFailure()) {
+                LOG.warnf("Projection FAILED for %s (version %d): %s",
+                        aggregateId, event.sequence(), result.getError());
+            } else {
+                LOG.debugf("Projection NoOp for %s (version %d): %s",
+                        aggregateId, event.sequence(), result.getNoopReason());
+            }
+            halted = haltOnFailure;
+        }
+        if (lastApplied != null) {
+            persist(view.get(), lastApplied, initialVersion, deferWrites);
+        }
+        return results;
+    }
+
+    /**
+     * Écrit la vue repliée et diffuse une notification unique pour l'agrégat
+     * (ou les met en attente dans le cache si les écritures sont différées).
+     *
+     * @param initialVersion version de la vue de départ du repli
+     */
+    private void persist(ProductView view, ProductEventV1Envelope<?> lastApplied, long initialVersion,
+            boolean deferWrites) {
+        final ProductStreamElementDto notification = new ProductStreamElementDto(
+            lastApplied.event().eventType(),
+            lastApplied.aggregateId().toString(),
+            lastApplied.timestamp()
+        );
+        if (deferWrites && productViewCache.stage(view, notification, initialVersion)) {
+            return;
+        }
+        if (!deferWrites) {
+            // Écrite hors cache : la vue en cache n'est plus la ligne courante
+            productViewCache.evictIfWritten(lastApplied.aggregateId());
+        }
+        final SaveOutcome outcome = productViewRepository.save(view);
+        if (!outcome.applied()) {
+            // Version déjà écrite (re-livraison concurrente) : rien de nouveau à diffuser
+            LOG.debugf("ProductView write %s for %s (version %d)",
+                    outcome, lastApplied.aggregateId(), view.getVersion());
+            return;
         }
-        throw new IllegalStateException("Unmatched aggregate type: " + event.aggregateType());
+        productEventBroadcaster.broadcast(notification);
     }
 }
@@ -8,6 +8,7 @@ import org.ormi.priv.tfa.orderflow.contracts.productregistry.v1.read.ProductStre
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductId;
 import org.ormi.priv.tfa.orderflow.kernel.product.persistence.ProductViewRepository;
 import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView.ProductViewEvent;
 
 import io.smallrye.mutiny.Multi;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -21,7 +22,8 @@ import jakarta.inject.Inject;
  *
  * <h3>Capacités</h3>
  * <ul>
- *   <li>Recherche par ID (get one)</li>
+ *   <li>Recherche par ID (get one, événements récents uniquement)</li>
+ *   <li>Historique complet d'un produit (appel explicite)</li>
  *   <li>Recherche paginée par pattern SKU</li>
  *   <li>Streaming d'événements par produit unique</li>
  *   <li>Streaming d'événements pour liste de produits</li>
@@ -56,6 +58,19 @@ public class ReadProductService {
         return repository.findById(productId);
     }
 
+    /**
+     * Historique complet des événements projetés d'un produit.
+     *
+     * <p>Les vues ne portent que les derniers événements ; l'historique est lu
+     * dans sa table dédiée, à la demande.</p>
+     *
+     * @param productId l'ID du produit
+     * @return événements par séquence croissante (vide si produit inconnu)
+     */
+    public List<ProductViewEvent> findEventHistory(ProductId productId) {
+        return repository.findEventHistory(productId);
+    }
+
     /**
      * Recherche paginée de produits par pattern SKU.
      *
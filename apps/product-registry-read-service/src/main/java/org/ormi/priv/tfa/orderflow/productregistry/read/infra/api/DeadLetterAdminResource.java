@@ -0,0 +1,150 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.api;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.jboss.resteasy.reactive.RestResponse;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeadLetter;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeadLetterRepository;
+import org.ormi.priv.tfa.orderflow.kernel.common.AggregateType;
+import org.ormi.priv.tfa.orderflow.productregistry.read.infra.outbox.DeadLetterReplayJob;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * API REST d'administration des dead letters outbox (messages produit épuisés).
+ *
+ * <h3>Endpoints</h3>
+ * <ul>
+ *   <li>GET /admin/outbox/dead-letters - Liste paginée (aggregateId, errorClass, afterId, limit)</li>
+ *   <li>GET /admin/outbox/dead-letters/stats - Nombre de dead letters par classe d'erreur</li>
+ *   <li>POST /admin/outbox/dead-letters/replay - Replay à débit limité (aggregateId, errorClass, rate, max)</li>
+ *   <li>GET /admin/outbox/dead-letters/replay - État du replay</li>
+ *   <li>DELETE /admin/outbox/dead-letters/replay - Annulation du replay</li>
+ * </ul>
+ */
+@Path("/admin/outbox/dead-letters")
+@Produces(MediaType.APPLICATION_JSON)
+public class DeadLetterAdminResource {
+
+    private final DeadLetterRepository deadLetters;
+    private final DeadLetterReplayJob replayJob;
+
+    /**
+     * Constructeur par injection de dépendances.
+     *
+     * @param deadLetters repository des dead letters
+     * @param replayJob job de replay à débit limité
+     */
+    @Inject
+    public DeadLetterAdminResource(DeadLetterRepository deadLetters, DeadLetterReplayJob replayJob) {
+        this.deadLetters = deadLetters;
+        this.replayJob = replayJob;
+    }
+
+    /**
+     * Liste les dead letters (plus anciennes d'abord, pagination par id).
+     *
+     * @param aggregateId agrégat ciblé (optionnel)
+     * @param errorClass classe d'erreur ciblée (optionnel)
+     * @param afterId dernier id de la page précédente (optionnel)
+     * @param limit taille de page (1..500)
+     * @return dead letters avec leur historique d'erreurs
+     */
+    @GET
+    public List<DeadLetter> list(
+            @QueryParam("aggregateId") String aggregateId,
+            @QueryParam("errorClass") String errorClass,
+            @QueryParam("afterId") Long afterId,
+            @QueryParam("limit") @DefaultValue("50") int limit) {
+        if (limit < 1 || limit > 500) {
+            throw new BadRequestException("limit must be between 1 and 500");
+        }
+        return deadLetters.find(filter(aggregateId, errorClass), afterId, limit);
+    }
+
+    /**
+     * Nombre de dead letters par classe d'erreur.
+     *
+     * @return classe d'erreur → nombre, plus fréquentes d'abord
+     */
+    @GET
+    @Path("/stats")
+    public Map<String, Long> stats() {
+        return deadLetters.countByErrorClass(AggregateType.PRODUCT.value());
+    }
+
+    /**
+     * Démarre un replay en masse, par agrégat et/ou par classe d'erreur.
+     *
+     * @param aggregateId agrégat ciblé (optionnel)
+     * @param errorClass classe d'erreur ciblée (optionnel)
+     * @param rate messages remis en outbox par seconde
+     * @param max nombre max de messages rejoués (0 = tous)
+     * @return 202 avec l'état du replay, 409 si un replay est déjà en cours
+     */
+    @POST
+    @Path("/replay")
+    public RestResponse<DeadLetterReplayJob.Status> replay(
+            @QueryParam("aggregateId") String aggregateId,
+            @QueryParam("errorClass") String errorClass,
+            @QueryParam("rate") @DefaultValue("50") int rate,
+            @QueryParam("max") @DefaultValue("0") long max) {
+        if (rate < 1) {
+            throw new BadRequestException("rate must be >= 1");
+        }
+        if (max < 0) {
+            throw new BadRequestException("max must be >= 0");
+        }
+        try {
+            return RestResponse.accepted(replayJob.start(filter(aggregateId, errorClass), rate, max));
+        } catch (IllegalStateException e) {
+            return RestResponse.status(RestResponse.Status.CONFLICT, replayJob.status());
+        }
+    }
+
+    /**
+     * État du replay en cours ou du dernier replay.
+     *
+     * @return état, 404 si aucun replay n'a été lancé
+     */
+    @GET
+    @Path("/replay")
+    public RestResponse<DeadLetterReplayJob.Status> replayStatus() {
+        final DeadLetterReplayJob.Status status = replayJob.status();
+        return status == null ? RestResponse.notFound() : RestResponse.ok(status);
+    }
+
+    /**
+     * Annule le replay en cours.
+     *
+     * @return état final, 404 si aucun replay n'a été lancé
+     */
+    @DELETE
+    @Path("/replay")
+    public RestResponse<DeadLetterReplayJob.Status> cancelReplay() {
+        final DeadLetterReplayJob.Status status = replayJob.cancel();
+        return status == null ? RestResponse.notFound() : RestResponse.ok(status);
+    }
+
+    private static DeadLetterRepository.Filter filter(String aggregateId, String errorClass) {
+        final UUID id;
+        try {
+            id = aggregateId == null || aggregateId.isBlank() ? null : UUID.fromString(aggregateId);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("aggregateId must be a UUID");
+        }
+        return new DeadLetterRepository.Filter(AggregateType.PRODUCT.value(), id,
+                errorClass == null || errorClass.isBlank() ? null : errorClass);
+    }
+}
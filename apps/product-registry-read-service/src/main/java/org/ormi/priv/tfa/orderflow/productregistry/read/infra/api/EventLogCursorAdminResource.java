@@ -0,0 +1,62 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.api;
+
+import java.util.List;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.cursor.EventLogCursors;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.projection.ProjectionRuntime;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * API REST d'administration des curseurs sur l'event log (supervision).
+ *
+ * <h3>Endpoints</h3>
+ * <ul>
+ *   <li>GET /admin/cursors - Position, bail et trou d'id en attente de chaque curseur</li>
+ *   <li>GET /admin/cursors/projections - Position, file et erreurs de chaque projection</li>
+ * </ul>
+ */
+@Path("/admin/cursors")
+@Produces(MediaType.APPLICATION_JSON)
+public class EventLogCursorAdminResource {
+
+    private final EventLogCursors cursors;
+    private final ProjectionRuntime projections;
+
+    /**
+     * Constructeur par injection de dépendances.
+     *
+     * @param cursors curseurs supervisés
+     * @param projections runtime des projections alimentées par le curseur partagé
+     */
+    @Inject
+    public EventLogCursorAdminResource(EventLogCursors cursors, ProjectionRuntime projections) {
+        this.cursors = cursors;
+        this.projections = projections;
+    }
+
+    /**
+     * État des curseurs démarrés sur ce nœud.
+     *
+     * @return un état par consommateur (vide si le mode cursor est inactif)
+     */
+    @GET
+    public List<EventLogCursors.Status> status() {
+        return cursors.status();
+    }
+
+    /**
+     * État des lanes de projection de ce nœud.
+     *
+     * @return un état par projection (vide si le mode cursor est inactif)
+     */
+    @GET
+    @Path("/projections")
+    public List<ProjectionRuntime.Status> projections() {
+        return projections.status();
+    }
+}
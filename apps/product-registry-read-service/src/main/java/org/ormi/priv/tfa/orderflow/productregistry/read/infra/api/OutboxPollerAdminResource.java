@@ -0,0 +1,72 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.api;
+
+import java.util.List;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.AdaptiveBatchController;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.OutboxConsumerGroup;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.OutboxPartitionedPoller;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * API REST d'administration du poller outbox (supervision).
+ *
+ * <h3>Endpoints</h3>
+ * <ul>
+ *   <li>GET /admin/outbox/poller - Mode, taille de batch, backlog estimé, messages en cours</li>
+ *   <li>GET /admin/outbox/poller/aggregate-types - Poids, backlog estimé et messages en cours par type</li>
+ *   <li>GET /admin/outbox/poller/consumer-group - Membres du groupe, slots détenus par ce nœud</li>
+ * </ul>
+ */
+@Path("/admin/outbox/poller")
+@Produces(MediaType.APPLICATION_JSON)
+public class OutboxPollerAdminResource {
+
+    private final OutboxPartitionedPoller poller;
+
+    /**
+     * Constructeur par injection de dépendances.
+     *
+     * @param poller poller outbox supervisé
+     */
+    @Inject
+    public OutboxPollerAdminResource(OutboxPartitionedPoller poller) {
+        this.poller = poller;
+    }
+
+    /**
+     * État courant du contrôleur adaptatif du poller.
+     *
+     * @return photographie de l'état (mode, batch, délai, backlog)
+     */
+    @GET
+    public AdaptiveBatchController.Status status() {
+        return poller.status();
+    }
+
+    /**
+     * État par type d'agrégat servi par le poller.
+     *
+     * @return poids, backlog estimé, messages en cours et claims cumulés de chaque type
+     */
+    @GET
+    @Path("/aggregate-types")
+    public List<OutboxPartitionedPoller.AggregateTypeStatus> aggregateTypes() {
+        return poller.aggregateTypeStatus();
+    }
+
+    /**
+     * Appartenance de ce nœud au consumer group outbox.
+     *
+     * @return membres vivants, slots actifs et en libération, part cible
+     */
+    @GET
+    @Path("/consumer-group")
+    public OutboxConsumerGroup.Status consumerGroup() {
+        return poller.consumerGroupStatus();
+    }
+}
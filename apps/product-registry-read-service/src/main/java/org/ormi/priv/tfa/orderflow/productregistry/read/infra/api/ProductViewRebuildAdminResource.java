@@ -0,0 +1,75 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.api;
+
+import org.jboss.resteasy.reactive.RestResponse;
+import org.ormi.priv.tfa.orderflow.productregistry.read.infra.rebuild.ProductViewRebuildJob;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * API REST d'administration de la reconstruction des vues produit.
+ *
+ * <h3>Endpoints</h3>
+ * <ul>
+ *   <li>POST /admin/rebuild/product-views - Démarre une reconstruction depuis l'event log</li>
+ *   <li>GET /admin/rebuild/product-views - Étape, progression et débit</li>
+ *   <li>DELETE /admin/rebuild/product-views - Annulation (read model live inchangé)</li>
+ * </ul>
+ */
+@Path("/admin/rebuild/product-views")
+@Produces(MediaType.APPLICATION_JSON)
+public class ProductViewRebuildAdminResource {
+
+    private final ProductViewRebuildJob rebuildJob;
+
+    /**
+     * Constructeur par injection de dépendances.
+     *
+     * @param rebuildJob job de reconstruction
+     */
+    @Inject
+    public ProductViewRebuildAdminResource(ProductViewRebuildJob rebuildJob) {
+        this.rebuildJob = rebuildJob;
+    }
+
+    /**
+     * Démarre une reconstruction.
+     *
+     * @return 202 avec l'état initial, 409 si une reconstruction est déjà en cours
+     */
+    @POST
+    public RestResponse<ProductViewRebuildJob.Status> start() {
+        try {
+            return RestResponse.accepted(rebuildJob.start());
+        } catch (IllegalStateException e) {
+            return RestResponse.status(RestResponse.Status.CONFLICT, rebuildJob.status());
+        }
+    }
+
+    /**
+     * État de la reconstruction en cours ou de la dernière.
+     *
+     * @return état, 404 si aucune reconstruction n'a été lancée
+     */
+    @GET
+    public RestResponse<ProductViewRebuildJob.Status> status() {
+        final ProductViewRebuildJob.Status status = rebuildJob.status();
+        return status == null ? RestResponse.notFound() : RestResponse.ok(status);
+    }
+
+    /**
+     * Annule la reconstruction en cours.
+     *
+     * @return état, 404 si aucune reconstruction n'a été lancée
+     */
+    @DELETE
+    public RestResponse<ProductViewRebuildJob.Status> cancel() {
+        final ProductViewRebuildJob.Status status = rebuildJob.cancel();
+        return status == null ? RestResponse.notFound() : RestResponse.ok(status);
+    }
+}
@@ -0,0 +1,44 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.api;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.replication.EventLogReplicationStream;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * API REST d'administration de la livraison par réplication logique (supervision).
+ *
+ * <h3>Endpoints</h3>
+ * <ul>
+ *   <li>GET /admin/replication - Slot, LSN reçu et acquitté, transactions livrées</li>
+ * </ul>
+ */
+@Path("/admin/replication")
+@Produces(MediaType.APPLICATION_JSON)
+public class ReplicationAdminResource {
+
+    private final EventLogReplicationStream stream;
+
+    /**
+     * Constructeur par injection de dépendances.
+     *
+     * @param stream flux de réplication supervisé
+     */
+    @Inject
+    public ReplicationAdminResource(EventLogReplicationStream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * État courant du flux de réplication.
+     *
+     * @return photographie du flux (running=false si le mode outbox est actif)
+     */
+    @GET
+    public EventLogReplicationStream.Status status() {
+        return stream.status();
+    }
+}
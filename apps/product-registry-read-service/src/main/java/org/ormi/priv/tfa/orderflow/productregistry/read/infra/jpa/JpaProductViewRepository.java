@@ -4,36 +4,121 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductId;
 import org.ormi.priv.tfa.orderflow.kernel.product.SkuId;
 import org.ormi.priv.tfa.orderflow.kernel.product.persistence.ProductViewRepository;
+import org.ormi.priv.tfa.orderflow.kernel.product.persistence.SaveOutcome;
 import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView.ProductViewEvent;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
 
+/**
+ * Repository JPA des vues produit.
+ *
+ * <p>La ligne {@code product_view} porte l'état courant et les
+ * {@code recent-events} derniers événements ; l'historique complet est ajouté
+ * ligne à ligne dans {@code product_view_event} ({@link ProductViewEventEntity}).
+ * Une mise à jour écrit donc la vue et ses seuls nouveaux événements, quel que
+ * soit l'historique du produit, et un {@code findById} ne désérialise que la
+ * fenêtre récente.</p>
+ *
+ * <h3>Écriture</h3>
+ * <p>Une seule instruction : upsert gardé par {@code _version} (une version
+ * déjà projetée n'écrase jamais une plus récente) renvoyant la version écrite
+ * et la version stockée auparavant, sans charger l'entité. Les événements
+ * postérieurs à cette dernière sont ensuite ajoutés à l'historique.</p>
+ */
 @ApplicationScoped
 public class JpaProductViewRepository implements PanacheRepositoryBase<ProductViewEntity, UUID>, ProductViewRepository {
 
+    /** Ajout idempotent à l'historique (re-livraison, reconstruction) */
+    private static final String SQL_APPEND_EVENT = """
+            INSERT INTO read_product_registry.product_view_event (product_id, sequence, type, occurred_at, payload)
+            VALUES (:productId, :sequence, :type, :occurredAt, CAST(:payload AS jsonb))
+            ON CONFLICT (product_id, sequence) DO NOTHING
+            """;
+
+    /**
+     * Upsert gardé par version : version écrite (null si rejetée par la garde) et
+     * version stockée au début de l'instruction (null si nouvelle vue).
+     */
+    private static final String SQL_UPSERT_VIEW = """
+            WITH stored AS (
+                SELECT _version FROM read_product_registry.product_view WHERE id = :id
+            ), upsert AS (
+                INSERT INTO read_product_registry.product_view
+                    (id, _version, sku_id, name, description, status, events, catalogs, created_at, updated_at)
+                VALUES (:id, :version, :skuId, :name, :description, :status,
+                    CAST(:events AS jsonb), CAST(:catalogs AS jsonb), :createdAt, :updatedAt)
+                ON CONFLICT (id) DO UPDATE SET
+                    _version = EXCLUDED._version,
+                    sku_id = EXCLUDED.sku_id,
+                    name = EXCLUDED.name,
+                    description = EXCLUDED.description,
+                    status = EXCLUDED.status,
+                    events = EXCLUDED.events,
+                    catalogs = EXCLUDED.catalogs,
+                    updated_at = EXCLUDED.updated_at
+                WHERE product_view._version < EXCLUDED._version
+                RETURNING _version
+            )
+            SELECT (SELECT _version FROM upsert), (SELECT _version FROM stored)
+            """;
+
     private final ProductViewJpaMapper mapper;
     private final ObjectMapper objectMapper;
+    /** Taille de la fenêtre d'événements gardée dans la ligne de vue */
+    private final int recentEvents;
 
-    public JpaProductViewRepository(ProductViewJpaMapper mapper, ObjectMapper objectMapper) {
+    public JpaProductViewRepository(
+            ProductViewJpaMapper mapper,
+            ObjectMapper objectMapper,
+            @ConfigProperty(name = "orderflow.read.product-view.recent-events", defaultValue = "20") int recentEvents) {
         this.mapper = mapper;
         this.objectMapper = objectMapper;
+        this.recentEvents = recentEvents;
     }
 
+    /**
+     * Upsert gardé par version de la vue (fenêtre récente uniquement) et ajout à
+     * l'historique des événements postérieurs à la version stockée.
+     */
     @Override
-    public void save(ProductView productView) {
-        findByIdOptional(productView.getId().value())
-                .ifPresentOrElse(e -> {
-                    mapper.updateEntity(productView, e, objectMapper);
-                }, () -> {
-                    ProductViewEntity newEntity = mapper.toEntity(productView, objectMapper);
-                    getEntityManager().merge(newEntity);
-                });
+    public SaveOutcome save(ProductView productView) {
+        final ProductViewEntity entity = mapper.toEntity(productView, objectMapper);
+        final Object[] versions = (Object[]) getEntityManager().createNativeQuery(SQL_UPSERT_VIEW)
+                .setParameter("id", entity.getId())
+                .setParameter("version", entity.getVersion())
+                .setParameter("skuId", entity.getSkuId())
+                .setParameter("name", entity.getName())
+                .setParameter("description", entity.getDescription())
+                .setParameter("status", entity.getStatus().name())
+                .setParameter("events",
+                        mapper.productViewEventListToJsonNode(recent(productView.getEvents()), objectMapper).toString())
+                .setParameter("catalogs", entity.getCatalogs().toString())
+                .setParameter("createdAt", entity.getCreatedAt())
+                .setParameter("updatedAt", entity.getUpdatedAt())
+                .getSingleResult();
+        final Long storedVersion = versions[1] == null ? null : ((Number) versions[1]).longValue();
+        final SaveOutcome outcome = SaveOutcome.of(versions[0] == null ? null : ((Number) versions[0]).longValue(),
+                storedVersion, entity.getVersion());
+        if (outcome.applied()) {
+            // Nouveaux événements en fin de liste (triée par séquence) : parcours depuis la fin
+            final long previous = storedVersion == null ? 0L : storedVersion;
+            final List<ProductViewEvent> events = productView.getEvents();
+            int from = events.size();
+            while (from > 0 && events.get(from - 1).getSequence() > previous) {
+                from--;
+            }
+            events.subList(from, events.size())
+                    .forEach(event -> appendEvent(mapper.toHistoryEntity(productView, event, objectMapper)));
+        }
+        return outcome;
     }
 
     @Override
@@ -64,4 +149,33 @@ public class JpaProductViewRepository implements PanacheRepositoryBase<ProductVi
         return count("skuId LIKE ?1", "%" + skuIdPattern + "%");
     }
 
+    @Override
+    public List<ProductViewEvent> findEventHistory(ProductId id) {
+        return getEntityManager()
+                .createQuery("FROM ProductViewEventEntity WHERE productId = ?1 ORDER BY sequence",
+                        ProductViewEventEntity.class)
+                .setParameter(1, id.value())
+                .getResultList()
+                .stream()
+                .map(e -> mapper.historyEntityToProductViewEvent(e, objectMapper))
+                .toList();
+    }
+
+    /**
+     * Derniers événements (triés par séquence) gardés dans la ligne de vue.
+     */
+    private List<ProductViewEvent> recent(List<ProductViewEvent> events) {
+        return events.size() <= recentEvents ? events : events.subList(events.size() - recentEvents, events.size());
+    }
+
+    private void appendEvent(ProductViewEventEntity event) {
+        getEntityManager().createNativeQuery(SQL_APPEND_EVENT)
+                .setParameter("productId", event.getProductId())
+                .setParameter("sequence", event.getSequence())
+                .setParameter("type", event.getType())
+                .setParameter("occurredAt", event.getOccurredAt())
+                .setParameter("payload", event.getPayload().toString())
+                .executeUpdate();
+    }
+
 }
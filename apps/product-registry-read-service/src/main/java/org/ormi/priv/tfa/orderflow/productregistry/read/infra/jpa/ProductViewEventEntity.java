@@ -0,0 +1,81 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.jpa;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entité JPA d'un événement de l'historique d'une vue produit (append-only).
+ *
+ * <p>Une ligne par événement projeté : l'écriture d'une vue n'ajoute que ses
+ * nouveaux événements au lieu de réécrire tout l'historique dans la ligne
+ * {@link ProductViewEntity}, qui ne garde qu'une fenêtre récente.</p>
+ *
+ * <h3>Structure de table</h3>
+ * <ul>
+ *   <li>Schema : <code>read_product_registry.product_view_event</code></li>
+ *   <li>PK : <code>(product_id, sequence)</code> (insertion idempotente)</li>
+ *   <li>JSONB : <code>payload</code>, désérialisé selon <code>type</code></li>
+ * </ul>
+ */
+@Getter
+@Setter
+@NoArgsConstructor(access = AccessLevel.PUBLIC)
+@Entity
+@IdClass(ProductViewEventEntity.Key.class)
+@Table(schema = "read_product_registry", name = "product_view_event")
+public class ProductViewEventEntity {
+
+    /**
+     * Clé composite (produit, séquence).
+     */
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private UUID productId;
+        private Long sequence;
+    }
+
+    /** Produit de la vue */
+    @Id
+    @Column(name = "product_id", nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID productId;
+
+    /** Séquence (version) de l'événement dans l'agrégat */
+    @Id
+    @Column(name = "sequence", nullable = false, updatable = false, columnDefinition = "bigint")
+    private Long sequence;
+
+    /** Type d'événement (nom de ProductEventType) */
+    @Column(name = "type", nullable = false, updatable = false, columnDefinition = "text")
+    private String type;
+
+    /** Date de l'événement */
+    @Column(name = "occurred_at", nullable = false, updatable = false, columnDefinition = "timestamptz")
+    private Instant occurredAt;
+
+    /** Payload de l'événement */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", nullable = false, updatable = false, columnDefinition = "jsonb")
+    private JsonNode payload;
+}
@@ -9,8 +9,10 @@ import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.ReportingPolicy;
+import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1.ProductEventV1Payload;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductIdMapper;
 import org.ormi.priv.tfa.orderflow.kernel.product.SkuIdMapper;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductEventType;
 import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
 import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView.ProductViewCatalogRef;
 import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView.ProductViewEvent;
@@ -26,6 +28,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * <code>events</code> → {@link ProductViewEvent}[] et
  * <code>catalogs</code> → {@link ProductViewCatalogRef}[]</p>
  *
+ * <p>Les événements de l'historique ({@link ProductViewEventEntity}) sont
+ * convertis un par un, avec le même payload JSON que la fenêtre récente.</p>
+ *
  * <h3>Configuration MapStruct</h3>
  * <ul>
  *   <li>CDI : injection constructeur</li>
@@ -100,6 +105,33 @@ public interface ProductViewJpaMapper {
         return om.valueToTree(catalogRefs);
     }
 
+    /**
+     * Crée la ligne d'historique d'un événement projeté.
+     */
+    default ProductViewEventEntity toHistoryEntity(ProductView productView, ProductViewEvent event,
+            @Context ObjectMapper om) {
+        final ProductViewEventEntity entity = new ProductViewEventEntity();
+        entity.setProductId(productView.getId().value());
+        entity.setSequence(event.getSequence());
+        entity.setType(event.getType().name());
+        entity.setOccurredAt(event.getTimestamp());
+        entity.setPayload(om.valueToTree(event.getPayload()));
+        return entity;
+    }
+
+    /**
+     * Reconstruit un événement depuis sa ligne d'historique.
+     */
+    default ProductViewEvent historyEntityToProductViewEvent(ProductViewEventEntity entity, @Context ObjectMapper om) {
+        final ProductEventType type = ProductEventType.valueOf(entity.getType());
+        try {
+            return new ProductViewEvent(type, entity.getOccurredAt(), entity.getSequence(),
+                    om.treeToValue(entity.getPayload(), ProductEventV1Payload.class));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to deserialize " + type + " payload", e);
+        }
+    }
+
     // === JSON deserialization helpers ===
     /**
      * Désérialise JsonNode → List&lt;ProductViewEvent&gt;.
@@ -0,0 +1,148 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.outbox;
+
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeadLetterRepository;
+
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Replay en masse des dead letters outbox, à débit limité.
+ *
+ * <p>Remet les dead letters d'un filtre (agrégat et/ou classe d'erreur) en outbox
+ * par lots de {@code ratePerSecond} messages, un lot par seconde : un replay massif
+ * ne sature ni l'outbox ni les projections. Le poller les reprend ensuite comme
+ * de nouveaux messages (NOTIFY à chaque lot).</p>
+ *
+ * <h3>Règles</h3>
+ * <ul>
+ *   <li>Un seul replay à la fois (démarrage refusé si un replay est en cours)</li>
+ *   <li>Fin : plus rien à rejouer, maximum atteint ou annulation</li>
+ *   <li>Erreur SQL → replay arrêté (l'état garde l'erreur)</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class DeadLetterReplayJob {
+
+    private static final Logger LOG = Logger.getLogger(DeadLetterReplayJob.class);
+
+    /**
+     * Photographie du dernier replay (exposée par l'API admin).
+     */
+    public static record Status(
+            boolean running,
+            DeadLetterRepository.Filter filter,
+            int ratePerSecond,
+            long maxMessages,
+            long replayed,
+            Instant startedAt,
+            Instant finishedAt,
+            String error) {
+    }
+
+    private final DeadLetterRepository deadLetters;
+    private final int maxRatePerSecond;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-dead-letter-replay").daemon().factory());
+
+    private ScheduledFuture<?> task;
+    private Status status;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public DeadLetterReplayJob(
+            DeadLetterRepository deadLetters,
+            @ConfigProperty(name = "orderflow.outbox.dead-letter.max-replay-rate", defaultValue = "500") int maxRatePerSecond) {
+        this.deadLetters = deadLetters;
+        this.maxRatePerSecond = maxRatePerSecond;
+    }
+
+    /**
+     * Démarre un replay.
+     *
+     * @param filter dead letters à rejouer
+     * @param ratePerSecond messages remis en outbox par seconde (borné par max-replay-rate)
+     * @param maxMessages nombre max de messages rejoués (0 = tous)
+     * @return état initial
+     * @throws IllegalStateException si un replay est déjà en cours
+     */
+    public synchronized Status start(DeadLetterRepository.Filter filter, int ratePerSecond, long maxMessages) {
+        if (status != null && status.running()) {
+            throw new IllegalStateException("A dead letter replay is already running");
+        }
+        final int rate = Math.max(1, Math.min(ratePerSecond, maxRatePerSecond));
+        status = new Status(true, filter, rate, maxMessages, 0, Instant.now(), null, null);
+        task = scheduler.scheduleAtFixedRate(this::replayBatch, 0, 1, TimeUnit.SECONDS);
+        LOG.infof("Dead letter replay STARTED: filter=%s, rate=%d/s, max=%d", filter, rate, maxMessages);
+        return status;
+    }
+
+    /**
+     * Annule le replay en cours (les lots déjà rejoués restent en outbox).
+     */
+    public synchronized Status cancel() {
+        if (status != null && status.running()) {
+            finish(null);
+            LOG.infof("Dead letter replay CANCELLED after %d messages", status.replayed());
+        }
+        return status;
+    }
+
+    /**
+     * État du replay en cours ou du dernier replay (null si aucun).
+     */
+    public synchronized Status status() {
+        return status;
+    }
+
+    /**
+     * Arrête le scheduler au shutdown.
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Un lot (1 par seconde) : au plus {@code ratePerSecond} messages.
+     */
+    private synchronized void replayBatch() {
+        if (status == null || !status.running()) {
+            return;
+        }
+        int limit = status.ratePerSecond();
+        if (status.maxMessages() > 0) {
+            limit = (int) Math.min(limit, status.maxMessages() - status.replayed());
+        }
+        try {
+            final int replayed = limit > 0 ? deadLetters.replay(status.filter(), limit) : 0;
+            status = new Status(true, status.filter(), status.ratePerSecond(), status.maxMessages(),
+                    status.replayed() + replayed, status.startedAt(), null, null);
+            if (replayed < limit || limit == 0) {
+                finish(null);
+                LOG.infof("Dead letter replay DONE: %d messages", status.replayed());
+            }
+        } catch (Exception e) {
+            LOG.errorf("Dead letter replay FAILED after %d messages: %s", status.replayed(), e.getMessage(), e);
+            finish(e.getMessage());
+        }
+    }
+
+    private void finish(String error) {
+        if (task != null) {
+            task.cancel(false);
+        }
+        status = new Status(false, status.filter(), status.ratePerSecond(), status.maxMessages(),
+                status.replayed(), status.startedAt(), Instant.now(), error);
+    }
+}
@@ -0,0 +1,118 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.ormi.priv.tfa.orderflow.cqrs.Projector.ProjectionResult;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.OutboxMessageHandler;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxMessage;
+import org.ormi.priv.tfa.orderflow.kernel.common.AggregateType;
+import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1Envelope;
+import org.ormi.priv.tfa.orderflow.kernel.product.jpa.ProductEventJpaMapper;
+import org.ormi.priv.tfa.orderflow.kernel.product.persistence.ProductEventVersion;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+import org.ormi.priv.tfa.orderflow.productregistry.read.application.ProjectionDispatcher;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Handler outbox des événements produit (projection des vues produit).
+ *
+ * <p>Enregistré auprès du poller générique de cqrs-support pour le type
+ * {@link AggregateType#PRODUCT}. Seuls les événements V1 sont supportés ;
+ * les autres versions restent en outbox. Le lot d'un agrégat est replié sur sa
+ * vue en cache (ou relue) et l'écriture différée
+ * ({@link ProjectionDispatcher#dispatchAllDeferred}) : les lots d'un produit
+ * arrivés dans la fenêtre write-behind du poller sont écrits une seule fois, au
+ * flush qui acquitte leurs messages.</p>
+ *
+ * <h3>Résultats</h3>
+ * <ul>
+ *   <li>Success avec vue en attente → différé (acquitté au flush de l'agrégat)</li>
+ *   <li>Success sans écriture en attente (version déjà projetée, cache plein) →
+ *       acquitté avec le lot</li>
+ *   <li>NoOp/Failure → échec (retry en backoff, agrégat suspendu)</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class ProductOutboxHandler implements OutboxMessageHandler {
+
+    private final ProjectionDispatcher dispatcher;
+    private final ProductEventJpaMapper mapper;
+    private final int weight;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public ProductOutboxHandler(
+            ProjectionDispatcher dispatcher,
+            ProductEventJpaMapper mapper,
+            @ConfigProperty(name = "orderflow.outbox.handlers.product.weight", defaultValue = "1") int weight) {
+        this.dispatcher = dispatcher;
+        this.mapper = mapper;
+        this.weight = weight;
+    }
+
+    @Override
+    public String aggregateType() {
+        return AggregateType.PRODUCT.value();
+    }
+
+    @Override
+    public int weight() {
+        return weight;
+    }
+
+    @Override
+    public boolean supports(OutboxMessage message) {
+        return message.event().eventVersion() == ProductEventVersion.V1.getValue();
+    }
+
+    @Override
+    public Result handle(OutboxMessage message) throws Exception {
+        // Même chemin que les lots : la vue en attente du produit reste la base du repli
+        return handleAll(List.of(message)).getFirst();
+    }
+
+    @Override
+    public List<Result> handleAll(List<OutboxMessage> messages) throws Exception {
+        final List<ProductEventV1Envelope<?>> events = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            events.add(mapper.toProductEventV1(message.event()));
+        }
+        final List<Result> results = new ArrayList<>(messages.size());
+        final List<ProjectionResult<ProductView>> projections = dispatcher.dispatchAllDeferred(events);
+        for (int i = 0; i < projections.size(); i++) {
+            final Result result = toResult(projections.get(i), events.get(i).aggregateId());
+            results.add(result);
+            if (!result.succeeded()) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public void flushDeferred(UUID aggregateId) {
+        dispatcher.flushDeferred(aggregateId);
+    }
+
+    @Override
+    public void discardDeferred(UUID aggregateId) {
+        dispatcher.discardDeferred(aggregateId);
+    }
+
+    private Result toResult(ProjectionResult<ProductView> result, UUID aggregateId) {
+        if (result.isSuccess()) {
+            return dispatcher.hasDeferredWrite(aggregateId) ? Result.deferred() : Result.success();
+        }
+        if (result.isNoOp()) {
+            return Result.failure("ProjectionNoOp: " + result.getNoopReason());
+        }
+        return Result.failure("ProjectionFailure: " + result.getError());
+    }
+}
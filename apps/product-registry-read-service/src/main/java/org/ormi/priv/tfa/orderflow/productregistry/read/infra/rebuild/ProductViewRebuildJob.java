@@ -0,0 +1,680 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.rebuild;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.Projector.ProjectionResult;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRepository;
+import org.ormi.priv.tfa.orderflow.kernel.common.AggregateType;
+import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1Envelope;
+import org.ormi.priv.tfa.orderflow.kernel.product.jpa.ProductEventJpaMapper;
+import org.ormi.priv.tfa.orderflow.kernel.product.persistence.ProductEventVersion;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+import org.ormi.priv.tfa.orderflow.productregistry.read.application.ProductViewCache;
+import org.ormi.priv.tfa.orderflow.productregistry.read.infra.jpa.ProductViewJpaMapper;
+import org.ormi.priv.tfa.orderflow.productregistry.read.projection.ProductViewProjector;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.ShutdownEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Reconstruction en ligne des vues produit depuis eventing.event_log.
+ *
+ * <p>Remplace la correction SQL manuelle après un bug de projecteur : les vues
+ * sont re-projetées dans des tables shadow pendant que le read model courant
+ * continue d'être servi et mis à jour, puis les tables shadow prennent sa place
+ * dans une seule transaction.</p>
+ *
+ * <h3>Étapes</h3>
+ * <ol>
+ *   <li>Tables shadow recréées vides ({@code *_rebuild}, sans index)</li>
+ *   <li>LOADING : event log lu par curseur serveur (fetch-size), trié par
+ *       agrégat puis version ; chaque flux d'agrégat part vers un worker
+ *       (hash de l'aggregate_id), replié par
+ *       {@link ProductViewProjector#projectAll} et chargé par COPY</li>
+ *   <li>Index shadow créés (après chargement : COPY sans maintenance d'index)</li>
+ *   <li>CATCHING_UP : agrégats modifiés depuis le point de départ re-projetés
+ *       en entier, jusqu'à un retard ≤ catch-up-threshold événements</li>
+ *   <li>SWAPPING : tables live verrouillées en EXCLUSIVE (lectures servies,
+ *       projection live en attente), dernier rattrapage, DROP des tables live
+ *       et renommage des shadow, commit ; vues propres du cache de projection
+ *       évincées (relues dans la nouvelle table)</li>
+ * </ol>
+ *
+ * <h3>Cohérence</h3>
+ * <p>Chaque borne de lecture est « stabilisée » : après lecture de max(id), le
+ * job attend la fin des transactions en écriture plus anciennes (ids attribués
+ * mais pas encore visibles), au plus settle-timeout. Sous le verrou final, tout
+ * événement déjà appliqué par la projection live est committé et donc relu ;
+ * un événement pas encore visible sera projeté par le flux live dans la
+ * nouvelle table.</p>
+ *
+ * <h3>Règles</h3>
+ * <ul>
+ *   <li>Une seule reconstruction à la fois (démarrage refusé sinon)</li>
+ *   <li>Débit borné par max-rate (événements/s) et workers : les requêtes live
+ *       gardent la base et le pool de connexions</li>
+ *   <li>Agrégat en échec de projection → compté, pas de swap (shadow conservée
+ *       pour analyse)</li>
+ *   <li>Verrou non obtenu en swap-lock-timeout → nouvel essai (3 au plus)</li>
+ *   <li>Annulation → tables shadow supprimées, read model live inchangé</li>
+ * </ul>
+ *
+ * <p>Le rôle de la datasource doit posséder les tables de lecture
+ * (DROP/RENAME) et pouvoir créer dans le schéma (changeset prd-read-003).</p>
+ */
+@ApplicationScoped
+public class ProductViewRebuildJob {
+
+    private static final Logger LOG = Logger.getLogger(ProductViewRebuildJob.class);
+
+    /** Intervalle des logs de progression */
+    private static final Duration PROGRESS_INTERVAL = Duration.ofSeconds(10);
+    /** Tentatives de swap (verrou non obtenu) */
+    private static final int SWAP_ATTEMPTS = 3;
+    /** Flux d'agrégats en attente par worker */
+    private static final int WORKER_QUEUE_CAPACITY = 64;
+    /** Fin de flux pour un worker */
+    private static final List<EventLogRecord> END_OF_STREAM = List.of();
+
+    private static final String SQL_HIGH_WATER_MARK = "SELECT COALESCE(max(id), 0) FROM eventing.event_log";
+    private static final String SQL_ESTIMATE = """
+            SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'eventing.event_log'::regclass
+            """;
+    private static final String SQL_STREAM = """
+            SELECT id, aggregate_type, aggregate_id, aggregate_version,
+                   event_type, event_version, occurred_at, CAST(payload AS text) AS payload
+            FROM eventing.event_log
+            WHERE aggregate_type = ? AND id <= ?
+            ORDER BY aggregate_id, aggregate_version
+            """;
+    private static final String SQL_STREAM_AGGREGATES = """
+            SELECT id, aggregate_type, aggregate_id, aggregate_version,
+                   event_type, event_version, occurred_at, CAST(payload AS text) AS payload
+            FROM eventing.event_log
+            WHERE aggregate_type = ? AND aggregate_id = ANY(?) AND id <= ?
+            ORDER BY aggregate_id, aggregate_version
+            """;
+    private static final String SQL_TOUCHED_AGGREGATES = """
+            SELECT DISTINCT aggregate_id FROM eventing.event_log
+            WHERE aggregate_type = ? AND id > ? AND id <= ?
+            """;
+
+    private static final List<String> SQL_PREPARE = List.of(
+            "DROP TABLE IF EXISTS " + ProductViewShadowWriter.VIEW_TABLE,
+            "DROP TABLE IF EXISTS " + ProductViewShadowWriter.EVENT_TABLE,
+            "CREATE TABLE " + ProductViewShadowWriter.VIEW_TABLE
+                    + " (LIKE read_product_registry.product_view INCLUDING DEFAULTS)",
+            "CREATE TABLE " + ProductViewShadowWriter.EVENT_TABLE
+                    + " (LIKE read_product_registry.product_view_event INCLUDING DEFAULTS)");
+    private static final List<String> SQL_INDEX = List.of(
+            "ALTER TABLE " + ProductViewShadowWriter.VIEW_TABLE
+                    + " ADD CONSTRAINT product_view_rebuild_pkey PRIMARY KEY (id)",
+            "CREATE INDEX ix_prdview_sku_rebuild ON " + ProductViewShadowWriter.VIEW_TABLE + " (sku_id)",
+            "ALTER TABLE " + ProductViewShadowWriter.EVENT_TABLE
+                    + " ADD CONSTRAINT pk_product_view_event_rebuild PRIMARY KEY (product_id, sequence)");
+    private static final String SQL_LOCK_LIVE = """
+            LOCK TABLE read_product_registry.product_view, read_product_registry.product_view_event
+            IN EXCLUSIVE MODE
+            """;
+    private static final List<String> SQL_SWAP = List.of(
+            "DROP TABLE read_product_registry.product_view",
+            "DROP TABLE read_product_registry.product_view_event",
+            "ALTER TABLE " + ProductViewShadowWriter.VIEW_TABLE + " RENAME TO product_view",
+            "ALTER TABLE read_product_registry.product_view"
+                    + " RENAME CONSTRAINT product_view_rebuild_pkey TO product_view_pkey",
+            "ALTER INDEX read_product_registry.ix_prdview_sku_rebuild RENAME TO ix_prdview_sku",
+            "ALTER TABLE " + ProductViewShadowWriter.EVENT_TABLE + " RENAME TO product_view_event",
+            "ALTER TABLE read_product_registry.product_view_event"
+                    + " RENAME CONSTRAINT pk_product_view_event_rebuild TO pk_product_view_event");
+
+    /**
+     * Étape d'une reconstruction.
+     */
+    public enum Phase {
+        LOADING, CATCHING_UP, SWAPPING, DONE, FAILED, CANCELLED
+    }
+
+    /**
+     * Photographie de la reconstruction (exposée par l'API admin).
+     */
+    public static record Status(
+            Phase phase,
+            boolean running,
+            long snapshotEventId,
+            long estimatedEvents,
+            long eventsRead,
+            long viewsWritten,
+            long failedAggregates,
+            double eventsPerSecond,
+            Instant startedAt,
+            Instant finishedAt,
+            String error) {
+    }
+
+    private final AgroalDataSource dataSource;
+    private final EventLogRepository eventLog;
+    private final ProductViewProjector projector;
+    private final ProductEventJpaMapper eventMapper;
+    private final ProductViewJpaMapper viewMapper;
+    private final ObjectMapper objectMapper;
+    private final ProductViewCache productViewCache;
+    private final int workers;
+    private final int fetchSize;
+    private final int copyBatchSize;
+    private final int maxRate;
+    private final long catchUpThreshold;
+    private final Duration settleTimeout;
+    private final Duration swapLockTimeout;
+    private final int recentEvents;
+
+    private Run run;
+
+    /**
+     * Constructeur CDI (section orderflow.read.rebuild).
+     */
+    @Inject
+    public ProductViewRebuildJob(
+            AgroalDataSource dataSource,
+            EventLogRepository eventLog,
+            ProductViewProjector projector,
+            ProductEventJpaMapper eventMapper,
+            ProductViewJpaMapper viewMapper,
+            ObjectMapper objectMapper,
+            ProductViewCache productViewCache,
+            @ConfigProperty(name = "orderflow.read.rebuild.workers", defaultValue = "2") int workers,
+            @ConfigProperty(name = "orderflow.read.rebuild.fetch-size", defaultValue = "1000") int fetchSize,
+            @ConfigProperty(name = "orderflow.read.rebuild.copy-batch-size", defaultValue = "500") int copyBatchSize,
+            @ConfigProperty(name = "orderflow.read.rebuild.max-rate", defaultValue = "20000") int maxRate,
+            @ConfigProperty(name = "orderflow.read.rebuild.catch-up-threshold", defaultValue = "1000") long catchUpThreshold,
+            @ConfigProperty(name = "orderflow.read.rebuild.settle-timeout", defaultValue = "60s") Duration settleTimeout,
+            @ConfigProperty(name = "orderflow.read.rebuild.swap-lock-timeout", defaultValue = "5s") Duration swapLockTimeout,
+            @ConfigProperty(name = "orderflow.read.product-view.recent-events", defaultValue = "20") int recentEvents) {
+        this.dataSource = dataSource;
+        this.eventLog = eventLog;
+        this.projector = projector;
+        this.eventMapper = eventMapper;
+        this.viewMapper = viewMapper;
+        this.objectMapper = objectMapper;
+        this.productViewCache = productViewCache;
+        this.workers = Math.max(1, workers);
+        this.fetchSize = fetchSize;
+        this.copyBatchSize = copyBatchSize;
+        this.maxRate = maxRate;
+        this.catchUpThreshold = catchUpThreshold;
+        this.settleTimeout = settleTimeout;
+        this.swapLockTimeout = swapLockTimeout;
+        this.recentEvents = recentEvents;
+    }
+
+    /**
+     * Démarre une reconstruction sur un thread dédié.
+     *
+     * @return état initial
+     * @throws IllegalStateException si une reconstruction est déjà en cours
+     */
+    public synchronized Status start() {
+        if (run != null && run.running()) {
+            throw new IllegalStateException("A product view rebuild is already running");
+        }
+        run = new Run();
+        final Run started = run;
+        started.thread = Thread.ofPlatform()
+                .name("product-view-rebuild")
+                .daemon()
+                .start(() -> execute(started));
+        LOG.infof("ProductView rebuild STARTED: workers=%d, max rate=%d/s, copy batch=%d",
+                workers, maxRate, copyBatchSize);
+        return started.status();
+    }
+
+    /**
+     * Annule la reconstruction en cours (read model live inchangé).
+     */
+    public synchronized Status cancel() {
+        if (run != null && run.running()) {
+            run.cancelled = true;
+            LOG.infof("ProductView rebuild CANCEL requested after %d events", run.eventsRead.get());
+        }
+        return status();
+    }
+
+    /**
+     * État de la reconstruction en cours ou de la dernière (null si aucune).
+     */
+    public synchronized Status status() {
+        return run == null ? null : run.status();
+    }
+
+    /**
+     * Annule la reconstruction au shutdown.
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        final Run current;
+        synchronized (this) {
+            current = run;
+        }
+        if (current != null && current.running()) {
+            current.cancelled = true;
+            try {
+                current.thread.join(swapLockTimeout.plus(settleTimeout).toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void execute(Run r) {
+        try {
+            runSql(SQL_PREPARE);
+            final long snapshot = settledHighWaterMark();
+            r.snapshotEventId = snapshot;
+            r.estimatedEvents = estimateEvents();
+            load(r, snapshot, null, false);
+            checkNoFailedAggregates(r);
+            runSql(SQL_INDEX);
+            LOG.infof("ProductView rebuild LOADED: %d events, %d views in %ds",
+                    r.eventsRead.get(), r.viewsWritten.get(), r.elapsed().toSeconds());
+
+            r.phase = Phase.CATCHING_UP;
+            long from = snapshot;
+            while (true) {
+                final long to = settledHighWaterMark();
+                if (to - from <= catchUpThreshold) {
+                    break;
+                }
+                catchUp(r, from, to);
+                from = to;
+            }
+
+            r.phase = Phase.SWAPPING;
+            swap(r, from);
+            productViewCache.evictAllWritten();
+            r.finish(Phase.DONE, null);
+            LOG.infof("ProductView rebuild DONE: %d events, %d views, %.0f events/s",
+                    r.eventsRead.get(), r.viewsWritten.get(), r.eventsPerSecond());
+        } catch (CancellationException e) {
+            dropShadow();
+            r.finish(Phase.CANCELLED, null);
+            LOG.infof("ProductView rebuild CANCELLED after %d events", r.eventsRead.get());
+        } catch (Exception e) {
+            final Phase failedIn = r.phase;
+            r.finish(Phase.FAILED, e.getMessage());
+            LOG.errorf(e, "ProductView rebuild FAILED in %s after %d events (shadow tables kept): %s",
+                    failedIn, r.eventsRead.get(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-projette en entier les agrégats modifiés dans (from, to].
+     */
+    private void catchUp(Run r, long from, long to) throws Exception {
+        final List<UUID> touched = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+                PreparedStatement statement = connection.prepareStatement(SQL_TOUCHED_AGGREGATES)) {
+            statement.setString(1, AggregateType.PRODUCT.value());
+            statement.setLong(2, from);
+            statement.setLong(3, to);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    touched.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        if (!touched.isEmpty()) {
+            load(r, to, touched, true);
+        }
+        LOG.infof("ProductView rebuild CAUGHT UP: events (%d, %s], %d aggregates",
+                from, to == Long.MAX_VALUE ? "tail" : String.valueOf(to), touched.size());
+    }
+
+    /**
+     * Verrouille les tables live, rattrape la fin du log et échange les tables.
+     */
+    private void swap(Run r, long from) throws Exception {
+        for (int attempt = 1; ; attempt++) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL lock_timeout = " + swapLockTimeout.toMillis());
+                    statement.execute(SQL_LOCK_LIVE);
+                    catchUp(r, from, Long.MAX_VALUE);
+                    checkNoFailedAggregates(r);
+                    for (String sql : SQL_SWAP) {
+                        statement.execute(sql);
+                    }
+                    connection.commit();
+                    return;
+                } catch (Exception e) {
+                    connection.rollback();
+                    if (!(e instanceof SQLException sql && "55P03".equals(sql.getSQLState()))
+                            || attempt >= SWAP_ATTEMPTS) {
+                        throw e;
+                    }
+                    LOG.warnf("ProductView rebuild swap lock timeout (attempt %d/%d), retrying",
+                            attempt, SWAP_ATTEMPTS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Lit le flux des agrégats (tous si {@code aggregates} est null) jusqu'à
+     * l'id {@code upTo}, réparti entre les workers.
+     */
+    private void load(Run r, long upTo, List<UUID> aggregates, boolean replace) throws Exception {
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final List<BlockingQueue<List<EventLogRecord>>> queues = new ArrayList<>(workers);
+        final List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            final BlockingQueue<List<EventLogRecord>> queue = new ArrayBlockingQueue<>(WORKER_QUEUE_CAPACITY);
+            final ProductViewShadowWriter writer = new ProductViewShadowWriter(
+                    dataSource, viewMapper, objectMapper, recentEvents, copyBatchSize, replace);
+            queues.add(queue);
+            threads.add(Thread.ofPlatform()
+                    .name("product-view-rebuild-" + i)
+                    .daemon()
+                    .start(() -> work(r, queue, writer, failure)));
+        }
+        try {
+            stream(r, upTo, aggregates, queues, failure);
+        } finally {
+            for (BlockingQueue<List<EventLogRecord>> queue : queues) {
+                while (!queue.offer(END_OF_STREAM, 100, TimeUnit.MILLISECONDS)) {
+                    if (failure.get() != null) {
+                        queue.clear();
+                    }
+                }
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * Curseur serveur sur l'event log : un flux complet par agrégat envoyé au
+     * worker de son hash, débit borné à max-rate.
+     */
+    private void stream(Run r, long upTo, List<UUID> aggregates,
+            List<BlockingQueue<List<EventLogRecord>>> queues, AtomicReference<Exception> failure) throws Exception {
+        final long startNanos = System.nanoTime();
+        long read = 0;
+        long nextProgress = startNanos + PROGRESS_INTERVAL.toNanos();
+        try (Connection connection = dataSource.getConnection()) {
+            // Curseur serveur : fetch-size n'est honoré qu'hors autocommit
+            connection.setAutoCommit(false);
+            try (PreparedStatement statement = connection.prepareStatement(
+                    aggregates == null ? SQL_STREAM : SQL_STREAM_AGGREGATES)) {
+                statement.setFetchSize(fetchSize);
+                int index = 1;
+                statement.setString(index++, AggregateType.PRODUCT.value());
+                if (aggregates != null) {
+                    final Array ids = connection.createArrayOf("uuid", aggregates.toArray());
+                    statement.setArray(index++, ids);
+                }
+                statement.setLong(index, upTo);
+                try (ResultSet rs = statement.executeQuery()) {
+                    UUID current = null;
+                    List<EventLogRecord> events = new ArrayList<>();
+                    while (rs.next()) {
+                        final EventLogRecord record = toRecord(rs);
+                        if (!record.aggregateId().equals(current)) {
+                            submit(r, current, events, queues, failure);
+                            current = record.aggregateId();
+                            events = new ArrayList<>();
+                        }
+                        events.add(record);
+                        r.eventsRead.incrementAndGet();
+                        read++;
+                        if ((read & 0xFF) == 0) {
+                            throttle(startNanos, read);
+                            if (System.nanoTime() >= nextProgress) {
+                                nextProgress = System.nanoTime() + PROGRESS_INTERVAL.toNanos();
+                                logProgress(r);
+                            }
+                        }
+                    }
+                    submit(r, current, events, queues, failure);
+                }
+            } finally {
+                connection.rollback();
+            }
+        }
+    }
+
+    private void submit(Run r, UUID aggregateId, List<EventLogRecord> events,
+            List<BlockingQueue<List<EventLogRecord>>> queues, AtomicReference<Exception> failure)
+            throws InterruptedException {
+        if (aggregateId == null) {
+            return;
+        }
+        final BlockingQueue<List<EventLogRecord>> queue = queues.get(Math.floorMod(aggregateId.hashCode(), workers));
+        while (!queue.offer(events, 100, TimeUnit.MILLISECONDS)) {
+            checkRunning(r, failure);
+        }
+        checkRunning(r, failure);
+    }
+
+    private static void checkNoFailedAggregates(Run r) {
+        if (r.failedAggregates.get() > 0) {
+            throw new IllegalStateException(r.failedAggregates.get()
+                    + " aggregates failed to project, tables not swapped");
+        }
+    }
+
+    private static void checkRunning(Run r, AtomicReference<Exception> failure) {
+        if (r.cancelled) {
+            throw new CancellationException("Product view rebuild cancelled");
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Rebuild worker failed: " + failure.get().getMessage(), failure.get());
+        }
+    }
+
+    /**
+     * Worker : replie chaque flux d'agrégat et charge les vues par COPY.
+     */
+    private void work(Run r, BlockingQueue<List<EventLogRecord>> queue, ProductViewShadowWriter writer,
+            AtomicReference<Exception> failure) {
+        try {
+            while (true) {
+                final List<EventLogRecord> events = queue.take();
+                if (events == END_OF_STREAM) {
+                    r.viewsWritten.addAndGet(writer.flush());
+                    return;
+                }
+                if (failure.get() != null) {
+                    continue;
+                }
+                final Optional<ProductView> view = fold(r, events);
+                if (view.isPresent()) {
+                    r.viewsWritten.addAndGet(writer.add(view.get()));
+                }
+            }
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+            // Le lecteur ne doit pas rester bloqué sur une file pleine
+            queue.clear();
+        }
+    }
+
+    /**
+     * Flux complet d'un agrégat → vue (vide si l'agrégat est en échec).
+     */
+    private Optional<ProductView> fold(Run r, List<EventLogRecord> events) {
+        final List<ProductEventV1Envelope<?>> envelopes = new ArrayList<>(events.size());
+        for (EventLogRecord ev : events) {
+            if (ev.eventVersion() != ProductEventVersion.V1.getValue()) {
+                LOG.warnf("Unsupported event version skipped: eventLog=%d, version=%d", ev.id(), ev.eventVersion());
+                continue;
+            }
+            envelopes.add(eventMapper.toProductEventV1(ev));
+        }
+        if (envelopes.isEmpty()) {
+            return Optional.empty();
+        }
+        final ProjectionResult<ProductView> result = projector.projectAll(Optional.empty(), envelopes);
+        if (result.isSuccess()) {
+            return Optional.of(result.getProjection());
+        }
+        r.failedAggregates.incrementAndGet();
+        LOG.errorf("ProductView rebuild projection FAILED: aggregateId=%s: %s",
+                events.get(0).aggregateId(), result.isFailure() ? result.getError() : result.getNoopReason());
+        return Optional.empty();
+    }
+
+    /**
+     * Attend si le flux est en avance sur max-rate.
+     */
+    private void throttle(long startNanos, long read) throws InterruptedException {
+        if (maxRate <= 0) {
+            return;
+        }
+        final long ahead = read * 1_000_000_000L / maxRate - (System.nanoTime() - startNanos);
+        if (ahead > 0) {
+            TimeUnit.NANOSECONDS.sleep(ahead);
+        }
+    }
+
+    private void logProgress(Run r) {
+        final Status status = r.status();
+        LOG.infof("ProductView rebuild PROGRESS: phase=%s, events=%d/~%d, views=%d, failed=%d, %.0f events/s",
+                status.phase(), status.eventsRead(), status.estimatedEvents(), status.viewsWritten(),
+                status.failedAggregates(), status.eventsPerSecond());
+    }
+
+    /**
+     * max(id) de l'event log, une fois terminées les transactions en écriture
+     * plus anciennes (ids ≤ borne attribués mais pas encore visibles).
+     */
+    private long settledHighWaterMark() throws Exception {
+        final Instant readAt = Instant.now();
+        final long highWaterMark = queryLong(SQL_HIGH_WATER_MARK);
+        final Instant deadline = readAt.plus(settleTimeout);
+        while (eventLog.hasWritesInProgressOlderThan(Duration.between(readAt, Instant.now()))) {
+            if (Instant.now().isAfter(deadline)) {
+                LOG.errorf("ProductView rebuild: write transactions older than %s still open after %s,"
+                        + " continuing (their events will be projected by the live flow)", readAt, settleTimeout);
+                break;
+            }
+            TimeUnit.MILLISECONDS.sleep(50);
+        }
+        return highWaterMark;
+    }
+
+    private long estimateEvents() throws SQLException {
+        return queryLong(SQL_ESTIMATE);
+    }
+
+    private long queryLong(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private void runSql(List<String> statements) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+                Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                statement.execute(sql);
+            }
+        }
+    }
+
+    private void dropShadow() {
+        try {
+            runSql(SQL_PREPARE.subList(0, 2));
+        } catch (SQLException e) {
+            LOG.warnf("ProductView rebuild shadow cleanup FAILED: %s", e.getMessage());
+        }
+    }
+
+    private EventLogRecord toRecord(ResultSet rs) throws SQLException {
+        try {
+            return new EventLogRecord(
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getObject(3, UUID.class),
+                    rs.getLong(4),
+                    rs.getString(5),
+                    rs.getInt(6),
+                    rs.getObject(7, OffsetDateTime.class).toInstant(),
+                    objectMapper.readTree(rs.getString(8)));
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Invalid event_log payload for id=" + rs.getLong(1), e);
+        }
+    }
+
+    /**
+     * État mutable d'une reconstruction (compteurs partagés avec les workers).
+     */
+    private static final class Run {
+        private final Instant startedAt = Instant.now();
+        private final AtomicLong eventsRead = new AtomicLong();
+        private final AtomicLong viewsWritten = new AtomicLong();
+        private final AtomicLong failedAggregates = new AtomicLong();
+        private volatile Phase phase = Phase.LOADING;
+        private volatile long snapshotEventId;
+        private volatile long estimatedEvents;
+        private volatile boolean cancelled;
+        private volatile Instant finishedAt;
+        private volatile String error;
+        private Thread thread;
+
+        boolean running() {
+            return finishedAt == null;
+        }
+
+        void finish(Phase finalPhase, String finalError) {
+            error = finalError;
+            phase = finalPhase;
+            finishedAt = Instant.now();
+        }
+
+        Duration elapsed() {
+            return Duration.between(startedAt, finishedAt == null ? Instant.now() : finishedAt);
+        }
+
+        double eventsPerSecond() {
+            final long millis = Math.max(1, elapsed().toMillis());
+            return eventsRead.get() * 1000.0 / millis;
+        }
+
+        Status status() {
+            return new Status(phase, running(), snapshotEventId, estimatedEvents, eventsRead.get(),
+                    viewsWritten.get(), failedAggregates.get(), eventsPerSecond(), startedAt, finishedAt, error);
+        }
+    }
+}
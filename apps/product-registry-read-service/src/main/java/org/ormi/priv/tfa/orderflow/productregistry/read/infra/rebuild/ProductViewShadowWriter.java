@@ -0,0 +1,162 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.rebuild;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView.ProductViewEvent;
+import org.ormi.priv.tfa.orderflow.productregistry.read.infra.jpa.ProductViewEntity;
+import org.ormi.priv.tfa.orderflow.productregistry.read.infra.jpa.ProductViewEventEntity;
+import org.ormi.priv.tfa.orderflow.productregistry.read.infra.jpa.ProductViewJpaMapper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.agroal.api.AgroalDataSource;
+
+/**
+ * Chargement par {@code COPY} des vues reconstruites dans les tables shadow.
+ *
+ * <p>Un writer par worker de reconstruction : les vues sont mises en tampon au
+ * format CSV (ligne {@code product_view_rebuild} + une ligne
+ * {@code product_view_event_rebuild} par événement) et écrites par lots de
+ * {@code batchSize} vues, un COPY par table dans une transaction courte.</p>
+ *
+ * <p>Même découpage que {@code JpaProductViewRepository} : la ligne de vue ne
+ * garde que les {@code recentEvents} derniers événements, l'historique complet
+ * va dans la table d'événements.</p>
+ *
+ * <p>En rattrapage ({@code replace}), les lignes existantes des agrégats du lot
+ * sont supprimées avant le COPY : l'agrégat entier a été re-projeté.</p>
+ */
+final class ProductViewShadowWriter {
+
+    static final String VIEW_TABLE = "read_product_registry.product_view_rebuild";
+    static final String EVENT_TABLE = "read_product_registry.product_view_event_rebuild";
+
+    private static final String SQL_COPY_VIEWS = "COPY " + VIEW_TABLE
+            + " (id, _version, sku_id, name, description, status, events, catalogs, created_at, updated_at)"
+            + " FROM STDIN WITH (FORMAT csv)";
+    private static final String SQL_COPY_EVENTS = "COPY " + EVENT_TABLE
+            + " (product_id, sequence, type, occurred_at, payload)"
+            + " FROM STDIN WITH (FORMAT csv)";
+    private static final String SQL_DELETE_VIEWS = "DELETE FROM " + VIEW_TABLE + " WHERE id = ANY(?)";
+    private static final String SQL_DELETE_EVENTS = "DELETE FROM " + EVENT_TABLE + " WHERE product_id = ANY(?)";
+
+    private final AgroalDataSource dataSource;
+    private final ProductViewJpaMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final int recentEvents;
+    private final int batchSize;
+    private final boolean replace;
+
+    private final StringBuilder views = new StringBuilder();
+    private final StringBuilder events = new StringBuilder();
+    private final List<UUID> ids = new ArrayList<>();
+
+    ProductViewShadowWriter(AgroalDataSource dataSource, ProductViewJpaMapper mapper, ObjectMapper objectMapper,
+            int recentEvents, int batchSize, boolean replace) {
+        this.dataSource = dataSource;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.recentEvents = recentEvents;
+        this.batchSize = batchSize;
+        this.replace = replace;
+    }
+
+    /**
+     * Ajoute une vue au tampon.
+     *
+     * @return nombre de vues écrites (0 si le lot n'est pas plein)
+     */
+    int add(ProductView view) throws SQLException {
+        final ProductViewEntity entity = mapper.toEntity(view, objectMapper);
+        final List<ProductViewEvent> history = view.getEvents();
+        final List<ProductViewEvent> recent = history.size() <= recentEvents
+                ? history
+                : history.subList(history.size() - recentEvents, history.size());
+        row(views,
+                entity.getId(),
+                entity.getVersion(),
+                entity.getSkuId(),
+                entity.getName(),
+                entity.getDescription(),
+                entity.getStatus().name(),
+                mapper.productViewEventListToJsonNode(recent, objectMapper),
+                entity.getCatalogs(),
+                entity.getCreatedAt(),
+                entity.getUpdatedAt());
+        for (ProductViewEvent event : history) {
+            final ProductViewEventEntity e = mapper.toHistoryEntity(view, event, objectMapper);
+            row(events, e.getProductId(), e.getSequence(), e.getType(), e.getOccurredAt(), e.getPayload());
+        }
+        ids.add(entity.getId());
+        return ids.size() >= batchSize ? flush() : 0;
+    }
+
+    /**
+     * Écrit le tampon (un COPY par table, une transaction).
+     *
+     * @return nombre de vues écrites
+     */
+    int flush() throws SQLException {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                if (replace) {
+                    final Array idArray = connection.createArrayOf("uuid", ids.toArray());
+                    delete(connection, SQL_DELETE_EVENTS, idArray);
+                    delete(connection, SQL_DELETE_VIEWS, idArray);
+                }
+                final CopyManager copy = connection.unwrap(PGConnection.class).getCopyAPI();
+                copy.copyIn(SQL_COPY_VIEWS, new StringReader(views.toString()));
+                copy.copyIn(SQL_COPY_EVENTS, new StringReader(events.toString()));
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } catch (IOException e) {
+                connection.rollback();
+                throw new SQLException("COPY into shadow tables failed", e);
+            }
+        }
+        final int written = ids.size();
+        views.setLength(0);
+        events.setLength(0);
+        ids.clear();
+        return written;
+    }
+
+    private static void delete(Connection connection, String sql, Array ids) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, ids);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * Ligne CSV : champs entre guillemets (guillemets doublés), null = champ vide.
+     */
+    private static void row(StringBuilder out, Object... fields) {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            if (fields[i] != null) {
+                out.append('"').append(fields[i].toString().replace("\"", "\"\"")).append('"');
+            }
+        }
+        out.append('\n');
+    }
+}
@@ -0,0 +1,67 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.replication;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.DeliveryMode;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.replication.EventLogReplicationStream;
+import org.ormi.priv.tfa.orderflow.productregistry.read.application.EventLogProjection;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Projection des événements produit livrés par réplication logique.
+ *
+ * <p>Actif si {@code orderflow.delivery.mode=replication} : remplace le poller
+ * outbox. Chaque transaction committée sur eventing.event_log est projetée via
+ * {@link EventLogProjection}, dans l'ordre des commits (donc des versions par
+ * agrégat), sur le thread du flux. Une exception de projection fait re-livrer
+ * la transaction depuis le dernier LSN acquitté.</p>
+ */
+@ApplicationScoped
+@Startup
+public class EventLogReplicationConsumer {
+
+    private static final Logger LOG = Logger.getLogger(EventLogReplicationConsumer.class);
+
+    private final EventLogReplicationStream stream;
+    private final EventLogProjection projection;
+    private final DeliveryMode deliveryMode;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public EventLogReplicationConsumer(
+            EventLogReplicationStream stream,
+            EventLogProjection projection,
+            @ConfigProperty(name = "orderflow.delivery.mode", defaultValue = "outbox") DeliveryMode deliveryMode) {
+        this.stream = stream;
+        this.projection = projection;
+        this.deliveryMode = deliveryMode;
+    }
+
+    /**
+     * Démarre le flux de réplication si ce mode de livraison est actif.
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (deliveryMode != DeliveryMode.REPLICATION) {
+            return;
+        }
+        stream.start(projection::project);
+        LOG.info("EventLogReplicationConsumer STARTED");
+    }
+
+    /**
+     * Arrête le flux au shutdown.
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        if (deliveryMode == DeliveryMode.REPLICATION) {
+            stream.stop();
+        }
+    }
+}
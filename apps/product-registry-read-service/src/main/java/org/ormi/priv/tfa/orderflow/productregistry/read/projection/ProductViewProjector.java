@@ -1,10 +1,8 @@
 package org.ormi.priv.tfa.orderflow.productregistry.read.projection;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 import org.ormi.priv.tfa.orderflow.cqrs.Projector;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1Envelope;
@@ -75,12 +73,11 @@ public class ProductViewProjector implements Projector<ProductView, ProductEvent
 				.with(current.get())
 				.version(ev.sequence())
 				.status(ProductLifecycle.RETIRED)
-				.events(mergeEvents(current.get().getEvents(),
-						new ProductViewEvent(
-							ProductEventType.PRODUCT_RETIRED,
-							ev.timestamp(),
-							ev.sequence(),
-							ev.event().payload())))
+				.event(new ProductViewEvent(
+						ProductEventType.PRODUCT_RETIRED,
+						ev.timestamp(),
+						ev.sequence(),
+						ev.event().payload()))
 				.build();
 		return ProjectionResult.projected(newView);
 	}
@@ -97,12 +94,11 @@ public class ProductViewProjector implements Projector<ProductView, ProductEvent
 				.with(current.get())
 				.version(ev.sequence())
 				.name(ev.event().payload().newName())
-				.events(mergeEvents(current.get().getEvents(),
-						new ProductViewEvent(
-							ProductEventType.PRODUCT_NAME_UPDATED,
-							ev.timestamp(),
-							ev.sequence(),
-							ev.event().payload())))
+				.event(new ProductViewEvent(
+						ProductEventType.PRODUCT_NAME_UPDATED,
+						ev.timestamp(),
+						ev.sequence(),
+						ev.event().payload()))
 				.build();
 		return ProjectionResult.projected(newView);
 	}
@@ -119,21 +115,12 @@ public class ProductViewProjector implements Projector<ProductView, ProductEvent
 				.with(current.get())
 				.version(ev.sequence())
 				.description(ev.event().payload().newDescription())
-				.events(mergeEvents(current.get().getEvents(),
-						new ProductViewEvent(
-							ProductEventType.PRODUCT_DESCRIPTION_UPDATED,
-							ev.timestamp(),
-							ev.sequence(),
-							ev.event().payload())))
+				.event(new ProductViewEvent(
+						ProductEventType.PRODUCT_DESCRIPTION_UPDATED,
+						ev.timestamp(),
+						ev.sequence(),
+						ev.event().payload()))
 				.build();
 		return ProjectionResult.projected(newView);
 	}
-
-	private static List<ProductViewEvent> mergeEvents(List<ProductViewEvent> existingEvents,
-			ProductViewEvent newEvent) {
-		return Stream.concat(existingEvents.stream(),
-				Stream.of(newEvent))
-				.sorted(Comparator.comparingLong(ProductViewEvent::getSequence))
-				.toList();
-	}
 }
@@ -0,0 +1,172 @@
+package org.ormi.priv.tfa.orderflow.productregistry.read.infra.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxMessage;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Équité du claim outbox sous backlog soutenu, sur la vraie requête
+ * (claimReadyMessagesByAggregateTypeOrderByAggregateVersion.sql).
+ *
+ * <p>Simulation par tours : backlog initial de {@value #AGGREGATES} agrégats x
+ * {@value #VERSIONS} versions, puis à chaque tour jusqu'à {@value #INFLOW}
+ * nouveaux messages (version suivante d'agrégats pseudo-aléatoires) et un claim
+ * de {@value #BATCH} messages, acquittés aussitôt.</p>
+ *
+ * <ul>
+ *   <li>Claim par âge : aucun message n'attend plus que le temps de servir ce qui
+ *       le précède (backlog + arrivées d'un tour, à un tour près)</li>
+ *   <li>Versions d'un agrégat servies dans l'ordre (aucune inversion)</li>
+ * </ul>
+ *
+ * <p>Base PostgreSQL migrée requise (même configuration que le service) : le test
+ * ne tourne que si {@code DB_URL} est défini. Il travaille sur un type d'agrégat
+ * propre au run, ignoré par le poller, et supprime ses lignes à la fin.</p>
+ */
+@QuarkusTest
+@EnabledIfEnvironmentVariable(named = "DB_URL", matches = ".+")
+class OutboxClaimFairnessTest {
+
+    private static final int AGGREGATES = 200;
+    private static final int VERSIONS = 5;
+    private static final int INFLOW = 45;
+    private static final int BATCH = 50;
+    private static final int ROUNDS = 300;
+    /** Attente max en tours d'un claim par âge */
+    private static final int MAX_WAIT_BOUND = (AGGREGATES * VERSIONS + INFLOW) / BATCH + 1;
+
+    /** Backlog initial : versions 1..n de chaque agrégat, dans l'ordre des versions */
+    private static final String SQL_SEED = """
+            WITH logged AS (
+                INSERT INTO eventing.event_log
+                    (aggregate_type, aggregate_id, aggregate_version, event_type, event_version, payload)
+                SELECT :aggregateType, CAST(md5(CAST(:aggregateType AS text) || a) AS uuid), v, 'FairnessProbe', 1, '{}'
+                FROM generate_series(1, :versions) v, generate_series(1, :aggregates) a
+                ORDER BY v, a
+                RETURNING id, aggregate_id, aggregate_version
+            )
+            INSERT INTO eventing.outbox (event_id, aggregate_type, aggregate_id, aggregate_version, shard_key)
+            SELECT id, :aggregateType, aggregate_id, aggregate_version, 0 FROM logged ORDER BY id
+            RETURNING id
+            """;
+
+    /** Arrivées d'un tour : version suivante d'agrégats pseudo-aléatoires (répartis sur la plage d'UUID) */
+    private static final String SQL_ARRIVALS = """
+            WITH picked AS (
+                SELECT DISTINCT CAST(md5(CAST(:aggregateType AS text)
+                    || (1 + abs(hashtext(CAST(:round AS text) || '-' || i)) % :aggregates)) AS uuid) AS aggregate_id
+                FROM generate_series(1, :inflow) i
+            ), logged AS (
+                INSERT INTO eventing.event_log
+                    (aggregate_type, aggregate_id, aggregate_version, event_type, event_version, payload)
+                SELECT :aggregateType, p.aggregate_id, e.version + 1, 'FairnessProbe', 1, '{}'
+                FROM picked p
+                CROSS JOIN LATERAL (
+                    SELECT max(aggregate_version) AS version FROM eventing.event_log
+                    WHERE aggregate_type = :aggregateType AND aggregate_id = p.aggregate_id
+                ) e
+                ORDER BY p.aggregate_id
+                RETURNING id, aggregate_id, aggregate_version
+            )
+            INSERT INTO eventing.outbox (event_id, aggregate_type, aggregate_id, aggregate_version, shard_key)
+            SELECT id, :aggregateType, aggregate_id, aggregate_version, 0 FROM logged ORDER BY id
+            RETURNING id
+            """;
+
+    @Inject
+    OutboxRepository outbox;
+
+    @Inject
+    EntityManager entityManager;
+
+    /** Type d'agrégat du run (aucun handler : le poller ne le claim pas) */
+    private final String aggregateType = "FairnessProbe-" + UUID.randomUUID();
+
+    @AfterEach
+    void cleanUp() {
+        QuarkusTransaction.requiringNew().run(() -> {
+            entityManager.createNativeQuery("DELETE FROM eventing.outbox WHERE aggregate_type = :aggregateType")
+                    .setParameter("aggregateType", aggregateType)
+                    .executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM eventing.event_log WHERE aggregate_type = :aggregateType")
+                    .setParameter("aggregateType", aggregateType)
+                    .executeUpdate();
+        });
+    }
+
+    @Test
+    void claimByAgeBoundsWaitAndKeepsVersionsOrdered() {
+        final List<Integer> shards = IntStream.range(0, OutboxRepository.SHARD_COUNT).boxed().toList();
+        // outbox id → tour d'arrivée
+        final Map<Long, Integer> enqueuedAt = new HashMap<>();
+        seed().forEach(id -> enqueuedAt.put(id, 0));
+        final Map<UUID, Long> lastServed = new HashMap<>();
+        final List<String> inversions = new ArrayList<>();
+        int maxWait = 0;
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            final int arrivalRound = round;
+            arrive(round).forEach(id -> enqueuedAt.put(id, arrivalRound));
+            final List<OutboxMessage> claimed = outbox.claimReadyMessagesByAggregateTypeOrderByAggregateVersion(
+                    aggregateType, DeliveryLane.INTERACTIVE, shards, "fairness-test", Duration.ofMinutes(1),
+                    BATCH, 5);
+            for (OutboxMessage msg : claimed) {
+                maxWait = Math.max(maxWait, round - enqueuedAt.remove(msg.id()));
+                final Long previous = lastServed.put(msg.event().aggregateId(), msg.event().aggregateVersion());
+                if (previous != null && previous >= msg.event().aggregateVersion()) {
+                    inversions.add(msg.event().aggregateId() + ": v" + msg.event().aggregateVersion()
+                            + " after v" + previous);
+                }
+            }
+            outbox.acknowledgeAll(claimed.stream().map(OutboxMessage::id).toList());
+        }
+        // Messages encore en file : attente minimale jusqu'à la fin du run
+        for (int arrivalRound : enqueuedAt.values()) {
+            maxWait = Math.max(maxWait, ROUNDS - arrivalRound);
+        }
+
+        assertTrue(maxWait <= MAX_WAIT_BOUND,
+                "max wait " + maxWait + " rounds exceeds " + MAX_WAIT_BOUND + " (starved messages)");
+        assertEquals(List.of(), inversions, "versions served out of order");
+    }
+
+    private List<Long> seed() {
+        return QuarkusTransaction.requiringNew().call(() -> ids(entityManager.createNativeQuery(SQL_SEED)
+                .setParameter("aggregateType", aggregateType)
+                .setParameter("versions", VERSIONS)
+                .setParameter("aggregates", AGGREGATES)
+                .getResultList()));
+    }
+
+    private List<Long> arrive(int round) {
+        return QuarkusTransaction.requiringNew().call(() -> ids(entityManager.createNativeQuery(SQL_ARRIVALS)
+                .setParameter("aggregateType", aggregateType)
+                .setParameter("round", round)
+                .setParameter("aggregates", AGGREGATES)
+                .setParameter("inflow", INFLOW)
+                .getResultList()));
+    }
+
+    private static List<Long> ids(List<?> rows) {
+        return rows.stream().map(id -> ((Number) id).longValue()).toList();
+    }
+}
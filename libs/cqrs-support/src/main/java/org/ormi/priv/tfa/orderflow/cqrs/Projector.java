@@ -59,12 +59,13 @@ public interface Projector<S, E extends EventEnvelope<? extends DomainEvent>> {
                 .reduce(
                         init,
                         (acc, ev) -> {
-                            if (acc.result().isFailure())
+                            if (acc.result().isFailure() || acc.result().isNoOp())
                                 return acc;
                             if (ev.sequence() <= acc.lastSequence())
                                 return acc;
 
-                            ProjectionResult<S> next = acc.result().flatMap(state -> project(Optional.ofNullable(state), ev));
+                            // Initial state may be empty (projected(null) is not a success)
+                            ProjectionResult<S> next = project(Optional.ofNullable(acc.result().getProjection()), ev);
 
                             return new Acc<>(next, ev.sequence());
                         },
@@ -0,0 +1,14 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra;
+
+/**
+ * Moteur de livraison des événements vers le côté lecture
+ * (config {@code orderflow.delivery.mode}).
+ */
+public enum DeliveryMode {
+    /** Polling de eventing.outbox (claims, retries, dead letters) */
+    OUTBOX,
+    /** Réplication logique de eventing.event_log (pgoutput, LSN du slot comme checkpoint) */
+    REPLICATION,
+    /** Curseur checkpointé sur eventing.event_log (aucune ligne outbox par consommateur) */
+    CURSOR
+}
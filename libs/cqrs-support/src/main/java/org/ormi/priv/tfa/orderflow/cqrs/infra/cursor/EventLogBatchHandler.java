@@ -0,0 +1,24 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.cursor;
+
+import java.util.List;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+
+/**
+ * Consommateur d'un curseur sur eventing.event_log.
+ *
+ * <p>Appelé par {@link EventLogCursors} avec des lots contigus (sans trou d'id)
+ * dans l'ordre des ids, sur le thread du curseur. Retour normal = lot traité :
+ * le checkpoint avance jusqu'au dernier id. Exception = le lot est re-livré
+ * après un délai (au moins une fois : le handler doit être idempotent).</p>
+ */
+@FunctionalInterface
+public interface EventLogBatchHandler {
+
+    /**
+     * Traite un lot d'événements.
+     *
+     * @param events événements dans l'ordre des ids (jamais vide)
+     */
+    void onBatch(List<EventLogRecord> events) throws Exception;
+}
@@ -0,0 +1,331 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.cursor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.OutboxConsumerGroup;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.ConsumerCheckpointRepository;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Curseurs checkpointés sur eventing.event_log (un par consommateur).
+ *
+ * <p>Alternative à l'outbox sans écriture par événement : chaque consommateur
+ * lit l'event log dans l'ordre des ids depuis son checkpoint
+ * ({@link ConsumerCheckpointRepository}) et l'avance une fois par lot. Plusieurs
+ * read models consomment ainsi le même log sans ligne outbox dédiée.</p>
+ *
+ * <h3>Boucle d'un curseur</h3>
+ * <ol>
+ *   <li>Bail du consommateur pris (un seul nœud actif, les autres en attente)</li>
+ *   <li>Lecture des batch-size événements après la position</li>
+ *   <li>Préfixe contigu livré au handler, checkpoint avancé (bail prolongé)</li>
+ *   <li>Lot plein → lecture suivante immédiate, sinon attente poll-interval</li>
+ * </ol>
+ *
+ * <h3>Détection des trous</h3>
+ * <p>Un id est attribué à l'INSERT mais visible au commit : un id manquant peut
+ * appartenir à une transaction encore ouverte. Le curseur s'arrête devant le
+ * trou et ne le saute que lorsque :</p>
+ * <ul>
+ *   <li>gap-timeout est écoulé depuis sa détection, et</li>
+ *   <li>aucune transaction de la base écrivant dans event_log, antérieure à la
+ *       détection, n'est encore ouverte (id d'une transaction annulée, jamais
+ *       committé),</li>
+ *   <li>ou gap-max-wait est écoulé (transaction anormalement longue : trou
+ *       sauté avec une erreur journalisée).</li>
+ * </ul>
+ *
+ * <p>Livraison au moins une fois : erreur du handler ou checkpoint non écrit →
+ * le lot est re-livré. Bail perdu → le curseur s'arrête et retente de le prendre.</p>
+ */
+@ApplicationScoped
+public class EventLogCursors {
+
+    /** Délai avant nouvelle tentative après erreur */
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private static final Logger LOG = Logger.getLogger(EventLogCursors.class);
+
+    /**
+     * Photographie d'un curseur (exposée par l'API admin).
+     */
+    public static record Status(
+            String consumerName,
+            String owner,
+            boolean active,
+            long position,
+            long events,
+            Instant lastDeliveredAt,
+            Long gapFrom,
+            Instant gapDetectedAt) {
+    }
+
+    private final EventLogRepository eventLog;
+    private final ConsumerCheckpointRepository checkpoints;
+    private final String owner;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration gapTimeout;
+    private final Duration gapMaxWait;
+    private final Duration leaseTtl;
+
+    private final Map<String, Cursor> cursors = new ConcurrentHashMap<>();
+
+    /**
+     * Constructeur CDI (section orderflow.cursor, identité du nœud partagée avec l'outbox).
+     */
+    @Inject
+    public EventLogCursors(
+            EventLogRepository eventLog,
+            ConsumerCheckpointRepository checkpoints,
+            OutboxConsumerGroup consumerGroup,
+            @ConfigProperty(name = "orderflow.cursor.batch-size", defaultValue = "500") int batchSize,
+            @ConfigProperty(name = "orderflow.cursor.poll-interval", defaultValue = "100ms") Duration pollInterval,
+            @ConfigProperty(name = "orderflow.cursor.gap-timeout", defaultValue = "2s") Duration gapTimeout,
+            @ConfigProperty(name = "orderflow.cursor.gap-max-wait", defaultValue = "60s") Duration gapMaxWait,
+            @ConfigProperty(name = "orderflow.cursor.lease-ttl", defaultValue = "10s") Duration leaseTtl) {
+        if (leaseTtl.compareTo(pollInterval.multipliedBy(3)) < 0) {
+            throw new IllegalArgumentException("Cursor lease-ttl must be at least three poll-intervals: ttl="
+                    + leaseTtl + ", poll=" + pollInterval);
+        }
+        this.eventLog = eventLog;
+        this.checkpoints = checkpoints;
+        this.owner = consumerGroup.nodeId();
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.gapTimeout = gapTimeout;
+        this.gapMaxWait = gapMaxWait.compareTo(gapTimeout) < 0 ? gapTimeout : gapMaxWait;
+        this.leaseTtl = leaseTtl;
+    }
+
+    /**
+     * Démarre le curseur d'un consommateur sur un thread dédié (daemon).
+     *
+     * @param consumerName identifiant du checkpoint (un par projecteur)
+     * @param handler appelé pour chaque lot contigu, dans l'ordre des ids
+     */
+    public void start(String consumerName, EventLogBatchHandler handler) {
+        final Cursor cursor = new Cursor(consumerName, handler);
+        if (cursors.putIfAbsent(consumerName, cursor) != null) {
+            throw new IllegalStateException("Event log cursor already started: " + consumerName);
+        }
+        cursor.thread = Thread.ofPlatform()
+                .name("event-log-cursor-" + consumerName)
+                .daemon()
+                .start(cursor::run);
+        LOG.infof("EventLogCursor STARTED: consumer=%s, owner=%s, batch=%d, poll=%dms, gap timeout=%dms",
+                consumerName, owner, batchSize, pollInterval.toMillis(), gapTimeout.toMillis());
+    }
+
+    /**
+     * Arrête tous les curseurs (lot en cours terminé) et rend leurs baux.
+     */
+    public void stopAll() {
+        cursors.values().forEach(cursor -> cursor.running = false);
+        for (Cursor cursor : cursors.values()) {
+            try {
+                // Lot en cours terminé, attente interrompue
+                if (!cursor.thread.join(RETRY_DELAY)) {
+                    cursor.thread.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                checkpoints.release(cursor.consumerName, owner);
+            } catch (Exception e) {
+                LOG.warnf("EventLogCursor lease release FAILED: consumer=%s: %s", cursor.consumerName, e.getMessage());
+            }
+        }
+        cursors.clear();
+        LOG.info("EventLogCursors STOPPED");
+    }
+
+    /**
+     * Indique si le curseur d'un consommateur détient son bail sur ce nœud.
+     */
+    public boolean isActive(String consumerName) {
+        final Cursor cursor = cursors.get(consumerName);
+        return cursor != null && cursor.active;
+    }
+
+    /**
+     * État des curseurs démarrés pour supervision.
+     */
+    public List<Status> status() {
+        return cursors.values().stream().map(Cursor::status).toList();
+    }
+
+    /**
+     * Curseur d'un consommateur (état muté par son seul thread).
+     */
+    private final class Cursor {
+
+        private final String consumerName;
+        private final EventLogBatchHandler handler;
+        private Thread thread;
+
+        private volatile boolean running = true;
+        private volatile boolean active;
+        private volatile long position;
+        private volatile long events;
+        private volatile Instant lastDeliveredAt;
+        private volatile Long gapFrom;
+        private volatile Instant gapDetectedAt;
+        private Instant leaseRenewedAt = Instant.EPOCH;
+
+        private Cursor(String consumerName, EventLogBatchHandler handler) {
+            this.consumerName = consumerName;
+            this.handler = handler;
+        }
+
+        private Status status() {
+            return new Status(consumerName, owner, active, position, events, lastDeliveredAt,
+                    gapFrom, gapDetectedAt);
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    if (!active && !acquire()) {
+                        pause(pollInterval.multipliedBy(10));
+                        continue;
+                    }
+                    if (!poll()) {
+                        pause(pollInterval);
+                    }
+                } catch (Exception e) {
+                    if (!running) {
+                        return;
+                    }
+                    LOG.warnf("EventLogCursor FAILED, retry in %ds: consumer=%s, position=%d: %s",
+                            RETRY_DELAY.toSeconds(), consumerName, position, e.getMessage());
+                    // Reprise depuis le checkpoint écrit
+                    active = false;
+                    pause(RETRY_DELAY);
+                }
+            }
+        }
+
+        /**
+         * Prend le bail et se positionne sur le checkpoint.
+         */
+        private boolean acquire() {
+            final OptionalLong checkpoint = checkpoints.acquire(consumerName, owner, leaseTtl);
+            if (checkpoint.isEmpty()) {
+                return false;
+            }
+            position = checkpoint.getAsLong();
+            gapFrom = null;
+            active = true;
+            leaseRenewedAt = Instant.now();
+            LOG.infof("EventLogCursor ACTIVE: consumer=%s, owner=%s, position=%d", consumerName, owner, position);
+            return true;
+        }
+
+        /**
+         * Un cycle de lecture.
+         *
+         * @return true si un lot plein a été livré (relire sans attendre)
+         */
+        private boolean poll() throws Exception {
+            final List<EventLogRecord> rows = eventLog.findAfter(position, batchSize);
+            final List<EventLogRecord> batch = contiguous(rows);
+            if (batch.isEmpty()) {
+                renewIfDue();
+                return false;
+            }
+            handler.onBatch(batch);
+            final long last = batch.get(batch.size() - 1).id();
+            if (!checkpoints.advance(consumerName, owner, last, leaseTtl)) {
+                LOG.warnf("EventLogCursor lease LOST: consumer=%s, position=%d", consumerName, position);
+                active = false;
+                return false;
+            }
+            position = last;
+            events += batch.size();
+            lastDeliveredAt = Instant.now();
+            leaseRenewedAt = lastDeliveredAt;
+            return batch.size() == batchSize;
+        }
+
+        /**
+         * Préfixe livrable : s'arrête devant un trou d'id tant qu'il peut encore être comblé.
+         */
+        private List<EventLogRecord> contiguous(List<EventLogRecord> rows) {
+            long expected = position + 1;
+            int count = 0;
+            for (EventLogRecord row : rows) {
+                if (row.id() != expected && !gapExpired(expected, row.id())) {
+                    break;
+                }
+                expected = row.id() + 1;
+                count++;
+            }
+            return rows.subList(0, count);
+        }
+
+        /**
+         * Indique si le trou [from, to[ peut être sauté.
+         */
+        private boolean gapExpired(long from, long to) {
+            final Instant now = Instant.now();
+            if (gapFrom == null || gapFrom != from) {
+                gapFrom = from;
+                gapDetectedAt = now;
+                return false;
+            }
+            final Duration waited = Duration.between(gapDetectedAt, now);
+            if (waited.compareTo(gapTimeout) < 0) {
+                return false;
+            }
+            if (waited.compareTo(gapMaxWait) < 0) {
+                if (eventLog.hasWritesInProgressOlderThan(waited)) {
+                    return false;
+                }
+                LOG.debugf("EventLogCursor gap skipped: consumer=%s, ids=[%d, %d[, waited=%dms",
+                        consumerName, from, to, waited.toMillis());
+            } else {
+                LOG.errorf("EventLogCursor gap FORCED after %dms (long transaction still open?): consumer=%s, ids=[%d, %d[",
+                        waited.toMillis(), consumerName, from, to);
+            }
+            gapFrom = null;
+            gapDetectedAt = null;
+            return true;
+        }
+
+        /**
+         * Prolonge le bail pendant les périodes sans événement.
+         */
+        private void renewIfDue() {
+            if (Instant.now().isAfter(leaseRenewedAt.plus(leaseTtl.dividedBy(3)))) {
+                if (!checkpoints.advance(consumerName, owner, position, leaseTtl)) {
+                    LOG.warnf("EventLogCursor lease LOST: consumer=%s, position=%d", consumerName, position);
+                    active = false;
+                    return;
+                }
+                leaseRenewedAt = Instant.now();
+            }
+        }
+
+        private void pause(Duration duration) {
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.jpa;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.ConsumerCheckpointRepository;
+
+import io.quarkus.arc.DefaultBean;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Repository JPA (SQL natif) des checkpoints de consommateurs.
+ *
+ * <p>Implémente {@link ConsumerCheckpointRepository} sur eventing.consumer_checkpoint.
+ * Le bail est pris par un UPSERT conditionnel : une seule requête, pas de
+ * verrou applicatif.</p>
+ */
+@ApplicationScoped
+@DefaultBean
+public class JpaConsumerCheckpointRepository implements ConsumerCheckpointRepository {
+
+    private static final String SQL_ACQUIRE = """
+        INSERT INTO eventing.consumer_checkpoint (consumer_name, owner, lease_until)
+        VALUES (:consumerName, :owner, CURRENT_TIMESTAMP + :ttlMs * INTERVAL '1 millisecond')
+        ON CONFLICT (consumer_name) DO UPDATE
+        SET owner = EXCLUDED.owner, lease_until = EXCLUDED.lease_until
+        WHERE consumer_checkpoint.owner IS NULL
+        OR consumer_checkpoint.owner = EXCLUDED.owner
+        OR consumer_checkpoint.lease_until < CURRENT_TIMESTAMP
+        RETURNING last_event_id
+        """;
+
+    private static final String SQL_INITIALIZE = """
+        INSERT INTO eventing.consumer_checkpoint (consumer_name, last_event_id)
+        SELECT :consumerName, COALESCE(MAX(last_event_id), 0)
+        FROM eventing.consumer_checkpoint
+        WHERE consumer_name IN (:from)
+        ON CONFLICT (consumer_name) DO NOTHING
+        """;
+
+    private static final String SQL_ADVANCE = """
+        UPDATE eventing.consumer_checkpoint
+        SET last_event_id = :lastEventId,
+            updated_at = CURRENT_TIMESTAMP,
+            lease_until = CURRENT_TIMESTAMP + :ttlMs * INTERVAL '1 millisecond'
+        WHERE consumer_name = :consumerName AND owner = :owner
+        """;
+
+    private static final String SQL_RELEASE = """
+        UPDATE eventing.consumer_checkpoint
+        SET owner = NULL, lease_until = NULL
+        WHERE consumer_name = :consumerName AND owner = :owner
+        """;
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public JpaConsumerCheckpointRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public OptionalLong acquire(String consumerName, String owner, Duration ttl) {
+        final List<?> rows = entityManager.createNativeQuery(SQL_ACQUIRE)
+                .setParameter("consumerName", consumerName)
+                .setParameter("owner", owner)
+                .setParameter("ttlMs", ttl.toMillis())
+                .getResultList();
+        return rows.isEmpty()
+                ? OptionalLong.empty()
+                : OptionalLong.of(((Number) rows.get(0)).longValue());
+    }
+
+    @Override
+    @Transactional
+    public void initialize(String consumerName, Collection<String> from) {
+        entityManager.createNativeQuery(SQL_INITIALIZE)
+                .setParameter("consumerName", consumerName)
+                .setParameter("from", from)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public boolean advance(String consumerName, String owner, long lastEventId, Duration ttl) {
+        return entityManager.createNativeQuery(SQL_ADVANCE)
+                .setParameter("consumerName", consumerName)
+                .setParameter("owner", owner)
+                .setParameter("lastEventId", lastEventId)
+                .setParameter("ttlMs", ttl.toMillis())
+                .executeUpdate() == 1;
+    }
+
+    @Override
+    @Transactional
+    public void release(String consumerName, String owner) {
+        entityManager.createNativeQuery(SQL_RELEASE)
+                .setParameter("consumerName", consumerName)
+                .setParameter("owner", owner)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,200 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.jpa;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeadLetter;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeadLetterRepository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.quarkus.arc.DefaultBean;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.transaction.Transactional;
+
+/**
+ * Repository JPA (SQL natif) des dead letters outbox.
+ *
+ * <p>Filtres optionnels assemblés en clause WHERE (seuls les critères présents
+ * sont liés). Le replay déplace les lignes en une requête et verrouille avec
+ * {@code FOR UPDATE SKIP LOCKED} : deux replays concurrents ne rejouent jamais
+ * le même message.</p>
+ *
+ * <p>Les messages en attente des agrégats rejoués (bloqués derrière leur dead
+ * letter) sont ré-insérés avec eux, triés par version et dans une seule file
+ * (comme à la publication : la plus prioritaire entre la file d'origine des
+ * dead letters, conservée à leur création, et celle des messages en attente) : les ids
+ * d'un agrégat restent dans l'ordre de ses versions, un claim par âge ne prend
+ * jamais une version avant celle rejouée.</p>
+ */
+@ApplicationScoped
+@DefaultBean
+public class JpaDeadLetterRepository implements DeadLetterRepository {
+
+    private static final String SQL_FIND = """
+        SELECT id, event_id, aggregate_type, aggregate_id, aggregate_version, attempts,
+               last_error, error_class, CAST(error_history AS text) AS error_history, dead_lettered_at
+        FROM eventing.outbox_dead_letter d
+        WHERE %s
+        ORDER BY id
+        LIMIT :limit
+        """;
+
+    private static final String SQL_COUNT_BY_ERROR_CLASS = """
+        SELECT error_class, COUNT(*) FROM eventing.outbox_dead_letter
+        WHERE aggregate_type = :aggregateType
+        GROUP BY error_class
+        ORDER BY COUNT(*) DESC
+        """;
+
+    private static final String SQL_REPLAY = """
+        WITH picked AS MATERIALIZED (
+            SELECT id FROM eventing.outbox_dead_letter d
+            WHERE %s
+            ORDER BY aggregate_id, aggregate_version
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        ), moved AS (
+            DELETE FROM eventing.outbox_dead_letter d
+            USING picked
+            WHERE d.id = picked.id
+            RETURNING d.*
+        ), requeued AS (
+            DELETE FROM eventing.outbox o
+            USING (SELECT DISTINCT aggregate_type, aggregate_id FROM moved) m
+            WHERE o.aggregate_type = m.aggregate_type AND o.aggregate_id = m.aggregate_id
+            AND o.acked_at IS NULL
+            RETURNING o.*
+        ), messages AS (
+            SELECT event_id, aggregate_type, aggregate_id, aggregate_version, shard_key, 0 AS attempts,
+                CAST(NULL AS timestamptz) AS next_attempt_at, last_error, error_history, lane
+            FROM moved
+            UNION ALL
+            SELECT event_id, aggregate_type, aggregate_id, aggregate_version, shard_key, attempts,
+                next_attempt_at, last_error, error_history, lane
+            FROM requeued
+        ), inserted AS (
+            INSERT INTO eventing.outbox (event_id, aggregate_type, aggregate_id, aggregate_version,
+                shard_key, attempts, next_attempt_at, last_error, error_history, lane)
+            SELECT event_id, aggregate_type, aggregate_id, aggregate_version, shard_key, attempts,
+                next_attempt_at, last_error, error_history,
+                min(lane) OVER (PARTITION BY aggregate_type, aggregate_id)
+            FROM messages
+            ORDER BY aggregate_id, aggregate_version
+            RETURNING id
+        )
+        SELECT count(*) FROM moved
+        """;
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Constructeur CDI (ObjectMapper pour l'historique JSONB).
+     */
+    @Inject
+    public JpaDeadLetterRepository(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<DeadLetter> find(Filter filter, Long afterId, int limit) {
+        final String where = where(filter) + (afterId != null ? " AND d.id > :afterId" : "");
+        final Query query = entityManager.createNativeQuery(SQL_FIND.formatted(where));
+        query.unwrap(NativeQuery.class)
+                .addScalar("id", StandardBasicTypes.LONG)
+                .addScalar("event_id", StandardBasicTypes.LONG)
+                .addScalar("aggregate_type", StandardBasicTypes.STRING)
+                .addScalar("aggregate_id", StandardBasicTypes.UUID)
+                .addScalar("aggregate_version", StandardBasicTypes.LONG)
+                .addScalar("attempts", StandardBasicTypes.INTEGER)
+                .addScalar("last_error", StandardBasicTypes.STRING)
+                .addScalar("error_class", StandardBasicTypes.STRING)
+                .addScalar("error_history", StandardBasicTypes.STRING)
+                .addScalar("dead_lettered_at", StandardBasicTypes.INSTANT);
+        bind(query, filter).setParameter("limit", limit);
+        if (afterId != null) {
+            query.setParameter("afterId", afterId);
+        }
+        return ((List<Object[]>) query.getResultList()).stream().map(this::toDeadLetter).toList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Map<String, Long> countByErrorClass(String aggregateType) {
+        final Map<String, Long> counts = new LinkedHashMap<>();
+        ((List<Object[]>) entityManager.createNativeQuery(SQL_COUNT_BY_ERROR_CLASS)
+                .setParameter("aggregateType", aggregateType)
+                .getResultList())
+                .forEach(row -> counts.put((String) row[0], ((Number) row[1]).longValue()));
+        return counts;
+    }
+
+    @Override
+    @Transactional
+    public int replay(Filter filter, int limit) {
+        return ((Number) bind(entityManager.createNativeQuery(SQL_REPLAY.formatted(where(filter))), filter)
+                .setParameter("limit", limit)
+                .getSingleResult()).intValue();
+    }
+
+    /**
+     * Clause WHERE des critères présents.
+     */
+    private static String where(Filter filter) {
+        final StringBuilder where = new StringBuilder("d.aggregate_type = :aggregateType");
+        if (filter.aggregateId() != null) {
+            where.append(" AND d.aggregate_id = :aggregateId");
+        }
+        if (filter.errorClass() != null) {
+            where.append(" AND d.error_class = :errorClass");
+        }
+        return where.toString();
+    }
+
+    /**
+     * Lie les paramètres des critères présents.
+     */
+    private static Query bind(Query query, Filter filter) {
+        query.setParameter("aggregateType", filter.aggregateType());
+        if (filter.aggregateId() != null) {
+            query.setParameter("aggregateId", filter.aggregateId());
+        }
+        if (filter.errorClass() != null) {
+            query.setParameter("errorClass", filter.errorClass());
+        }
+        return query;
+    }
+
+    /**
+     * Ligne scalaire (ordre du SELECT) → record.
+     */
+    private DeadLetter toDeadLetter(Object[] row) {
+        try {
+            return new DeadLetter(
+                    (Long) row[0],
+                    (Long) row[1],
+                    (String) row[2],
+                    (UUID) row[3],
+                    (Long) row[4],
+                    (Integer) row[5],
+                    (String) row[6],
+                    (String) row[7],
+                    objectMapper.readTree((String) row[8]),
+                    (Instant) row[9]);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid error_history for dead letter=" + row[0], e);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package org.ormi.priv.tfa.orderflow.cqrs.infra.jpa;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
 import org.ormi.priv.tfa.orderflow.cqrs.EventEnvelope;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRepository;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.quarkus.arc.DefaultBean;
@@ -19,6 +26,7 @@ import jakarta.transaction.Transactional;
  *   <li>PanacheRepository (CRUD + queries)</li>
  *   <li>@Transactional append() atomique</li>
  *   <li>EventLogJpaMapper (EventEnvelope → Entity)</li>
+ *   <li>findAfter() : lecture par curseur en SQL natif (records lecture seule)</li>
  * </ul></p>
  *
  * <h3>Flux append</h3>
@@ -32,6 +40,36 @@ import jakarta.transaction.Transactional;
 public class JpaEventLogRepository 
         implements PanacheRepository<EventLogEntity>, EventLogRepository {
 
+    /** Lecture par curseur (parcours de la PK, payload en texte) */
+    private static final String SQL_FIND_AFTER = """
+        SELECT id, aggregate_type, aggregate_id, aggregate_version,
+               event_type, event_version, occurred_at, CAST(payload AS text) AS payload
+        FROM eventing.event_log
+        WHERE id > :afterId
+        ORDER BY id
+        LIMIT :limit
+        """;
+
+    /**
+     * Transactions de la base encore ouvertes pouvant écrire dans event_log
+     * (xid attribué, verrou d'écriture sur la table) : les transactions des
+     * autres bases ou n'ayant pas touché au log ne retiennent pas un gap.
+     */
+    private static final String SQL_WRITES_IN_PROGRESS = """
+        SELECT EXISTS (
+            SELECT 1 FROM pg_stat_activity a
+            JOIN pg_locks l ON l.pid = a.pid
+            WHERE a.datname = current_database()
+            AND a.backend_xid IS NOT NULL
+            AND a.xact_start < CURRENT_TIMESTAMP - :ageMs * INTERVAL '1 millisecond'
+            AND a.pid <> pg_backend_pid()
+            AND l.locktype = 'relation'
+            AND l.relation = CAST('eventing.event_log' AS regclass)
+            AND l.mode NOT IN ('AccessShareLock', 'RowShareLock')
+            AND l.granted
+        )
+        """;
+
     private final EventLogJpaMapper mapper;
     private final ObjectMapper objectMapper;
 
@@ -61,4 +99,42 @@ public class JpaEventLogRepository
         persist(entity);
         return entity;
     }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<EventLogRecord> findAfter(long afterId, int limit) {
+        final List<Object[]> rows = getEntityManager().createNativeQuery(SQL_FIND_AFTER)
+                .setParameter("afterId", afterId)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream().map(this::toRecord).toList();
+    }
+
+    @Override
+    @Transactional
+    public boolean hasWritesInProgressOlderThan(Duration age) {
+        return (Boolean) getEntityManager().createNativeQuery(SQL_WRITES_IN_PROGRESS)
+                .setParameter("ageMs", age.toMillis())
+                .getSingleResult();
+    }
+
+    /**
+     * Ligne scalaire (ordre du SELECT) → record lecture seule.
+     */
+    private EventLogRecord toRecord(Object[] row) {
+        try {
+            return new EventLogRecord(
+                    (Long) row[0],
+                    (String) row[1],
+                    (UUID) row[2],
+                    (Long) row[3],
+                    (String) row[4],
+                    (Integer) row[5],
+                    (Instant) row[6],
+                    objectMapper.readTree((String) row[7]));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid event_log payload for id=" + row[0], e);
+        }
+    }
 }
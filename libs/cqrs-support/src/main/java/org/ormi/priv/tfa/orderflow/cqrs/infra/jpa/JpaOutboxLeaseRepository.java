@@ -0,0 +1,187 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.jpa;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxLeaseRepository;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+
+import io.quarkus.arc.DefaultBean;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+
+/**
+ * Repository JPA (SQL natif) des consumer groups outbox.
+ *
+ * <p>Implémente {@link OutboxLeaseRepository} sur eventing.outbox_consumer et
+ * eventing.outbox_lease. Les prises de slots utilisent {@code FOR UPDATE SKIP LOCKED}
+ * pour que deux nœuds ne puissent jamais obtenir le même slot.</p>
+ */
+@ApplicationScoped
+@DefaultBean
+public class JpaOutboxLeaseRepository implements OutboxLeaseRepository {
+
+    private static final String SQL_UPSERT_MEMBER = """
+        INSERT INTO eventing.outbox_consumer (consumer_group, node_id)
+        VALUES (:consumerGroup, :nodeId)
+        ON CONFLICT (consumer_group, node_id) DO UPDATE SET heartbeat_at = CURRENT_TIMESTAMP
+        """;
+
+    private static final String SQL_ENSURE_SLOTS = """
+        INSERT INTO eventing.outbox_lease (consumer_group, slot)
+        SELECT :consumerGroup, s FROM generate_series(0, :shardCount - 1) s
+        ON CONFLICT (consumer_group, slot) DO NOTHING
+        """;
+
+    private static final String SQL_PURGE_MEMBERS = """
+        DELETE FROM eventing.outbox_consumer
+        WHERE consumer_group = :consumerGroup
+        AND heartbeat_at < CURRENT_TIMESTAMP - :ttlMs * INTERVAL '1 millisecond'
+        """;
+
+    private static final String SQL_LIVE_MEMBERS = """
+        SELECT node_id FROM eventing.outbox_consumer
+        WHERE consumer_group = :consumerGroup
+        ORDER BY node_id
+        """;
+
+    private static final String SQL_RENEW = """
+        UPDATE eventing.outbox_lease
+        SET lease_until = CURRENT_TIMESTAMP + :ttlMs * INTERVAL '1 millisecond'
+        WHERE consumer_group = :consumerGroup AND owner = :nodeId
+        AND lease_until >= CURRENT_TIMESTAMP
+        RETURNING slot
+        """;
+
+    private static final String SQL_ACQUIRE = """
+        WITH free AS MATERIALIZED (
+            SELECT slot FROM eventing.outbox_lease
+            WHERE consumer_group = :consumerGroup
+            AND (owner IS NULL OR lease_until < CURRENT_TIMESTAMP)
+            ORDER BY slot
+            LIMIT :count
+            FOR UPDATE SKIP LOCKED
+        )
+        UPDATE eventing.outbox_lease l
+        SET owner = :nodeId,
+            lease_until = CURRENT_TIMESTAMP + :ttlMs * INTERVAL '1 millisecond'
+        FROM free
+        WHERE l.consumer_group = :consumerGroup AND l.slot = free.slot
+        RETURNING l.slot
+        """;
+
+    private static final String SQL_RELEASE = """
+        UPDATE eventing.outbox_lease
+        SET owner = NULL, lease_until = NULL
+        WHERE consumer_group = :consumerGroup AND owner = :nodeId
+        AND slot = ANY(CAST(:slots AS int[]))
+        """;
+
+    private static final String SQL_RELEASE_ALL = """
+        UPDATE eventing.outbox_lease
+        SET owner = NULL, lease_until = NULL
+        WHERE consumer_group = :consumerGroup AND owner = :nodeId
+        """;
+
+    private static final String SQL_DELETE_MEMBER = """
+        DELETE FROM eventing.outbox_consumer
+        WHERE consumer_group = :consumerGroup AND node_id = :nodeId
+        """;
+
+    private final EntityManager entityManager;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public JpaOutboxLeaseRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public void heartbeat(String consumerGroup, String nodeId) {
+        entityManager.createNativeQuery(SQL_UPSERT_MEMBER)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("nodeId", nodeId)
+                .executeUpdate();
+        entityManager.createNativeQuery(SQL_ENSURE_SLOTS)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("shardCount", OutboxRepository.SHARD_COUNT)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    @SuppressWarnings("unchecked")
+    public List<String> liveMembers(String consumerGroup, Duration ttl) {
+        entityManager.createNativeQuery(SQL_PURGE_MEMBERS)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("ttlMs", ttl.toMillis())
+                .executeUpdate();
+        return (List<String>) entityManager.createNativeQuery(SQL_LIVE_MEMBERS)
+                .setParameter("consumerGroup", consumerGroup)
+                .getResultList();
+    }
+
+    @Override
+    @Transactional
+    public Set<Integer> renew(String consumerGroup, String nodeId, Duration ttl) {
+        return slots(entityManager.createNativeQuery(SQL_RENEW)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("nodeId", nodeId)
+                .setParameter("ttlMs", ttl.toMillis())
+                .getResultList());
+    }
+
+    @Override
+    @Transactional
+    public Set<Integer> acquire(String consumerGroup, String nodeId, int count, Duration ttl) {
+        return slots(entityManager.createNativeQuery(SQL_ACQUIRE)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("nodeId", nodeId)
+                .setParameter("count", count)
+                .setParameter("ttlMs", ttl.toMillis())
+                .getResultList());
+    }
+
+    @Override
+    @Transactional
+    public void release(String consumerGroup, String nodeId, Collection<Integer> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery(SQL_RELEASE)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("nodeId", nodeId)
+                .setParameter("slots", slots.toArray(Integer[]::new))
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void leave(String consumerGroup, String nodeId) {
+        entityManager.createNativeQuery(SQL_RELEASE_ALL)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("nodeId", nodeId)
+                .executeUpdate();
+        entityManager.createNativeQuery(SQL_DELETE_MEMBER)
+                .setParameter("consumerGroup", consumerGroup)
+                .setParameter("nodeId", nodeId)
+                .executeUpdate();
+    }
+
+    /**
+     * Résultat RETURNING slot → ensemble d'entiers.
+     */
+    private static Set<Integer> slots(List<?> rows) {
+        final Set<Integer> slots = new HashSet<>();
+        rows.forEach(row -> slots.add(((Number) row).intValue()));
+        return slots;
+    }
+}
@@ -4,14 +4,29 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxMessage;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRetryPolicy;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import io.quarkus.arc.DefaultBean;
 import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 
 /**
@@ -19,13 +34,19 @@ import jakarta.transaction.Transactional;
  *
  * <p>Implémente le pattern Outbox pour "dual write" fiable :
  * <ul>
- *   <li>publish() : append transactionnel (avec business tx)</li>
+ *   <li>publish() : append transactionnel (avec business tx), file héritée par agrégat</li>
  *   <li>fetchReady() : poll natif SQL optimisé</li>
- *   <li>delete/markFailed() : polling idempotent</li>
+ *   <li>claimReadyMessages() : claim natif outbox + event_log en 1 requête (records, sans entité)</li>
+ *   <li>renewClaims/releaseClaims() : prolongation / abandon des claims</li>
+ *   <li>ensurePartitions/dropConsumedPartitions() : maintenance des partitions journalières</li>
+ *   <li>delete/markFailed() : polling idempotent (delete = acquittement acked_at)</li>
+ *   <li>acknowledgeAll/markAllFailed() : variantes en lot (1 requête, 1 tx)</li>
+ *   <li>markAllFailed/deadLetterExhausted() : messages épuisés → eventing.outbox_dead_letter</li>
  * </ul></p>
  *
  * <h3>SQL natif externe</h3>
- * <p>Query dynamique depuis /db/queries/findReadyByAggregateTypeOrderByAggregateVersion.sql</p>
+ * <p>Query dynamique depuis /db/queries/findReadyByAggregateTypeOrderByAggregateVersion.sql
+ * et /db/queries/claimReadyMessagesByAggregateTypeOrderByAggregateVersion.sql</p>
  */
 @ApplicationScoped
 @DefaultBean
@@ -39,21 +60,141 @@ public class JpaOutboxRepository
     private static final String SQL_FETCH_QUERY = 
         loadSQLQueryFromFile("/db/queries/findReadyByAggregateTypeOrderByAggregateVersion.sql");
 
+    /** Claim outbox + événement source (scalaires, 1 aller-retour) */
+    private static final String SQL_CLAIM_MESSAGES_QUERY = 
+        loadSQLQueryFromFile("/db/queries/claimReadyMessagesByAggregateTypeOrderByAggregateVersion.sql");
+
+    /** Comptage des messages prêts (estimation backlog) */
+    private static final String SQL_COUNT_QUERY = 
+        loadSQLQueryFromFile("/db/queries/countReadyByAggregateType.sql");
+
+    /**
+     * File effective d'un nouveau message : promotion des messages en attente de
+     * l'agrégat vers une file plus prioritaire, puis file la plus prioritaire
+     * entre la demandée et celles en attente (1 aller-retour).
+     */
+    private static final String SQL_INHERIT_LANE = """
+        WITH pending AS (
+            SELECT min(o.lane) AS lane FROM eventing.outbox o
+            WHERE o.aggregate_type = :aggregateType AND o.aggregate_id = :aggregateId
+            AND o.acked_at IS NULL
+        ), promoted AS (
+            UPDATE eventing.outbox o SET lane = CAST(:lane AS smallint)
+            WHERE o.aggregate_type = :aggregateType AND o.aggregate_id = :aggregateId
+            AND o.acked_at IS NULL AND o.lane > CAST(:lane AS smallint)
+        )
+        SELECT LEAST(CAST(:lane AS smallint), (SELECT lane FROM pending))
+        """;
+
+    /**
+     * Acquittement en lot (statut : la place est rendue par DROP de partition).
+     * Par id seul : sonde l'index de clé primaire de chaque partition (pas d'élagage).
+     */
+    private static final String SQL_ACKNOWLEDGE_ALL = """
+        UPDATE eventing.outbox
+        SET acked_at = CURRENT_TIMESTAMP, claimed_by = NULL, claimed_until = NULL
+        WHERE id = ANY(CAST(:ids AS bigint[])) AND acked_at IS NULL
+        """;
+
+    /** Création des partitions journalières à venir (fonction SECURITY DEFINER) */
+    private static final String SQL_ENSURE_PARTITIONS =
+        "SELECT eventing.ensure_outbox_partitions(:daysAhead)";
+
+    /** Suppression des partitions passées entièrement acquittées */
+    private static final String SQL_DROP_CONSUMED_PARTITIONS =
+        "SELECT eventing.drop_consumed_outbox_partitions()";
+
+    /** Prolongation des claims du nœud */
+    private static final String SQL_RENEW_CLAIMS = """
+        UPDATE eventing.outbox
+        SET claimed_until = CURRENT_TIMESTAMP + :claimTtlMs * INTERVAL '1 millisecond'
+        WHERE id = ANY(CAST(:ids AS bigint[])) AND claimed_by = :claimedBy
+        """;
+
+    /** Abandon des claims du nœud */
+    private static final String SQL_RELEASE_CLAIMS = """
+        UPDATE eventing.outbox
+        SET claimed_by = NULL, claimed_until = NULL
+        WHERE id = ANY(CAST(:ids AS bigint[])) AND claimed_by = :claimedBy
+        """;
+
+    /**
+     * Échecs en lot (une erreur par id, ajoutée à l'historique, backoff exponentiel + jitter).
+     * Par id seul : sonde l'index de clé primaire de chaque partition (pas d'élagage).
+     */
+    private static final String SQL_MARK_ALL_FAILED = """
+        UPDATE eventing.outbox o
+        SET last_error = f.err, claimed_by = NULL, claimed_until = NULL,
+            next_attempt_at = CURRENT_TIMESTAMP + make_interval(secs =>
+                LEAST(:maxDelayMs, :baseDelayMs * power(2, o.attempts))
+                * (1 - :jitter * random()) / 1000.0),
+            attempts = o.attempts + 1,
+            error_history = o.error_history || jsonb_build_array(jsonb_build_object(
+                'attempt', o.attempts + 1, 'error', f.err, 'failedAt', CURRENT_TIMESTAMP))
+        FROM unnest(CAST(:ids AS bigint[]), CAST(:errors AS text[])) AS f(id, err)
+        WHERE o.id = f.id
+        """;
+
+    /** Déplacement outbox → dead letter (DELETE ... RETURNING + INSERT, 1 requête) */
+    private static final String SQL_DEAD_LETTER = """
+        WITH moved AS (
+            DELETE FROM eventing.outbox o
+            WHERE %s AND o.attempts >= :maxAttempts AND o.acked_at IS NULL
+            RETURNING o.*
+        )
+        INSERT INTO eventing.outbox_dead_letter (id, event_id, aggregate_type, aggregate_id,
+            aggregate_version, shard_key, attempts, last_error, error_class, error_history, lane)
+        SELECT id, event_id, aggregate_type, aggregate_id, aggregate_version, shard_key, attempts,
+            last_error, btrim(split_part(COALESCE(last_error, 'Unknown'), ':', 1)), error_history, lane
+        FROM moved
+        """;
+
+    private final ObjectMapper objectMapper;
+    private final boolean publishEnabled;
+
+    /**
+     * Constructeur CDI (ObjectMapper pour le payload JSONB).
+     *
+     * @param publishEnabled false si les lecteurs consomment event_log directement
+     *        (curseur, réplication) : plus aucune ligne outbox écrite
+     */
+    @Inject
+    public JpaOutboxRepository(
+            ObjectMapper objectMapper,
+            @ConfigProperty(name = "orderflow.outbox.publish-enabled", defaultValue = "true") boolean publishEnabled) {
+        this.objectMapper = objectMapper;
+        this.publishEnabled = publishEnabled;
+    }
+
     /**
      * Publish outbox (transactionnel avec business logic).
      *
-     * <p>Atomique : business tx + outbox insert.</p>
+     * <p>Atomique : business tx + outbox insert. No-op si la publication
+     * outbox est désactivée.</p>
+     *
+     * <p>La file est héritée par agrégat avant l'insertion ({@link DeliveryLane}) :
+     * tous les messages en attente d'un agrégat restent dans la même file.</p>
      */
     @Override
     public void publish(OutboxEntity entity) {
+        if (!publishEnabled) {
+            return;
+        }
+        final Number lane = (Number) getEntityManager()
+                .createNativeQuery(SQL_INHERIT_LANE)
+                .setParameter("aggregateType", entity.getAggregateType())
+                .setParameter("aggregateId", entity.getAggregateId())
+                .setParameter("lane", entity.getLane())
+                .getSingleResult();
+        entity.inheritLane(DeliveryLane.ofPriority(lane.shortValue()));
         persist(entity);
     }
 
     /**
-     * Poll messages ready (SQL natif + aggregate ordering).
+     * Poll messages ready (SQL natif, plus ancien d'abord).
      *
      * <p>Optimisé : nextAttemptAt <= now() && attempts < maxRetries<br>
-     * ORDER BY aggregate_version → respect causalité.</p>
+     * ORDER BY id → équité par âge, versions d'un agrégat dans l'ordre d'insertion.</p>
      */
     @Override
     @SuppressWarnings("unchecked")
@@ -68,12 +209,98 @@ public class JpaOutboxRepository
     }
 
     /**
-     * Delete après traitement réussi (idempotent).
+     * Claim messages ready + événement source (SQL natif scalaire, transactionnel).
+     *
+     * <p>Une seule requête (UPDATE ... RETURNING claimé puis jointure event_log,
+     * payload en texte) mappée en {@link OutboxMessage} : aucune entité chargée
+     * dans le contexte de persistance, donc ni SELECT EAGER par ligne ni dirty
+     * checking. Le claim est committé avant le retour (REQUIRES_NEW, même appelé
+     * dans une transaction) : claims visibles et verrous FOR UPDATE rendus avant
+     * le dispatch.</p>
+     */
+    @Override
+    @Transactional(Transactional.TxType.REQUIRES_NEW)
+    @SuppressWarnings("unchecked")
+    public List<OutboxMessage> claimReadyMessagesByAggregateTypeOrderByAggregateVersion(
+            String aggregateType, DeliveryLane lane, Collection<Integer> shards, String claimedBy,
+            Duration claimTtl, int limit, int maxRetries) {
+        final List<Object[]> rows = getEntityManager()
+                .createNativeQuery(SQL_CLAIM_MESSAGES_QUERY)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", StandardBasicTypes.LONG)
+                .addScalar("attempts", StandardBasicTypes.INTEGER)
+                .addScalar("event_id", StandardBasicTypes.LONG)
+                .addScalar("aggregate_type", StandardBasicTypes.STRING)
+                .addScalar("aggregate_id", StandardBasicTypes.UUID)
+                .addScalar("aggregate_version", StandardBasicTypes.LONG)
+                .addScalar("event_type", StandardBasicTypes.STRING)
+                .addScalar("event_version", StandardBasicTypes.INTEGER)
+                .addScalar("occurred_at", StandardBasicTypes.INSTANT)
+                .addScalar("payload", StandardBasicTypes.STRING)
+                .setParameter("aggregateTypes", aggregateType)
+                .setParameter("lane", lane.priority())
+                .setParameter("shards", shards.toArray(Integer[]::new))
+                .setParameter("claimedBy", claimedBy)
+                .setParameter("claimTtlMs", claimTtl.toMillis())
+                .setParameter("maxAttempts", maxRetries)
+                .setParameter("limit", limit)
+                .getResultList();
+        return rows.stream().map(this::toOutboxMessage).toList();
+    }
+
+    /**
+     * Prolongation des claims (transactionnel, 1 UPDATE).
+     */
+    @Transactional
+    @Override
+    public int renewClaims(Collection<Long> ids, String claimedBy, Duration claimTtl) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        return getEntityManager()
+                .createNativeQuery(SQL_RENEW_CLAIMS)
+                .setParameter("ids", ids.toArray(Long[]::new))
+                .setParameter("claimedBy", claimedBy)
+                .setParameter("claimTtlMs", claimTtl.toMillis())
+                .executeUpdate();
+    }
+
+    /**
+     * Abandon des claims (transactionnel, 1 UPDATE).
+     */
+    @Transactional
+    @Override
+    public void releaseClaims(Collection<Long> ids, String claimedBy) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        getEntityManager()
+                .createNativeQuery(SQL_RELEASE_CLAIMS)
+                .setParameter("ids", ids.toArray(Long[]::new))
+                .setParameter("claimedBy", claimedBy)
+                .executeUpdate();
+    }
+
+    /**
+     * Compte les messages ready non claimés (SQL natif, sans FOR UPDATE).
+     */
+    @Override
+    public long countReadyByAggregateType(String aggregateType, Collection<Integer> shards, int maxRetries) {
+        return ((Number) getEntityManager()
+                .createNativeQuery(SQL_COUNT_QUERY)
+                .setParameter("aggregateTypes", aggregateType)
+                .setParameter("shards", shards.toArray(Integer[]::new))
+                .setParameter("maxAttempts", maxRetries)
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * Acquittement après traitement réussi (idempotent, UPDATE acked_at).
      */
     @Transactional
     @Override
     public void delete(OutboxEntity entity) {
-        deleteById(entity.getId());
+        acknowledgeAll(List.of(entity.getId()));
     }
 
     /**
@@ -96,6 +323,112 @@ public class JpaOutboxRepository
                 err, Instant.now().plusMillis(delayMs), entity.getId());
     }
 
+    /**
+     * Acquittement en lot (transactionnel, 1 UPDATE acked_at).
+     *
+     * <p>Rejoint la transaction appelante si elle existe : le poller acquitte ainsi
+     * dans la transaction qui écrit les vues.</p>
+     */
+    @Transactional
+    @Override
+    public void acknowledgeAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        getEntityManager()
+                .createNativeQuery(SQL_ACKNOWLEDGE_ALL)
+                .setParameter("ids", ids.toArray(Long[]::new))
+                .executeUpdate();
+    }
+
+    /**
+     * Mark failed en lot (transactionnel, 1 UPDATE ... FROM unnest + 1 déplacement
+     * en dead letter des messages épuisés).
+     */
+    @Transactional
+    @Override
+    public int markAllFailed(Map<Long, String> errorsById, OutboxRetryPolicy retryPolicy) {
+        if (errorsById.isEmpty()) {
+            return 0;
+        }
+        final Long[] ids = errorsById.keySet().toArray(Long[]::new);
+        final String[] errors = new String[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            errors[i] = errorsById.get(ids[i]);
+        }
+        getEntityManager()
+                .createNativeQuery(SQL_MARK_ALL_FAILED)
+                .setParameter("ids", ids)
+                .setParameter("errors", errors)
+                .setParameter("baseDelayMs", (double) retryPolicy.baseDelay().toMillis())
+                .setParameter("maxDelayMs", (double) retryPolicy.maxDelay().toMillis())
+                .setParameter("jitter", retryPolicy.jitter())
+                .executeUpdate();
+        return getEntityManager()
+                .createNativeQuery(SQL_DEAD_LETTER.formatted("o.id = ANY(CAST(:ids AS bigint[]))"))
+                .setParameter("ids", ids)
+                .setParameter("maxAttempts", retryPolicy.maxAttempts())
+                .executeUpdate();
+    }
+
+    /**
+     * Déplacement en dead letter des messages épuisés (transactionnel, 1 requête).
+     */
+    @Transactional
+    @Override
+    public int deadLetterExhausted(String aggregateType, int maxAttempts) {
+        return getEntityManager()
+                .createNativeQuery(SQL_DEAD_LETTER.formatted("o.aggregate_type = :aggregateType"))
+                .setParameter("aggregateType", aggregateType)
+                .setParameter("maxAttempts", maxAttempts)
+                .executeUpdate();
+    }
+
+    /**
+     * Partitions à venir (transactionnel, no-op si un autre nœud s'en charge).
+     */
+    @Transactional
+    @Override
+    public int ensurePartitions(int daysAhead) {
+        return ((Number) getEntityManager()
+                .createNativeQuery(SQL_ENSURE_PARTITIONS)
+                .setParameter("daysAhead", daysAhead)
+                .getSingleResult()).intValue();
+    }
+
+    /**
+     * Purge des partitions consommées (transactionnel, DROP TABLE par partition).
+     */
+    @Transactional
+    @Override
+    public int dropConsumedPartitions() {
+        return ((Number) getEntityManager()
+                .createNativeQuery(SQL_DROP_CONSUMED_PARTITIONS)
+                .getSingleResult()).intValue();
+    }
+
+    /**
+     * Ligne scalaire (ordre du SELECT) → record lecture seule.
+     */
+    private OutboxMessage toOutboxMessage(Object[] row) {
+        try {
+            return new OutboxMessage(
+                    (Long) row[0],
+                    (Integer) row[1],
+                    new EventLogRecord(
+                            (Long) row[2],
+                            (String) row[3],
+                            (UUID) row[4],
+                            (Long) row[5],
+                            (String) row[6],
+                            (Integer) row[7],
+                            (Instant) row[8],
+                            objectMapper.readTree((String) row[9])));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid event_log payload for outbox=" + row[0], e);
+        }
+    }
+
     /**
      * Charge SQL natif depuis classpath (queries externes).
      */
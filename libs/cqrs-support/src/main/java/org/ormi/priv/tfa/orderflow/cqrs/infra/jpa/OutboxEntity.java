@@ -1,6 +1,10 @@
 package org.ormi.priv.tfa.orderflow.cqrs.infra.jpa;
 
 import java.time.Instant;
+import java.util.UUID;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -25,7 +29,16 @@ import lombok.NoArgsConstructor;
  *
  * <h3>Table eventing.outbox</h3>
  * <ul>
- *   <li>Index next_attempt_at : polling efficace</li>
+ *   <li>aggregate_type/id/version : copiés de l'événement source à la publication
+ *       (fetch sans jointure event_log)</li>
+ *   <li>Index (aggregate_type, aggregate_id, aggregate_version) : fetch ordonné borné par le LIMIT</li>
+ *   <li>Index partiel (aggregate_id, next_attempt_at) WHERE next_attempt_at IS NOT NULL :
+ *       exclusion des agrégats en attente de retry</li>
+ *   <li>shard_key : slot de consumer group (floorMod(aggregate_id.hashCode(), 64))</li>
+ *   <li>lane : file de livraison ({@link DeliveryLane}), partagée par les messages
+ *       non acquittés d'un agrégat ; index partiel (aggregate_type, lane, id)</li>
+ *   <li>Partitionnée par jour sur created_at (défaut base) ; acked_at marque
+ *       l'acquittement, les partitions entièrement acquittées sont supprimées</li>
  *   <li>ManyToOne EAGER : dénormalisé (event payload)</li>
  * </ul>
  *
@@ -33,7 +46,7 @@ import lombok.NoArgsConstructor;
  * <table>
  *   <tr><th>Status</th><th>Action</th></tr>
  *   <tr><td>nextAttemptAt <= now() && attempts < max</td><td>process</td></tr>
- *   <tr><td>success</td><td>DELETE</td></tr>
+ *   <tr><td>success</td><td>UPDATE acked_at (purge par DROP de partition)</td></tr>
  *   <tr><td>failed</td><td>UPDATE nextAttemptAt + attempts++</td></tr>
  * </table>
  */
@@ -44,7 +57,7 @@ import lombok.NoArgsConstructor;
 @Table(schema = "eventing", 
        name = "outbox", 
        indexes = {
-           @Index(name = "ix_outbox_ready", columnList = "next_attempt_at")
+           @Index(name = "ix_outbox_aggregate", columnList = "aggregate_type, aggregate_id, aggregate_version")
        })
 public class OutboxEntity {
     
@@ -53,6 +66,26 @@ public class OutboxEntity {
     @Column(name = "id", nullable = false, updatable = false, columnDefinition = "bigserial")
     private Long id;
     
+    /** Type agrégat (copie de sourceEvent) */
+    @Column(name = "aggregate_type", nullable = false, updatable = false, columnDefinition = "text")
+    private String aggregateType;
+
+    /** ID agrégat (copie de sourceEvent) */
+    @Column(name = "aggregate_id", nullable = false, updatable = false, columnDefinition = "uuid")
+    private UUID aggregateId;
+
+    /** Version agrégat (copie de sourceEvent) */
+    @Column(name = "aggregate_version", nullable = false, updatable = false, columnDefinition = "bigint")
+    private Long aggregateVersion;
+
+    /** Shard (slot de consumer group) = floorMod(aggregateId.hashCode(), 64) */
+    @Column(name = "shard_key", nullable = false, updatable = false, columnDefinition = "int")
+    private int shardKey;
+
+    /** File de livraison ({@link DeliveryLane#priority()}, héritée par agrégat à la publication) */
+    @Column(name = "lane", nullable = false, columnDefinition = "smallint")
+    private short lane;
+
     /** Nombre tentatives livraison */
     @Column(name = "attempts", nullable = false, updatable = false, columnDefinition = "int")
     private int attempts;
@@ -70,6 +103,13 @@ public class OutboxEntity {
     @JoinColumn(name = "event_id", nullable = false, updatable = false, columnDefinition = "bigint")
     private EventLogEntity sourceEvent;
 
+    /**
+     * File effective après héritage par agrégat (fixée par le repository avant insertion).
+     */
+    public void inheritLane(DeliveryLane lane) {
+        this.lane = lane.priority();
+    }
+
     /**
      * Builder fluide (Lombok-free).
      */
@@ -82,15 +122,27 @@ public class OutboxEntity {
      */
     public static class OutboxEntityBuilder {
         private EventLogEntity sourceEvent;
+        private DeliveryLane lane = DeliveryLane.INTERACTIVE;
 
         public OutboxEntityBuilder sourceEvent(EventLogEntity evt) {
             this.sourceEvent = evt;
             return this;
         }
 
+        public OutboxEntityBuilder lane(DeliveryLane lane) {
+            this.lane = lane;
+            return this;
+        }
+
         public OutboxEntity build() {
             OutboxEntity entity = new OutboxEntity();
             entity.sourceEvent = sourceEvent;
+            // Dénormalisation : le fetch filtre/trie sans jointure event_log
+            entity.aggregateType = sourceEvent.getAggregateType();
+            entity.aggregateId = sourceEvent.getAggregateId();
+            entity.aggregateVersion = sourceEvent.getAggregateVersion();
+            entity.shardKey = OutboxRepository.shardOf(sourceEvent.getAggregateId());
+            entity.lane = lane.priority();
             return entity;
         }
     }
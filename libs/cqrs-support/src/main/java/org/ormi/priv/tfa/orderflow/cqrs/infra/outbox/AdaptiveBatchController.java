@@ -0,0 +1,185 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Contrôleur adaptatif de la taille de batch et du rythme de polling outbox.
+ *
+ * <p>Deux régimes :</p>
+ * <table>
+ *   <tr><th>Mode</th><th>Batch</th><th>Re-poll</th></tr>
+ *   <tr><td>LOW_LATENCY</td><td>min</td><td>aucun (NOTIFY + poll de secours)</td></tr>
+ *   <tr><td>CATCH_UP</td><td>x2 par fetch plein, jusqu'à max</td><td>délai /2 par fetch plein, jusqu'à min</td></tr>
+ * </table>
+ *
+ * <h3>Règles</h3>
+ * <ul>
+ *   <li>Fetch plein + marge dans les files des partitions → CATCH_UP, on accélère</li>
+ *   <li>Fetch plein de messages déjà en cours → CATCH_UP, on ralentit</li>
+ *   <li>Fetch partiel → backlog résorbé, retour LOW_LATENCY</li>
+ *   <li>Batch borné par la marge restante (maxInFlight - inFlight)</li>
+ *   <li>Estimation du backlog : fetch partiel = exacte, sinon COUNT throttlé</li>
+ * </ul>
+ *
+ * <p>Thread-safe : mis à jour par le scheduler du poller, lu par l'API admin.</p>
+ */
+@ApplicationScoped
+public class AdaptiveBatchController {
+
+    /** Intervalle minimal entre deux COUNT du backlog */
+    private static final Duration BACKLOG_REFRESH_INTERVAL = Duration.ofSeconds(5);
+
+    private static final Logger LOG = Logger.getLogger(AdaptiveBatchController.class);
+
+    /**
+     * Régime courant du poller.
+     */
+    public enum Mode {
+        /** Petits batchs, réveil par notification */
+        LOW_LATENCY,
+        /** Backlog : gros batchs enchaînés */
+        CATCH_UP
+    }
+
+    /**
+     * Photographie de l'état du contrôleur (exposée par l'API admin).
+     */
+    public static record Status(
+            Mode mode,
+            int batchSize,
+            long delayMs,
+            long backlogEstimate,
+            Instant backlogEstimatedAt,
+            int inFlight,
+            int maxInFlight) {
+    }
+
+    private final int minBatchSize;
+    private final int maxBatchSize;
+    private final long minDelayMs;
+    private final long maxDelayMs;
+    private final int maxInFlight;
+
+    private Mode mode = Mode.LOW_LATENCY;
+    private int batchSize;
+    private long delayMs;
+    private long backlogEstimate;
+    private Instant backlogEstimatedAt = Instant.EPOCH;
+
+    /**
+     * Constructeur CDI (bornes configurables, section orderflow.outbox.poller).
+     */
+    @Inject
+    public AdaptiveBatchController(
+            @ConfigProperty(name = "orderflow.outbox.poller.min-batch-size", defaultValue = "10") int minBatchSize,
+            @ConfigProperty(name = "orderflow.outbox.poller.max-batch-size", defaultValue = "500") int maxBatchSize,
+            @ConfigProperty(name = "orderflow.outbox.poller.min-delay", defaultValue = "10ms") Duration minDelay,
+            @ConfigProperty(name = "orderflow.outbox.poller.max-delay", defaultValue = "1s") Duration maxDelay,
+            @ConfigProperty(name = "orderflow.outbox.poller.max-in-flight", defaultValue = "2000") int maxInFlight) {
+        if (minBatchSize < 1 || maxBatchSize < minBatchSize) {
+            throw new IllegalArgumentException("Invalid outbox batch bounds: min=" + minBatchSize
+                    + ", max=" + maxBatchSize);
+        }
+        this.minBatchSize = minBatchSize;
+        this.maxBatchSize = maxBatchSize;
+        this.minDelayMs = minDelay.toMillis();
+        this.maxDelayMs = Math.max(minDelay.toMillis(), maxDelay.toMillis());
+        this.maxInFlight = Math.max(maxInFlight, maxBatchSize);
+        this.batchSize = minBatchSize;
+        this.delayMs = maxDelayMs;
+    }
+
+    /**
+     * Taille du prochain fetch, bornée par la marge des partitions.
+     *
+     * @return 0 si les files sont saturées (ne pas fetcher)
+     */
+    public synchronized int nextBatchSize(int inFlight) {
+        return Math.max(0, Math.min(batchSize, maxInFlight - inFlight));
+    }
+
+    /**
+     * Ajuste le régime d'après le résultat du dernier fetch.
+     *
+     * @param requested limite demandée au fetch
+     * @param fetched nombre de messages retournés
+     * @param submitted nombre de messages réellement soumis (hors déjà en cours)
+     * @param inFlight messages en cours de traitement après dispatch
+     */
+    public synchronized void onFetch(int requested, int fetched, int submitted, int inFlight) {
+        final Mode previous = mode;
+        if (requested > 0 && fetched >= requested && submitted == 0) {
+            // Fenêtre occupée par des messages déjà en cours : on laisse les workers avancer
+            mode = Mode.CATCH_UP;
+            delayMs = Math.min(maxDelayMs, Math.max(1, delayMs) * 2);
+        } else if (requested > 0 && fetched >= requested) {
+            mode = Mode.CATCH_UP;
+            if (inFlight + batchSize * 2 <= maxInFlight) {
+                batchSize = Math.min(maxBatchSize, batchSize * 2);
+            }
+            delayMs = Math.max(minDelayMs, delayMs / 2);
+        } else if (requested > 0) {
+            mode = Mode.LOW_LATENCY;
+            batchSize = minBatchSize;
+            delayMs = maxDelayMs;
+            backlogEstimate = fetched;
+            backlogEstimatedAt = Instant.now();
+        }
+        if (previous != mode) {
+            LOG.infof("Outbox poller mode %s -> %s (batch=%d, delay=%dms, backlog~%d)",
+                    previous, mode, batchSize, delayMs, backlogEstimate);
+        }
+    }
+
+    /**
+     * Indique si le backlog doit être recompté (CATCH_UP + intervalle écoulé).
+     */
+    public synchronized boolean shouldRefreshBacklog() {
+        return mode == Mode.CATCH_UP
+                && backlogEstimatedAt.plus(BACKLOG_REFRESH_INTERVAL).isBefore(Instant.now());
+    }
+
+    /**
+     * Met à jour l'estimation du backlog (résultat d'un COUNT).
+     */
+    public synchronized void updateBacklogEstimate(long backlog) {
+        this.backlogEstimate = backlog;
+        this.backlogEstimatedAt = Instant.now();
+    }
+
+    /**
+     * Borne globale des messages en cours.
+     */
+    public int maxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Régime courant.
+     */
+    public synchronized Mode mode() {
+        return mode;
+    }
+
+    /**
+     * Délai avant le prochain poll en mode CATCH_UP.
+     */
+    public synchronized long delayMs() {
+        return delayMs;
+    }
+
+    /**
+     * État courant pour supervision.
+     */
+    public synchronized Status status(int inFlight) {
+        return new Status(mode, batchSize, delayMs, backlogEstimate, backlogEstimatedAt,
+                inFlight, maxInFlight);
+    }
+}
@@ -0,0 +1,197 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Boîtes aux lettres ordonnées par agrégat, exécutées sur virtual threads.
+ *
+ * <p>Chaque agrégat actif possède une file FIFO drainée par un seul virtual
+ * thread à la fois : ordre strict par agrégat, parallélisme total entre
+ * agrégats indépendants (un produit « chaud » ne bloque que lui-même).</p>
+ *
+ * <h3>Cycle de vie d'une boîte</h3>
+ * <ol>
+ *   <li>submit() : création à la volée + enfilement (atomique via compute)</li>
+ *   <li>Premier message → démarrage d'un drain sur virtual thread</li>
+ *   <li>File vide → la boîte est retirée de la map (pas de fuite mémoire)</li>
+ * </ol>
+ *
+ * <h3>Contre-pression</h3>
+ * <p>Un sémaphore global borne le nombre de messages acceptés et non terminés
+ * (une tâche couvrant un lot de N messages en consomme N). Au-delà,
+ * {@link #trySubmit} refuse : les messages restent en outbox et seront
+ * re-proposés au prochain poll.</p>
+ *
+ * <h3>Concurrence d'exécution</h3>
+ * <p>Un second sémaphore borne les tâches exécutées simultanément
+ * (max-concurrency) : chaque tâche ouvre une transaction et tient donc une
+ * connexion du pool. Les drains en attente de leur tour restent parqués
+ * (virtual threads, sans connexion) ; le reste du pool est laissé au poll, au
+ * heartbeat, au renouvellement des claims, au listener NOTIFY et aux requêtes
+ * de l'API. Le permis est pris par tâche : un agrégat chaud ne monopolise pas
+ * un créneau.</p>
+ *
+ * <h3>Arrêt</h3>
+ * <p>{@link #awaitDrained} refuse les nouvelles boîtes et laisse les drains en
+ * cours vider leur file ; {@link #shutdownNow()} interrompt ceux qui restent
+ * après l'échéance. Une boîte qui ne peut plus être drainée (exécuteur arrêté,
+ * drain interrompu) est abandonnée avec toutes ses tâches, permis rendus : leurs
+ * messages restent en cours et leurs claims sont levés à la fin du drainage.</p>
+ */
+public class AggregateMailboxes {
+
+    private static final Logger LOG = Logger.getLogger(AggregateMailboxes.class);
+
+    /**
+     * File d'un agrégat (mutée uniquement dans compute()).
+     */
+    private static final class Mailbox {
+        private final Queue<Task> tasks = new ArrayDeque<>();
+    }
+
+    /**
+     * Tâche enfilée et nombre de messages qu'elle couvre (permis du sémaphore).
+     */
+    private record Task(Runnable body, int permits) {
+    }
+
+    private final Map<UUID, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("outbox-mailbox-", 0).factory());
+    private final Semaphore capacity;
+    /** Tâches en cours d'exécution (une connexion chacune) */
+    private final Semaphore running;
+
+    /**
+     * @param maxInFlight nombre max de messages acceptés et non terminés
+     * @param maxConcurrency nombre max de tâches exécutées simultanément
+     */
+    public AggregateMailboxes(int maxInFlight, int maxConcurrency) {
+        this.capacity = new Semaphore(maxInFlight);
+        this.running = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Enfile une tâche couvrant {@code messages} messages dans la boîte de son agrégat.
+     *
+     * @return false si la borne globale est atteinte ou si l'exécuteur est arrêté
+     */
+    public boolean trySubmit(UUID aggregateId, int messages, Runnable task) {
+        if (!capacity.tryAcquire(messages)) {
+            return false;
+        }
+        final boolean[] startDrain = new boolean[1];
+        mailboxes.compute(aggregateId, (id, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new Mailbox();
+                startDrain[0] = true;
+            }
+            mailbox.tasks.add(new Task(task, messages));
+            return mailbox;
+        });
+        if (startDrain[0]) {
+            try {
+                executor.execute(() -> drain(aggregateId));
+            } catch (RejectedExecutionException e) {
+                // Aucun drain : la tâche et celles enfilées entre-temps ne s'exécuteront pas
+                discard(aggregateId);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Nombre d'agrégats ayant des messages en attente ou en cours.
+     */
+    public int activeMailboxes() {
+        return mailboxes.size();
+    }
+
+    /**
+     * Arrête l'acceptation de nouvelles boîtes et attend que les boîtes actives
+     * soient vidées (sans interruption).
+     *
+     * @return true si toutes les boîtes sont vides avant l'échéance
+     */
+    public boolean awaitDrained(Duration timeout) {
+        executor.shutdown();
+        try {
+            return executor.awaitTermination(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Interrompt les drains restants (transactions en cours annulées).
+     */
+    public void shutdownNow() {
+        if (!executor.isTerminated()) {
+            LOG.warnf("Outbox mailboxes still busy (%d aggregates), interrupting", mailboxes.size());
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Exécute les tâches de l'agrégat dans l'ordre, jusqu'à ce que sa file soit vide.
+     */
+    private void drain(UUID aggregateId) {
+        while (true) {
+            try {
+                // Créneau pris avant de défiler : la boîte reste celle de ce drain
+                running.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                discard(aggregateId);
+                return;
+            }
+            final Task[] next = new Task[1];
+            mailboxes.computeIfPresent(aggregateId, (id, mailbox) -> {
+                next[0] = mailbox.tasks.poll();
+                // File vide : retrait de la boîte (un submit concurrent en recréera une)
+                return next[0] == null ? null : mailbox;
+            });
+            if (next[0] == null) {
+                running.release();
+                return;
+            }
+            try {
+                next[0].body().run();
+            } catch (RuntimeException e) {
+                LOG.errorf("Outbox mailbox task FAILED: aggregateId=%s: %s", aggregateId, e.getMessage(), e);
+            } finally {
+                running.release();
+                capacity.release(next[0].permits());
+            }
+        }
+    }
+
+    /**
+     * Retire une boîte sans drain et rend les permis de toutes ses tâches.
+     */
+    private void discard(UUID aggregateId) {
+        mailboxes.computeIfPresent(aggregateId, (id, mailbox) -> {
+            final int permits = mailbox.tasks.stream().mapToInt(Task::permits).sum();
+            if (!mailbox.tasks.isEmpty()) {
+                LOG.warnf("Outbox mailbox abandoned: aggregateId=%s, tasks=%d, messages=%d",
+                        aggregateId, mailbox.tasks.size(), permits);
+            }
+            capacity.release(permits);
+            return null;
+        });
+    }
+}
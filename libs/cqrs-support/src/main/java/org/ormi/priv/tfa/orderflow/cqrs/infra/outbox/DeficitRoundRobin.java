@@ -0,0 +1,118 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partage d'un batch entre plusieurs sources par deficit round robin pondéré.
+ *
+ * <p>Utilisé par {@link OutboxPartitionedPoller} pour répartir chaque poll entre
+ * les types d'agrégat. Une source par index, avec son poids (&gt;= 1).</p>
+ *
+ * <h3>Déroulé d'un tour</h3>
+ * <ol>
+ *   <li>Crédit de chaque source += limit x poids / somme des poids (plafonné à limit)</li>
+ *   <li>Claim de la partie entière du crédit, décomptée du crédit</li>
+ *   <li>Fetch partiel → backlog de la source vide : crédit remis à zéro</li>
+ *   <li>Marge restante → sources encore en backlog, dans l'ordre de rotation,
+ *       sans décompte (capacité que personne d'autre ne réclame)</li>
+ * </ol>
+ *
+ * <p>L'ordre de passage tourne à chaque tour (index de départ = tour modulo le
+ * nombre de sources). Non thread-safe : appelé par le seul thread de poll.</p>
+ */
+public class DeficitRoundRobin {
+
+    /**
+     * Source de messages d'un index.
+     */
+    @FunctionalInterface
+    public interface Source<T> {
+
+        /**
+         * Claim au plus {@code limit} messages de la source {@code index} (limit &gt; 0).
+         */
+        List<T> claim(int index, int limit);
+    }
+
+    /**
+     * Notifiée quand le fetch d'une source est partiel (backlog résorbé).
+     */
+    @FunctionalInterface
+    public interface DrainedListener {
+
+        void drained(int index, int fetched);
+    }
+
+    private final int[] weights;
+    private final int totalWeight;
+    /** Crédit de chaque source (messages claimables) */
+    private final double[] credits;
+
+    /**
+     * @param weights poids de chaque source, dans l'ordre des index
+     * @throws IllegalArgumentException si un poids est &lt; 1
+     */
+    public DeficitRoundRobin(List<Integer> weights) {
+        this.weights = weights.stream().mapToInt(Integer::intValue).toArray();
+        for (int weight : this.weights) {
+            if (weight < 1) {
+                throw new IllegalArgumentException("Invalid weight: " + weight);
+            }
+        }
+        this.totalWeight = weights.stream().mapToInt(Integer::intValue).sum();
+        this.credits = new double[this.weights.length];
+    }
+
+    /**
+     * Claim jusqu'à {@code limit} messages répartis entre les sources.
+     *
+     * @param limit taille du batch
+     * @param round numéro du tour (rotation de l'ordre de passage)
+     * @param source claim d'une source
+     * @param onDrained appelé pour chaque source dont le fetch est partiel
+     * @return messages claimés, source par source dans l'ordre de passage
+     */
+    public <T> List<T> next(int limit, long round, Source<T> source, DrainedListener onDrained) {
+        final List<T> claimed = new ArrayList<>(limit);
+        if (weights.length == 0) {
+            return claimed;
+        }
+        final List<Integer> withBacklog = new ArrayList<>(weights.length);
+        final int start = (int) (round % weights.length);
+        for (int i = 0; i < weights.length; i++) {
+            final int index = (start + i) % weights.length;
+            credits[index] = Math.min(limit, credits[index] + (double) limit * weights[index] / totalWeight);
+            final int quota = Math.min((int) credits[index], limit - claimed.size());
+            if (quota <= 0) {
+                withBacklog.add(index);
+                continue;
+            }
+            final List<T> fetched = source.claim(index, quota);
+            claimed.addAll(fetched);
+            if (fetched.size() < quota) {
+                // Backlog de la source résorbé : pas de crédit accumulé à vide
+                credits[index] = 0;
+                onDrained.drained(index, fetched.size());
+            } else {
+                credits[index] -= fetched.size();
+                withBacklog.add(index);
+            }
+        }
+        for (int index : withBacklog) {
+            final int spare = limit - claimed.size();
+            if (spare <= 0) {
+                break;
+            }
+            claimed.addAll(source.claim(index, spare));
+        }
+        return claimed;
+    }
+
+    /**
+     * Crédit courant d'une source.
+     */
+    public double credit(int index) {
+        return credits[index];
+    }
+}
@@ -0,0 +1,180 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRetryPolicy;
+
+/**
+ * Buffer d'acquittements outbox du poller.
+ *
+ * <p>Accumule les échecs (UPDATE) et les messages relâchés sans traitement
+ * (claim levé) puis les écrit en lot via {@link OutboxRepository#markAllFailed}
+ * et {@link OutboxRepository#releaseClaims} : une transaction par flush au lieu
+ * d'une par message. Les succès n'y passent pas : ils sont acquittés dans la
+ * transaction de projection de leur lot ({@link OutboxBatchProjector}). Les échecs sont re-planifiés selon la
+ * {@link OutboxRetryPolicy} (backoff calculé en SQL) ; ceux ayant épuisé leurs
+ * tentatives partent en dead letter dans la même transaction.</p>
+ *
+ * <h3>Déclenchement du flush</h3>
+ * <ul>
+ *   <li>Taille : dès que {@code flushSize} résultats sont en attente</li>
+ *   <li>Temps : {@link #flushIfDue()} appelé périodiquement par le poller</li>
+ * </ul>
+ *
+ * <p>Thread-safe : alimenté par les virtual threads des boîtes aux lettres.
+ * Les résultats en attente sont détachés sous verrou puis écrits hors verrou
+ * (pas de JDBC en section critique). Après chaque flush (réussi ou non), les
+ * ids sont passés à {@code onFlushed} pour être retirés des messages en cours ;
+ * en cas d'erreur ils seront simplement re-livrés au prochain poll.</p>
+ */
+public class OutboxAckBuffer {
+
+    private static final Logger LOG = Logger.getLogger(OutboxAckBuffer.class);
+
+    private final OutboxRepository outbox;
+    private final int flushSize;
+    private final long flushIntervalNanos;
+    private final OutboxRetryPolicy retryPolicy;
+    private final String claimedBy;
+    private final Consumer<Long> onFlushed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private Map<Long, String> failed = new LinkedHashMap<>();
+    private List<Long> released = new ArrayList<>();
+    private long oldestPendingAt;
+
+    public OutboxAckBuffer(
+            OutboxRepository outbox,
+            int flushSize,
+            Duration flushInterval,
+            OutboxRetryPolicy retryPolicy,
+            String claimedBy,
+            Consumer<Long> onFlushed) {
+        this.outbox = outbox;
+        this.flushSize = flushSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.retryPolicy = retryPolicy;
+        this.claimedBy = claimedBy;
+        this.onFlushed = onFlushed;
+    }
+
+    /**
+     * Enregistre un échec (message à re-planifier).
+     */
+    public void fail(long id, String error) {
+        final boolean full;
+        lock.lock();
+        try {
+            markPending();
+            failed.put(id, error);
+            full = pendingLocked() >= flushSize;
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Enregistre un message relâché sans traitement (claim à lever).
+     */
+    public void release(long id) {
+        final boolean full;
+        lock.lock();
+        try {
+            markPending();
+            released.add(id);
+            full = pendingLocked() >= flushSize;
+        } finally {
+            lock.unlock();
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Flush si le plus ancien résultat en attente a dépassé l'intervalle.
+     */
+    public void flushIfDue() {
+        final boolean due;
+        lock.lock();
+        try {
+            due = pendingLocked() > 0 && System.nanoTime() - oldestPendingAt >= flushIntervalNanos;
+        } finally {
+            lock.unlock();
+        }
+        if (due) {
+            flush();
+        }
+    }
+
+    /**
+     * Écrit tous les résultats en attente (échecs puis relâchés).
+     */
+    public void flush() {
+        final Map<Long, String> failed;
+        final List<Long> released;
+        lock.lock();
+        try {
+            if (pendingLocked() == 0) {
+                return;
+            }
+            failed = this.failed;
+            released = this.released;
+            this.failed = new LinkedHashMap<>();
+            this.released = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            final int deadLettered = outbox.markAllFailed(failed, retryPolicy);
+            if (deadLettered > 0) {
+                LOG.warnf("Outbox %d messages moved to dead letter after %d attempts",
+                        deadLettered, retryPolicy.maxAttempts());
+            }
+        } catch (Exception e) {
+            LOG.errorf("Outbox bulk markFailed FAILED for %d messages (will be redelivered): %s",
+                    failed.size(), e.getMessage(), e);
+        }
+        try {
+            outbox.releaseClaims(released, claimedBy);
+        } catch (Exception e) {
+            LOG.errorf("Outbox bulk release FAILED for %d messages (claims will expire): %s",
+                    released.size(), e.getMessage(), e);
+        }
+        failed.keySet().forEach(onFlushed);
+        released.forEach(onFlushed);
+    }
+
+    /**
+     * Nombre de résultats en attente d'écriture.
+     */
+    public int pending() {
+        lock.lock();
+        try {
+            return pendingLocked();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int pendingLocked() {
+        return failed.size() + released.size();
+    }
+
+    private void markPending() {
+        if (pendingLocked() == 0) {
+            oldestPendingAt = System.nanoTime();
+        }
+    }
+}
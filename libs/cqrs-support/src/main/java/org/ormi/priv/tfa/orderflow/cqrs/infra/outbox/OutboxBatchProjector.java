@@ -0,0 +1,145 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxMessage;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+
+/**
+ * Traitement d'un lot outbox d'un agrégat et acquittement dans la même transaction.
+ *
+ * <p>Les vues et l'outbox sont dans la même base : les écritures du
+ * {@link OutboxMessageHandler} et l'UPDATE acked_at des messages traités sont
+ * committés ensemble. Un crash entre l'écriture de la vue et l'acquittement ne
+ * peut plus provoquer de re-projection, et un lot de N messages coûte 1 commit
+ * au lieu de N + 1.</p>
+ *
+ * <p>Les messages reçus sont claimés par une transaction déjà committée
+ * ({@link OutboxRepository#claimReadyMessagesByAggregateTypeOrderByAggregateVersion},
+ * hors transaction du poll) : l'UPDATE acked_at ne bute sur aucun verrou du
+ * poller, et les commits des lots d'agrégats distincts ne sont pas sérialisés
+ * derrière lui. Appelé depuis une mailbox, sans transaction englobante.</p>
+ *
+ * <h3>Déroulé</h3>
+ * <ol>
+ *   <li>Lot passé au handler ({@link OutboxMessageHandler#handleAll}, qui rejoint la
+ *       transaction), dans l'ordre des versions</li>
+ *   <li>Premier échec → arrêt : les messages suivants de l'agrégat ne sont
+ *       pas traités (ordre préservé)</li>
+ *   <li>Succès acquittés par {@link OutboxRepository#acknowledgeAll} avant le commit,
+ *       sauf écritures différées par le handler (acquittées par
+ *       {@link #flushDeferred})</li>
+ *   <li>Exception → rollback complet (vues + acquittements) signalé par
+ *       {@link BatchProjectionException} (message fautif inconnu si le lot en
+ *       compte plusieurs)</li>
+ * </ol>
+ */
+@ApplicationScoped
+public class OutboxBatchProjector {
+
+    /**
+     * Résultat d'un lot committé.
+     *
+     * @param acknowledged ids traités et acquittés dans la transaction
+     * @param deferred ids traités dont l'écriture est différée (toujours claimés)
+     * @param failed premier message en échec (null si tout le lot a réussi)
+     * @param error cause de l'échec (null si aucun)
+     * @param skipped ids suivants non traités (claims à lever)
+     */
+    public record BatchOutcome(List<Long> acknowledged, List<Long> deferred, OutboxMessage failed, String error, List<Long> skipped) {
+    }
+
+    /**
+     * Exception levée pendant le traitement du lot : la transaction du lot est
+     * annulée.
+     */
+    public static class BatchProjectionException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient OutboxMessage failed;
+
+        BatchProjectionException(OutboxMessage failed, Exception cause) {
+            super(cause.getMessage(), cause);
+            this.failed = failed;
+        }
+
+        /**
+         * Message dont le traitement a échoué (null si le lot compte plusieurs
+         * messages : à isoler en les re-traitant un par un).
+         */
+        public OutboxMessage failed() {
+            return failed;
+        }
+    }
+
+    private final OutboxRepository outbox;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public OutboxBatchProjector(OutboxRepository outbox) {
+        this.outbox = outbox;
+    }
+
+    /**
+     * Traite les messages d'un agrégat (ordonnés par version) puis acquitte les
+     * succès, en une transaction.
+     *
+     * @throws BatchProjectionException si le handler lève une exception (rollback)
+     */
+    @Transactional
+    public BatchOutcome projectAndAcknowledge(OutboxMessageHandler handler, List<OutboxMessage> messages) {
+        final List<OutboxMessageHandler.Result> results;
+        try {
+            results = handler.handleAll(messages);
+        } catch (Exception e) {
+            throw new BatchProjectionException(messages.size() == 1 ? messages.getFirst() : null, e);
+        }
+        final List<Long> acknowledged = new ArrayList<>(messages.size());
+        final List<Long> deferred = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            final OutboxMessage msg = messages.get(i);
+            if (i < results.size() && results.get(i).succeeded()) {
+                (results.get(i).writeDeferred() ? deferred : acknowledged).add(msg.id());
+                continue;
+            }
+            outbox.acknowledgeAll(acknowledged);
+            if (i >= results.size()) {
+                // Messages non couverts par le handler : relâchés
+                return new BatchOutcome(acknowledged, deferred, null, null, ids(messages.subList(i, messages.size())));
+            }
+            return new BatchOutcome(acknowledged, deferred, msg, results.get(i).error(),
+                    ids(messages.subList(i + 1, messages.size())));
+        }
+        outbox.acknowledgeAll(acknowledged);
+        return new BatchOutcome(acknowledged, deferred, null, null, List.of());
+    }
+
+    /**
+     * Écrit l'état différé d'un agrégat ({@link OutboxMessageHandler#flushDeferred})
+     * et acquitte ses messages différés, en une transaction.
+     *
+     * @throws BatchProjectionException si le handler lève une exception (rollback)
+     */
+    @Transactional
+    public void flushDeferred(OutboxMessageHandler handler, UUID aggregateId, List<Long> deferred) {
+        try {
+            handler.flushDeferred(aggregateId);
+        } catch (Exception e) {
+            throw new BatchProjectionException(null, e);
+        }
+        outbox.acknowledgeAll(deferred);
+    }
+
+    private static List<Long> ids(List<OutboxMessage> messages) {
+        return messages.stream().map(OutboxMessage::id).toList();
+    }
+}
@@ -0,0 +1,258 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxLeaseRepository;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Appartenance d'un nœud à un consumer group outbox (baux de shards).
+ *
+ * <p>L'outbox est découpée en {@link OutboxRepository#SHARD_COUNT} shards
+ * (hash de l'aggregateId). Chaque nœud ne fetch que les shards dont il détient
+ * le bail : un agrégat n'est traité que par un seul nœud à la fois, l'ordre
+ * par agrégat est donc préservé sur plusieurs instances.</p>
+ *
+ * <h3>Heartbeat</h3>
+ * <ol>
+ *   <li>Heartbeat du membre + purge des membres expirés</li>
+ *   <li>Renouvellement des baux détenus (bail perdu → abandon immédiat)</li>
+ *   <li>Part équitable = SHARD_COUNT / membres (reste réparti par rang)</li>
+ *   <li>Excédent → slots « en libération » : plus fetchés, rendus une fois drainés</li>
+ *   <li>Déficit → prise de slots libres ou expirés</li>
+ * </ol>
+ *
+ * <h3>Garanties</h3>
+ * <ul>
+ *   <li>Un slot n'est rendu qu'une fois ses messages en cours acquittés
+ *       (pas de double traitement pendant un rééquilibrage)</li>
+ *   <li>Nœud mort → ses baux expirent après lease-ttl et sont repris</li>
+ *   <li>Heartbeat en échec au-delà de lease-ttl → plus aucun slot fetché</li>
+ * </ul>
+ */
+@ApplicationScoped
+public class OutboxConsumerGroup {
+
+    private static final Logger LOG = Logger.getLogger(OutboxConsumerGroup.class);
+
+    /**
+     * Photographie de l'appartenance (exposée par l'API admin).
+     */
+    public static record Status(
+            String consumerGroup,
+            String nodeId,
+            List<String> members,
+            Set<Integer> ownedSlots,
+            Set<Integer> releasingSlots,
+            int targetSlots,
+            Instant lastHeartbeatAt) {
+    }
+
+    private final OutboxLeaseRepository leases;
+    private final String consumerGroup;
+    private final String nodeId;
+    private final Duration heartbeatInterval;
+    private final Duration leaseTtl;
+
+    private final ScheduledExecutorService heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-consumer-group").daemon().factory());
+
+    /** Slots détenus (actifs + en libération), mutés par le thread heartbeat */
+    private final TreeSet<Integer> owned = new TreeSet<>();
+    /** Slots en cours de libération (plus fetchés, en attente de drainage) */
+    private final Set<Integer> releasing = new TreeSet<>();
+
+    private volatile Set<Integer> activeSlots = Set.of();
+    private volatile Status status;
+    private volatile Instant lastRenewedAt = Instant.EPOCH;
+
+    private IntPredicate hasInFlight = slot -> false;
+    private Runnable onRebalance = () -> { };
+
+    /**
+     * Constructeur CDI (section orderflow.outbox.consumer-group).
+     */
+    @Inject
+    public OutboxConsumerGroup(
+            OutboxLeaseRepository leases,
+            @ConfigProperty(name = "orderflow.outbox.consumer-group.name", defaultValue = "default") String consumerGroup,
+            @ConfigProperty(name = "orderflow.outbox.consumer-group.node-id") Optional<String> nodeId,
+            @ConfigProperty(name = "orderflow.outbox.consumer-group.heartbeat-interval", defaultValue = "2s") Duration heartbeatInterval,
+            @ConfigProperty(name = "orderflow.outbox.consumer-group.lease-ttl", defaultValue = "10s") Duration leaseTtl) {
+        if (leaseTtl.compareTo(heartbeatInterval.multipliedBy(2)) < 0) {
+            throw new IllegalArgumentException("Outbox lease-ttl must be at least twice the heartbeat-interval: ttl="
+                    + leaseTtl + ", heartbeat=" + heartbeatInterval);
+        }
+        this.leases = leases;
+        this.consumerGroup = consumerGroup;
+        this.nodeId = nodeId.orElseGet(OutboxConsumerGroup::defaultNodeId);
+        this.heartbeatInterval = heartbeatInterval;
+        this.leaseTtl = leaseTtl;
+        this.status = new Status(consumerGroup, this.nodeId, List.of(), Set.of(), Set.of(), 0, null);
+    }
+
+    /**
+     * Rejoint le groupe et démarre le heartbeat.
+     *
+     * @param hasInFlight indique si un slot a encore des messages non acquittés
+     * @param onRebalance appelé quand les slots actifs changent (hors thread appelant)
+     */
+    public void join(IntPredicate hasInFlight, Runnable onRebalance) {
+        this.hasInFlight = hasInFlight;
+        this.onRebalance = onRebalance;
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat,
+                0, heartbeatInterval.toMillis(), TimeUnit.MILLISECONDS);
+        LOG.infof("OutboxConsumerGroup JOINED: group=%s, node=%s, heartbeat=%dms, lease ttl=%dms",
+                consumerGroup, nodeId, heartbeatInterval.toMillis(), leaseTtl.toMillis());
+    }
+
+    /**
+     * Quitte le groupe : arrête le heartbeat et rend tous les slots.
+     *
+     * <p>À appeler après le drainage des messages en cours.</p>
+     */
+    public void leave() {
+        heartbeatScheduler.shutdownNow();
+        try {
+            heartbeatScheduler.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        activeSlots = Set.of();
+        try {
+            leases.leave(consumerGroup, nodeId);
+            LOG.infof("OutboxConsumerGroup LEFT: group=%s, node=%s", consumerGroup, nodeId);
+        } catch (Exception e) {
+            LOG.warnf("OutboxConsumerGroup leave FAILED (leases will expire): %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Slots à fetcher (détenus et non en cours de libération).
+     */
+    public Set<Integer> ownedSlots() {
+        return activeSlots;
+    }
+
+    /**
+     * Identifiant de ce nœud dans le groupe.
+     */
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * État courant pour supervision.
+     */
+    public Status status() {
+        return status;
+    }
+
+    /**
+     * Un cycle heartbeat : renouvellement puis rééquilibrage.
+     */
+    private void heartbeat() {
+        try {
+            leases.heartbeat(consumerGroup, nodeId);
+            final List<String> members = leases.liveMembers(consumerGroup, leaseTtl);
+            final int rank = Math.max(0, members.indexOf(nodeId));
+            final int size = Math.max(1, members.size());
+            final int target = OutboxRepository.SHARD_COUNT / size
+                    + (rank < OutboxRepository.SHARD_COUNT % size ? 1 : 0);
+
+            // Baux perdus (expirés puis repris) : abandon immédiat
+            final Set<Integer> renewed = leases.renew(consumerGroup, nodeId, leaseTtl);
+            lastRenewedAt = Instant.now();
+            owned.retainAll(renewed);
+            owned.addAll(renewed);
+            releasing.retainAll(owned);
+
+            // Slots publiés « en libération » au cycle précédent et drainés : rendus.
+            // Un slot n'est jamais rendu dans le cycle qui le retire des slots actifs.
+            final List<Integer> drained = releasing.stream()
+                    .filter(slot -> !hasInFlight.test(slot))
+                    .toList();
+            if (!drained.isEmpty()) {
+                leases.release(consumerGroup, nodeId, drained);
+                drained.forEach(owned::remove);
+                drained.forEach(releasing::remove);
+            }
+
+            // Excédent : on arrête de fetcher, libération après drainage
+            int excess = owned.size() - releasing.size() - target;
+            for (Integer slot : owned.descendingSet()) {
+                if (excess <= 0) {
+                    break;
+                }
+                if (releasing.add(slot)) {
+                    excess--;
+                }
+            }
+
+            // Déficit : prise de slots libres ou expirés
+            final int deficit = target - (owned.size() - releasing.size());
+            if (deficit > 0) {
+                owned.addAll(leases.acquire(consumerGroup, nodeId, deficit, leaseTtl));
+            }
+
+            publish(members, target);
+        } catch (Exception e) {
+            LOG.warnf("OutboxConsumerGroup heartbeat FAILED: group=%s, node=%s: %s",
+                    consumerGroup, nodeId, e.getMessage());
+            if (lastRenewedAt.plus(leaseTtl).isBefore(Instant.now())) {
+                // Baux potentiellement repris par un autre nœud : on cesse de fetcher
+                owned.clear();
+                releasing.clear();
+                publish(status.members(), 0);
+            }
+        }
+    }
+
+    /**
+     * Publie les slots actifs et notifie en cas de changement.
+     */
+    private void publish(List<String> members, int target) {
+        final Set<Integer> active = new TreeSet<>(owned);
+        active.removeAll(releasing);
+        final Set<Integer> previous = activeSlots;
+        activeSlots = Set.copyOf(active);
+        status = new Status(consumerGroup, nodeId, List.copyOf(members), Set.copyOf(active),
+                Set.copyOf(releasing), target, lastRenewedAt);
+        if (!previous.equals(activeSlots)) {
+            LOG.infof("OutboxConsumerGroup REBALANCED: group=%s, node=%s, slots=%d -> %d (target=%d, releasing=%d, members=%d)",
+                    consumerGroup, nodeId, previous.size(), activeSlots.size(), target, releasing.size(),
+                    members.size());
+            onRebalance.run();
+        }
+    }
+
+    /**
+     * Identifiant par défaut : hostname + suffixe aléatoire (redémarrage = nouveau membre).
+     */
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
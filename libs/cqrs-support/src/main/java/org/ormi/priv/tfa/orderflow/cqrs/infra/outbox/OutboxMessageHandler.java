@@ -0,0 +1,130 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxMessage;
+
+/**
+ * Traitement des messages outbox d'un type d'agrégat (SPI du poller).
+ *
+ * <p>Chaque read model déclare un bean CDI par type d'agrégat consommé ;
+ * {@link OutboxPartitionedPoller} les découvre au démarrage et ne claim que les
+ * types ayant un handler. Un seul poller (et un seul pool de connexions) sert
+ * ainsi tous les read models d'un service.</p>
+ *
+ * <h3>Contrat</h3>
+ * <ul>
+ *   <li>{@link #handleAll} est appelé dans la transaction du lot de l'agrégat : les
+ *       écritures doivent rejoindre la transaction courante (REQUIRED)</li>
+ *   <li>Messages d'un agrégat reçus dans l'ordre des versions ; par défaut
+ *       {@link #handleAll} les passe un à un à {@link #handle}, un handler peut
+ *       le redéfinir pour replier le lot (1 lecture, 1 écriture)</li>
+ *   <li>Exception → lot annulé, message en échec (retry en backoff)</li>
+ *   <li>{@link #weight()} : part du batch de poll réservée au type quand
+ *       plusieurs types ont du backlog</li>
+ * </ul>
+ *
+ * <h3>Écriture différée (write-behind)</h3>
+ * <p>Un handler peut garder en mémoire l'état produit par un lot et répondre
+ * {@link Result#deferred()} : le message reste claimé (non acquitté). Le poller
+ * appelle ensuite {@link #flushDeferred} dans la mailbox de l'agrégat, dans une
+ * transaction qui acquitte aussi ses messages différés : l'état est toujours écrit
+ * avant l'acquittement. Flush en échec → {@link #discardDeferred}, messages
+ * relâchés et re-projetés depuis la base.</p>
+ */
+public interface OutboxMessageHandler {
+
+    /**
+     * Résultat du traitement d'un message.
+     *
+     * @param succeeded true si le message peut être acquitté
+     * @param error cause de l'échec (null si succès)
+     * @param writeDeferred true si l'écriture est différée (acquitté au flush du handler)
+     */
+    record Result(boolean succeeded, String error, boolean writeDeferred) {
+
+        /**
+         * Message traité : acquitté avec son lot.
+         */
+        public static Result success() {
+            return new Result(true, null, false);
+        }
+
+        /**
+         * Message traité, écriture différée : acquitté par {@link #flushDeferred}.
+         */
+        public static Result deferred() {
+            return new Result(true, null, true);
+        }
+
+        /**
+         * Message non traité : re-planifié, agrégat suspendu jusqu'au retry.
+         */
+        public static Result failure(String error) {
+            return new Result(false, error, false);
+        }
+    }
+
+    /**
+     * Type d'agrégat traité (colonne aggregate_type de l'outbox).
+     */
+    String aggregateType();
+
+    /**
+     * Poids du type dans l'ordonnancement équitable (1 par défaut).
+     */
+    default int weight() {
+        return 1;
+    }
+
+    /**
+     * Indique si le message peut être traité (version d'événement supportée).
+     * Un message non supporté est mis en échec (retry puis dead letter) et
+     * bloque les versions suivantes de son agrégat.
+     */
+    default boolean supports(OutboxMessage message) {
+        return true;
+    }
+
+    /**
+     * Traite un message dans la transaction courante.
+     */
+    Result handle(OutboxMessage message) throws Exception;
+
+    /**
+     * Traite les messages d'un agrégat (ordonnés par version) dans la transaction
+     * courante.
+     *
+     * <p>Aucun message ne doit être appliqué après le premier échec : les résultats
+     * couvrent les messages jusqu'à cet échec inclus (les suivants sont relâchés).</p>
+     *
+     * @return un résultat par message traité, dans l'ordre
+     */
+    default List<Result> handleAll(List<OutboxMessage> messages) throws Exception {
+        final List<Result> results = new ArrayList<>(messages.size());
+        for (OutboxMessage message : messages) {
+            final Result result = handle(message);
+            results.add(result);
+            if (!result.succeeded()) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Écrit l'état différé d'un agrégat dans la transaction courante (celle qui
+     * acquitte ses messages différés). Appelé dans la mailbox de l'agrégat.
+     */
+    default void flushDeferred(UUID aggregateId) throws Exception {
+    }
+
+    /**
+     * Oublie l'état différé d'un agrégat après un flush annulé (ses messages
+     * seront re-livrés).
+     */
+    default void discardDeferred(UUID aggregateId) {
+    }
+}
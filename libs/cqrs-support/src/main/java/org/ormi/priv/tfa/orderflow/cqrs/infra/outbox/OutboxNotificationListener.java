@@ -0,0 +1,124 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Écoute Postgres LISTEN/NOTIFY sur l'outbox pour réveiller le poller.
+ *
+ * <p>Garde une connexion dédiée en {@code LISTEN} sur
+ * {@link OutboxRepository#READY_CHANNEL} et déclenche
+ * {@link OutboxPartitionedPoller#wakeUp()} dès qu'une transaction ayant inséré
+ * dans eventing.outbox est committée. Le poll à intervalle lent du poller reste
+ * le filet de sécurité.</p>
+ *
+ * <h3>Résilience</h3>
+ * <ul>
+ *   <li>Connexion perdue → reconnexion après {@link #RECONNECT_DELAY}</li>
+ *   <li>Après chaque (re)connexion → poll immédiat (notifications manquées)</li>
+ *   <li>NOTIFY multiples coalescés côté Postgres (même tx) et côté poller</li>
+ * </ul>
+ */
+@ApplicationScoped
+@Startup
+public class OutboxNotificationListener {
+
+    /** Attente max d'une notification avant de re-vérifier l'arrêt */
+    private static final int NOTIFICATION_TIMEOUT_MS = 5000;
+    /** Délai avant reconnexion après erreur */
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+
+    private static final Logger LOG = Logger.getLogger(OutboxNotificationListener.class);
+
+    private final AgroalDataSource dataSource;
+    private final OutboxPartitionedPoller poller;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    /**
+     * Constructeur CDI.
+     */
+    @Inject
+    public OutboxNotificationListener(
+            AgroalDataSource dataSource,
+            OutboxPartitionedPoller poller) {
+        this.dataSource = dataSource;
+        this.poller = poller;
+    }
+
+    /**
+     * Démarre le thread d'écoute (daemon).
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (!poller.isEnabled()) {
+            return;
+        }
+        running = true;
+        listenerThread = Thread.ofPlatform()
+                .name("outbox-listener")
+                .daemon()
+                .start(this::listen);
+    }
+
+    /**
+     * Arrête l'écoute (la connexion est rendue au pool par le thread).
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        LOG.info("OutboxNotificationListener STOPPED");
+    }
+
+    /**
+     * Boucle d'écoute : LISTEN puis attente des notifications, avec reconnexion.
+     */
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + OutboxRepository.READY_CHANNEL);
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                LOG.infof("OutboxNotificationListener LISTENING on channel=%s",
+                        OutboxRepository.READY_CHANNEL);
+                // Rattrape ce qui a pu être inséré pendant la (re)connexion
+                poller.wakeUp();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(NOTIFICATION_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        poller.wakeUp();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                LOG.warnf("OutboxNotificationListener connection lost, retry in %ds: %s",
+                        RECONNECT_DELAY.toSeconds(), e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Maintenance des partitions journalières de eventing.outbox.
+ *
+ * <p>Les messages acquittés restent en place (acked_at renseigné) jusqu'à la
+ * suppression de leur partition : la place est rendue par un DROP TABLE en O(1)
+ * au lieu de DELETE générant des tuples morts à nettoyer par l'autovacuum.</p>
+ *
+ * <h3>Cycle (toutes les maintenance-interval)</h3>
+ * <ol>
+ *   <li>Création des partitions d'aujourd'hui à aujourd'hui + days-ahead, et de
+ *       celles des jours dont des messages sont tombés dans la partition DEFAULT
+ *       (messages déplacés dans leur partition)</li>
+ *   <li>Suppression des partitions passées dont tous les messages sont acquittés,
+ *       purge des messages acquittés de la partition DEFAULT</li>
+ * </ol>
+ *
+ * <p>Exécutable sur tous les nœuds : les fonctions SQL prennent un verrou
+ * consultatif, un seul nœud travaille à la fois, les autres passent leur tour.
+ * Les messages insérés hors des partitions existantes tombent dans la partition
+ * DEFAULT (filet de sécurité si la maintenance est arrêtée) et en sont sortis
+ * au cycle suivant (platform-016).</p>
+ */
+@ApplicationScoped
+@Startup
+public class OutboxPartitionMaintenance {
+
+    private static final Logger LOG = Logger.getLogger(OutboxPartitionMaintenance.class);
+
+    private final OutboxRepository outbox;
+    private final boolean enabled;
+    private final Duration interval;
+    private final int daysAhead;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("outbox-partition-maintenance").daemon().factory());
+
+    /**
+     * Constructeur CDI (section orderflow.outbox.partitions).
+     */
+    @Inject
+    public OutboxPartitionMaintenance(
+            OutboxRepository outbox,
+            @ConfigProperty(name = "orderflow.outbox.partitions.maintenance-enabled", defaultValue = "true") boolean enabled,
+            @ConfigProperty(name = "orderflow.outbox.partitions.maintenance-interval", defaultValue = "1h") Duration interval,
+            @ConfigProperty(name = "orderflow.outbox.partitions.days-ahead", defaultValue = "7") int daysAhead) {
+        if (daysAhead < 1) {
+            throw new IllegalArgumentException("Outbox partitions days-ahead must be at least 1: " + daysAhead);
+        }
+        this.outbox = outbox;
+        this.enabled = enabled;
+        this.interval = interval;
+        this.daysAhead = daysAhead;
+    }
+
+    /**
+     * Planifie la maintenance à l'initialisation Quarkus (@Startup).
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            LOG.info("OutboxPartitionMaintenance DISABLED");
+            return;
+        }
+        scheduler.scheduleWithFixedDelay(this::maintain, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        LOG.infof("OutboxPartitionMaintenance STARTED: interval=%dms, days ahead=%d",
+                interval.toMillis(), daysAhead);
+    }
+
+    /**
+     * Arrête le scheduler au shutdown.
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Un cycle de maintenance (erreurs journalisées, retentées au cycle suivant).
+     */
+    void maintain() {
+        try {
+            final int created = outbox.ensurePartitions(daysAhead);
+            if (created > 0) {
+                LOG.infof("Outbox %d partitions created (%d days ahead)", created, daysAhead);
+            }
+        } catch (Exception e) {
+            LOG.errorf("Outbox partition creation FAILED: %s", e.getMessage(), e);
+        }
+        try {
+            final int dropped = outbox.dropConsumedPartitions();
+            if (dropped > 0) {
+                LOG.infof("Outbox %d consumed partitions dropped", dropped);
+            }
+        } catch (Exception e) {
+            LOG.errorf("Outbox partition drop FAILED: %s", e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,865 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.DeliveryMode;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.OutboxBatchProjector.BatchOutcome;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.OutboxBatchProjector.BatchProjectionException;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.DeliveryLane;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxMessage;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRepository;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.OutboxRetryPolicy;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.control.ActivateRequestContext;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * Poller partitionné asynchrone de l'Outbox Pattern (Transactional Outbox).
+ *
+ * <p>Traite les messages outbox de manière ordonnée par agrégat et tolérante aux
+ * pannes, pour tous les types d'agrégat ayant un {@link OutboxMessageHandler}
+ * (découverts par CDI). Utilise 1 scheduler de poll, 1 scheduler de maintenance
+ * (flushes, renouvellement des claims) et une boîte aux lettres par agrégat
+ * actif drainée sur virtual thread ({@link AggregateMailboxes}) : un seul poll
+ * loop et un seul pool de connexions pour tous les read models du service. Un
+ * poll lent ne retarde ni les flushes ni le renouvellement des claims (qui
+ * expireraient sinon pendant le traitement).</p>
+ *
+ * <h3>Configuration</h3>
+ * <table>
+ *   <tr><th>Paramètre</th><th>Valeur</th></tr>
+ *   <tr><td>Exécution</td><td>1 mailbox par agrégat (virtual threads)</td></tr>
+ *   <tr><td>Messages en cours</td><td>borne globale (max-in-flight)</td></tr>
+ *   <tr><td>Tâches simultanées</td><td>max-concurrency (16), sous la taille du pool de connexions</td></tr>
+ *   <tr><td>Batch size</td><td>adaptatif ({@link AdaptiveBatchController})</td></tr>
+ *   <tr><td>Partage du batch</td><td>pondéré par type ({@link OutboxMessageHandler#weight()})</td></tr>
+ *   <tr><td>Files</td><td>INTERACTIVE d'abord, BULK borné à bulk-share (20%) sous contention</td></tr>
+ *   <tr><td>Poll de secours</td><td>30s (notifications manquées)</td></tr>
+ *   <tr><td>Poll de rattrapage</td><td>adaptatif (mode CATCH_UP)</td></tr>
+ *   <tr><td>Max tentatives</td><td>5 (puis dead letter)</td></tr>
+ *   <tr><td>Retry delay</td><td>backoff exponentiel 5s → 5min, jitter 20% ({@link OutboxRetryPolicy})</td></tr>
+ *   <tr><td>Acquittement des succès</td><td>dans la transaction de projection du lot ({@link OutboxBatchProjector})</td></tr>
+ *   <tr><td>Flush échecs/relâchés</td><td>par taille ou par temps ({@link OutboxAckBuffer})</td></tr>
+ *   <tr><td>Écritures différées</td><td>flushées toutes les write-behind-window (50ms)</td></tr>
+ * </table>
+ *
+ * <h3>Déclenchement</h3>
+ * <ul>
+ *   <li>{@link #wakeUp()} : poll immédiat, appelé par {@link OutboxNotificationListener}
+ *       à chaque NOTIFY de l'outbox (réveils coalescés)</li>
+ *   <li>Poll de secours à intervalle lent (notification perdue, listener déconnecté)</li>
+ *   <li>Poll de rattrapage enchaîné tant que le contrôleur est en mode CATCH_UP</li>
+ * </ul>
+ *
+ * <h3>Flux de traitement</h3>
+ * <ol>
+ *   <li>Claim outbox + event_log en 1 requête par type (ready par âge, versions ordonnées par agrégat, records lecture seule)</li>
+ *   <li>Messages du batch regroupés par agrégat : 1 tâche par agrégat dans sa mailbox
+ *       (ordre strict par agrégat, agrégats en parallèle)</li>
+ *   <li>Process async → 1 transaction par lot d'agrégat : écritures du handler + acked_at
+ *       des succès ({@link OutboxBatchProjector})</li>
+ *   <li>Échec/relâché bufferisé → markAllFailed/releaseClaims en lot</li>
+ *   <li>Échec → next_attempt_at calculé en SQL : l'agrégat n'est plus fetché jusqu'au retry</li>
+ *   <li>Tentatives épuisées → dead letter (erreur préfixée par sa classe), agrégat bloqué jusqu'au replay</li>
+ * </ol>
+ *
+ * <h3>Ordonnancement entre types</h3>
+ * <p>Deficit round robin pondéré ({@link DeficitRoundRobin}) : à chaque poll, chaque type reçoit un crédit
+ * {@code limite x poids / somme des poids} et claim au plus la partie entière de
+ * son crédit. Un type dont le fetch est partiel (backlog vide) perd son crédit ;
+ * la marge non consommée est ensuite redistribuée aux types encore en backlog,
+ * sans leur être décomptée. Un flot d'un type ne prend donc jamais plus que sa
+ * part quand les autres ont du backlog, et n'est pas bridé quand ils n'en ont
+ * pas. L'ordre de passage tourne à chaque poll.</p>
+ *
+ * <h3>Files de livraison</h3>
+ * <p>Au sein d'un type, la file INTERACTIVE (éditions utilisateur) est claimée
+ * avant BULK (imports) : un import massif ne retarde pas les éditions. BULK
+ * garde une part minimale du batch ({@code orderflow.outbox.poller.bulk-share})
+ * pour ne pas être affamé, et récupère toute la marge quand INTERACTIVE est vide
+ * ({@link DeliveryLane}).</p>
+ *
+ * <h3>Claims</h3>
+ * <p>Chaque message fetché est claimé en base ({@code claimed_by = node_id},
+ * {@code claimed_until = now + claim-ttl}) : les polls suivants ne le re-fetchent
+ * pas, même si son traitement dure plus longtemps que l'intervalle de poll. Un
+ * message est donc dispatché une seule fois par claim.</p>
+ * <ul>
+ *   <li>Claims des messages en cours prolongés toutes les claim-ttl / 3</li>
+ *   <li>Message non soumis (borne globale, échec en attente, shard en libération) →
+ *       claim levé aussitôt, re-claimable au poll suivant</li>
+ *   <li>Nœud arrêté brutalement → claims expirés, repris automatiquement</li>
+ *   <li>inFlight (en mémoire) reste le garde-fou local si un claim expire pendant
+ *       un traitement</li>
+ * </ul>
+ *
+ * <h3>Écritures différées (write-behind)</h3>
+ * <p>Un message auquel le handler répond {@link OutboxMessageHandler.Result#deferred()}
+ * reste en cours et claimé : son effet n'est qu'en mémoire. Toutes les
+ * {@code orderflow.outbox.poller.write-behind-window}, une tâche de flush est
+ * enfilée dans la mailbox de chaque agrégat concerné (donc jamais en parallèle
+ * d'un de ses lots) : écriture de l'état du handler et acquittement des messages
+ * différés en une transaction. Les lots d'un produit chaud arrivés dans la
+ * fenêtre coûtent ainsi une seule écriture. Flush en échec → état du handler
+ * oublié, messages relâchés et re-projetés. Pendant le drainage, chaque lot est
+ * flushé dès sa fin.</p>
+ *
+ * <h3>Échecs en attente de flush</h3>
+ * <p>Entre l'échec d'un message et l'écriture de son next_attempt_at, les messages
+ * suivants du même agrégat sont relâchés (ordre préservé). L'entrée est évincée
+ * dès qu'un poll démarre après le flush : la base exclut alors l'agrégat du fetch.
+ * La mémoire est donc bornée par les échecs non encore flushés.</p>
+ *
+ * <h3>Arrêt (drainage)</h3>
+ * <p>Au shutdown, le poller passe en drainage au lieu d'interrompre les projections :</p>
+ * <ol>
+ *   <li>Plus aucun poll (réveils ignorés), fin du poll en cours attendue</li>
+ *   <li>Écritures différées flushées, lots en mailbox terminés jusqu'à
+ *       {@code orderflow.outbox.poller.drain-timeout}</li>
+ *   <li>Échéance dépassée → lots encore en file rendus sans traitement (claims levés),
+ *       seuls les lots encore bloqués après un court délai sont interrompus</li>
+ *   <li>Flush des échecs et relâchés, claims restants levés, slots rendus au groupe</li>
+ * </ol>
+ * <p>Le nœud suivant reprend les messages rendus sans attendre l'expiration des
+ * claims ni les délais de retry : un déploiement progressif ne crée pas de pic de
+ * retard de projection. L'échéance doit rester sous le délai de grâce de
+ * l'orchestrateur.</p>
+ *
+ * <h3>Multi-nœuds</h3>
+ * <p>Le poller ne fetch que les shards dont ce nœud détient le bail
+ * ({@link OutboxConsumerGroup}). Un shard en cours de libération n'est plus
+ * fetché et n'est rendu qu'une fois ses messages en cours acquittés.</p>
+ *
+ * <p>Inactif si {@code orderflow.delivery.mode} vaut {@code replication} ou
+ * {@code cursor} (livraison directe depuis event_log), ou si aucun handler
+ * n'est déclaré (service d'écriture).</p>
+ */
+@ApplicationScoped
+@Startup
+public class OutboxPartitionedPoller {
+
+    /** Intervalle du poll de secours (les NOTIFY assurent le temps réel) */
+    private static final int SAFETY_POLL_INTERVAL_MS = 30_000;
+    /** Marqueur : échec pas encore écrit en base */
+    private static final long NOT_FLUSHED = Long.MAX_VALUE;
+    /** Délai laissé aux lots rendus (et au lot en cours) avant interruption */
+    private static final Duration HAND_BACK_GRACE = Duration.ofSeconds(2);
+    /** Connexions du pool hors mailboxes : poll, heartbeat, claims et flushes, listener NOTIFY */
+    private static final int RESERVED_CONNECTIONS = 4;
+
+    private static final Logger LOG = Logger.getLogger(OutboxPartitionedPoller.class);
+
+    /**
+     * État d'un type d'agrégat dans l'ordonnancement (muté par le scheduler, lu par l'API admin).
+     */
+    private static final class AggregateTypeShare {
+        private final OutboxMessageHandler handler;
+        private volatile long backlogEstimate;
+        private volatile Instant backlogEstimatedAt = Instant.EPOCH;
+        private final Map<DeliveryLane, AtomicLong> claimed = new EnumMap<>(DeliveryLane.class);
+
+        private AggregateTypeShare(OutboxMessageHandler handler) {
+            this.handler = handler;
+            for (DeliveryLane deliveryLane : DeliveryLane.values()) {
+                claimed.put(deliveryLane, new AtomicLong());
+            }
+        }
+
+        private String aggregateType() {
+            return handler.aggregateType();
+        }
+
+        private void updateBacklog(long backlog) {
+            this.backlogEstimate = backlog;
+            this.backlogEstimatedAt = Instant.now();
+        }
+    }
+
+    /**
+     * Photographie d'un type d'agrégat (exposée par l'API admin).
+     */
+    public static record AggregateTypeStatus(
+            String aggregateType,
+            int weight,
+            long backlogEstimate,
+            Instant backlogEstimatedAt,
+            int inFlight,
+            Map<DeliveryLane, Long> claimed) {
+    }
+
+    /** Scheduler polling fixe (1 thread) */
+    private final ScheduledExecutorService pollScheduler = 
+        Executors.newSingleThreadScheduledExecutor();
+    /** Flushes et renouvellement des claims (1 thread, indépendant du poll) */
+    private final ScheduledExecutorService maintenanceScheduler =
+        Executors.newSingleThreadScheduledExecutor();
+    
+    /** Shutdown en cours : plus de poll */
+    private final AtomicBoolean draining = new AtomicBoolean(false);
+    /** Échéance de drainage dépassée : lots en file rendus sans traitement */
+    private volatile boolean handingBack;
+
+    /** Un seul réveil en attente à la fois (coalescence des NOTIFY) */
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean(false);
+
+    /** Ids outbox soumis aux workers et non encore acquittés en base → message */
+    private final Map<Long, OutboxMessage> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Échec d'un agrégat pas encore visible par le fetch.
+     *
+     * @param outboxId message en échec
+     * @param flushedAtPoll numéro du dernier poll démarré au moment du flush
+     */
+    private record PendingFailure(long outboxId, long flushedAtPoll) {
+    }
+
+    /**
+     * Messages d'un agrégat dont l'écriture est différée par le handler (ids mutés
+     * uniquement dans la mailbox de l'agrégat).
+     */
+    private static final class DeferredRun {
+        private final OutboxMessageHandler handler;
+        private final List<Long> ids = new ArrayList<>();
+        /** Tâche de flush déjà enfilée dans la mailbox */
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+        private DeferredRun(OutboxMessageHandler handler) {
+            this.handler = handler;
+        }
+    }
+
+    /** aggregateId → messages traités en attente du flush du handler */
+    private final Map<UUID, DeferredRun> deferred = new ConcurrentHashMap<>();
+
+    /** aggregateId → échec en attente (évincé au premier poll après son flush) */
+    private final Map<UUID, PendingFailure> pendingFailures = new ConcurrentHashMap<>();
+    /** Numéro du poll courant */
+    private final AtomicLong pollSequence = new AtomicLong();
+
+    /** Types servis, triés par nom (ordre de base de la rotation) */
+    private final List<AggregateTypeShare> shares;
+    /** aggregateType → type servi */
+    private final Map<String, AggregateTypeShare> sharesByType;
+    /** Répartition du batch entre les types (index de shares) */
+    private final DeficitRoundRobin roundRobin;
+
+    private final OutboxRepository outbox;
+    private final OutboxBatchProjector batchProjector;
+    private final AdaptiveBatchController batchController;
+    private final OutboxConsumerGroup consumerGroup;
+    private final OutboxRetryPolicy retryPolicy;
+    private final Duration claimTtl;
+    /** Part minimale du batch d'un type réservée à la file BULK */
+    private final double bulkShare;
+    /** Boîtes aux lettres ordonnées par agrégat */
+    private final AggregateMailboxes mailboxes;
+    /** Tâches de mailbox exécutées simultanément (une connexion chacune) */
+    private final int maxConcurrency;
+    /** Buffer d'acquittement partagé */
+    private final OutboxAckBuffer ackBuffer;
+    private final Duration ackFlushInterval;
+    /** Fenêtre de coalescence des écritures différées */
+    private final Duration writeBehindWindow;
+    /** Temps laissé aux lots en mailbox pour se terminer au shutdown */
+    private final Duration drainTimeout;
+    private final DeliveryMode deliveryMode;
+
+    /**
+     * Constructeur CDI.
+     *
+     * @param handlers handlers déclarés par le service (un par type d'agrégat)
+     * @throws IllegalStateException si deux handlers traitent le même type, si un poids est &lt; 1
+     *         ou si bulk-share est hors de [0, 1]
+     * @throws IllegalStateException si drain-timeout est négatif ou si write-behind-window
+     *         n'est pas positif
+     * @throws IllegalStateException si max-concurrency n'est pas positif ou ne laisse pas
+     *         les connexions réservées dans le pool (quarkus.datasource.jdbc.max-size)
+     */
+    @Inject
+    public OutboxPartitionedPoller(
+            OutboxRepository outboxRepository,
+            OutboxBatchProjector batchProjector,
+            AdaptiveBatchController batchController,
+            OutboxConsumerGroup consumerGroup,
+            Instance<OutboxMessageHandler> handlers,
+            @ConfigProperty(name = "orderflow.outbox.poller.ack-flush-size", defaultValue = "100") int ackFlushSize,
+            @ConfigProperty(name = "orderflow.outbox.poller.ack-flush-interval", defaultValue = "50ms") Duration ackFlushInterval,
+            @ConfigProperty(name = "orderflow.outbox.poller.max-attempts", defaultValue = "5") int maxAttempts,
+            @ConfigProperty(name = "orderflow.outbox.poller.retry-base-delay", defaultValue = "5s") Duration retryBaseDelay,
+            @ConfigProperty(name = "orderflow.outbox.poller.retry-max-delay", defaultValue = "5m") Duration retryMaxDelay,
+            @ConfigProperty(name = "orderflow.outbox.poller.retry-jitter", defaultValue = "0.2") double retryJitter,
+            @ConfigProperty(name = "orderflow.outbox.poller.claim-ttl", defaultValue = "60s") Duration claimTtl,
+            @ConfigProperty(name = "orderflow.outbox.poller.bulk-share", defaultValue = "0.2") double bulkShare,
+            @ConfigProperty(name = "orderflow.outbox.poller.drain-timeout", defaultValue = "10s") Duration drainTimeout,
+            @ConfigProperty(name = "orderflow.outbox.poller.write-behind-window", defaultValue = "50ms") Duration writeBehindWindow,
+            @ConfigProperty(name = "orderflow.outbox.poller.max-concurrency", defaultValue = "16") int maxConcurrency,
+            @ConfigProperty(name = "quarkus.datasource.jdbc.max-size", defaultValue = "20") int poolMaxSize,
+            @ConfigProperty(name = "orderflow.delivery.mode", defaultValue = "outbox") DeliveryMode deliveryMode) {
+        this.outbox = outboxRepository;
+        this.batchProjector = batchProjector;
+        this.batchController = batchController;
+        this.consumerGroup = consumerGroup;
+        this.shares = handlers.stream()
+                .map(AggregateTypeShare::new)
+                .sorted(Comparator.comparing(AggregateTypeShare::aggregateType))
+                .toList();
+        this.sharesByType = shares.stream().collect(Collectors.toMap(
+                AggregateTypeShare::aggregateType, Function.identity(),
+                (first, second) -> {
+                    throw new IllegalStateException("Several outbox handlers for aggregate type "
+                            + first.aggregateType());
+                }));
+        shares.forEach(share -> {
+            if (share.handler.weight() < 1) {
+                throw new IllegalStateException("Invalid outbox handler weight for "
+                        + share.aggregateType() + ": " + share.handler.weight());
+            }
+        });
+        this.roundRobin = new DeficitRoundRobin(shares.stream().map(share -> share.handler.weight()).toList());
+        this.retryPolicy = new OutboxRetryPolicy(maxAttempts, retryBaseDelay, retryMaxDelay, retryJitter);
+        this.ackFlushInterval = ackFlushInterval;
+        this.claimTtl = claimTtl;
+        if (bulkShare < 0 || bulkShare > 1) {
+            throw new IllegalStateException("Invalid outbox bulk share (expected 0..1): " + bulkShare);
+        }
+        this.bulkShare = bulkShare;
+        if (drainTimeout.isNegative()) {
+            throw new IllegalStateException("Invalid outbox drain timeout: " + drainTimeout);
+        }
+        this.drainTimeout = drainTimeout;
+        if (writeBehindWindow.isNegative() || writeBehindWindow.isZero()) {
+            throw new IllegalStateException("Invalid outbox write-behind window: " + writeBehindWindow);
+        }
+        this.writeBehindWindow = writeBehindWindow;
+        this.deliveryMode = deliveryMode;
+        if (maxConcurrency < 1 || maxConcurrency + RESERVED_CONNECTIONS > poolMaxSize) {
+            throw new IllegalStateException("Invalid outbox max-concurrency " + maxConcurrency
+                    + ": must be positive and leave " + RESERVED_CONNECTIONS
+                    + " connections of the pool (max-size " + poolMaxSize + ")");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.mailboxes = new AggregateMailboxes(batchController.maxInFlight(), maxConcurrency);
+        this.ackBuffer = new OutboxAckBuffer(outboxRepository, ackFlushSize, ackFlushInterval,
+                retryPolicy, consumerGroup.nodeId(), this::onFlushed);
+    }
+
+    /**
+     * Démarre le polling à l'initialisation Quarkus (@Startup).
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (!isEnabled()) {
+            LOG.infof("OutboxPartitionedPoller DISABLED (delivery mode=%s, handlers=%d)",
+                    deliveryMode, shares.size());
+            return;
+        }
+        // Messages épuisés restés en outbox (avant dead letters ou baisse de max-attempts)
+        for (AggregateTypeShare share : shares) {
+            try {
+                final int deadLettered = outbox.deadLetterExhausted(share.aggregateType(),
+                        retryPolicy.maxAttempts());
+                if (deadLettered > 0) {
+                    LOG.warnf("Outbox %d exhausted %s messages moved to dead letter at startup",
+                            deadLettered, share.aggregateType());
+                }
+            } catch (Exception e) {
+                LOG.warnf("Outbox dead letter sweep FAILED at startup for %s: %s",
+                        share.aggregateType(), e.getMessage());
+            }
+        }
+        // Nouveaux slots → poll immédiat
+        consumerGroup.join(this::hasInFlight, this::wakeUp);
+        pollScheduler.scheduleWithFixedDelay(this::poll, 0, SAFETY_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        maintenanceScheduler.scheduleWithFixedDelay(ackBuffer::flushIfDue,
+            ackFlushInterval.toMillis(), ackFlushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        maintenanceScheduler.scheduleWithFixedDelay(this::scheduleDeferredFlushes,
+            writeBehindWindow.toMillis(), writeBehindWindow.toMillis(), TimeUnit.MILLISECONDS);
+        maintenanceScheduler.scheduleWithFixedDelay(this::renewClaims,
+            claimTtl.toMillis() / 3, claimTtl.toMillis() / 3, TimeUnit.MILLISECONDS);
+        LOG.infof("OutboxPartitionedPoller STARTED: types=%s, mailboxes=virtual threads, max in-flight=%d, max concurrency=%d, batch=%d, safety poll=%dms",
+            shares.stream().map(share -> share.aggregateType() + "x" + share.handler.weight()).toList(),
+            batchController.maxInFlight(), maxConcurrency, batchController.nextBatchSize(0), SAFETY_POLL_INTERVAL_MS);
+    }
+
+    /**
+     * Indique si l'outbox est le mode de livraison actif et si au moins un type est servi.
+     */
+    public boolean isEnabled() {
+        return deliveryMode == DeliveryMode.OUTBOX && !shares.isEmpty();
+    }
+
+    /**
+     * Appartenance de ce nœud au consumer group (slots détenus, membres).
+     */
+    public OutboxConsumerGroup.Status consumerGroupStatus() {
+        return consumerGroup.status();
+    }
+
+    /**
+     * État courant du poller (mode, batch, backlog estimé, messages en cours).
+     */
+    public AdaptiveBatchController.Status status() {
+        return batchController.status(inFlight.size());
+    }
+
+    /**
+     * État par type d'agrégat (poids, backlog estimé, messages en cours, claims cumulés).
+     */
+    public List<AggregateTypeStatus> aggregateTypeStatus() {
+        final Map<String, Long> inFlightByType = inFlight.values().stream()
+                .collect(Collectors.groupingBy(msg -> msg.event().aggregateType(), Collectors.counting()));
+        return shares.stream()
+                .map(share -> new AggregateTypeStatus(share.aggregateType(), share.handler.weight(),
+                        share.backlogEstimate, share.backlogEstimatedAt,
+                        inFlightByType.getOrDefault(share.aggregateType(), 0L).intValue(),
+                        claimedByLane(share)))
+                .toList();
+    }
+
+    /**
+     * Demande un poll immédiat (thread-safe, non bloquant).
+     *
+     * <p>Les appels concurrents sont coalescés : tant qu'un réveil est en attente
+     * sur le scheduler, les suivants sont ignorés. Un réveil reçu pendant un poll
+     * en cours déclenche un nouveau poll juste après.</p>
+     */
+    public void wakeUp() {
+        if (draining.get() || !wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            pollScheduler.execute(() -> {
+                wakeUpPending.set(false);
+                poll();
+            });
+        } catch (RejectedExecutionException e) {
+            // Scheduler arrêté (shutdown en cours)
+            wakeUpPending.set(false);
+        }
+    }
+
+    /**
+     * Draine le poller au shutdown : fin des lots en cours dans la limite de
+     * drain-timeout, lots restants rendus, acquittements flushés, claims levés.
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        if (!isEnabled()) {
+            pollScheduler.shutdownNow();
+            maintenanceScheduler.shutdownNow();
+            return;
+        }
+        final long startedAt = System.nanoTime();
+        draining.set(true);
+        // Poll en cours terminé (scheduler mono-thread) : plus aucune soumission
+        awaitPollScheduler(drainTimeout);
+        final int inFlightAtStop = inFlight.size();
+        // Écritures différées flushées avant la fin des mailboxes (les lots suivants flushent eux-mêmes)
+        scheduleDeferredFlushes();
+        boolean drained = mailboxes.awaitDrained(remaining(startedAt));
+        if (!drained) {
+            // Échéance : lots encore en file rendus, le lot en cours peut se terminer
+            handingBack = true;
+            drained = mailboxes.awaitDrained(HAND_BACK_GRACE);
+            mailboxes.shutdownNow();
+        }
+        // Échecs et relâchés écrits avant de lever les derniers claims
+        ackBuffer.flush();
+        final List<Long> unfinished = List.copyOf(inFlight.keySet());
+        try {
+            outbox.releaseClaims(unfinished, consumerGroup.nodeId());
+        } catch (Exception e) {
+            LOG.warnf("Outbox claims release FAILED at shutdown (claims will expire): %s", e.getMessage());
+        }
+        pollScheduler.shutdownNow();
+        maintenanceScheduler.shutdownNow();
+        // Slots rendus après drainage : repris sans attendre l'expiration des baux
+        consumerGroup.leave();
+        LOG.infof("OutboxPartitionedPoller SHUTDOWN complete: drained=%s, in-flight at stop=%d, handed back=%d, took=%dms",
+                drained, inFlightAtStop, unfinished.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+    }
+
+    /**
+     * Attend la fin du poll en cours sur le scheduler de poll.
+     */
+    private void awaitPollScheduler(Duration timeout) {
+        try {
+            pollScheduler.submit(() -> { }).get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RejectedExecutionException | TimeoutException e) {
+            LOG.warnf("Outbox poll still running at shutdown: %s", e.toString());
+        }
+    }
+
+    /**
+     * Temps restant avant l'échéance de drainage.
+     */
+    private Duration remaining(long startedAt) {
+        final Duration elapsed = Duration.ofNanos(System.nanoTime() - startedAt);
+        return elapsed.compareTo(drainTimeout) >= 0 ? Duration.ZERO : drainTimeout.minus(elapsed);
+    }
+
+    /**
+     * Polling + @ActivateRequestContext (CDI), hors transaction.
+     *
+     * <p>Claim les messages ready (non-bloqués, non claimés, plus anciens d'abord)
+     * des shards détenus, dans la limite fixée par le contrôleur adaptatif partagée
+     * entre les types par poids, puis planifie le poll suivant si un backlog est en
+     * cours de rattrapage.</p>
+     *
+     * <p>Pas de transaction englobante : chaque claim, relâchement et comptage est
+     * committé par le repository avant l'appel suivant. Les claims sont donc
+     * visibles et leurs verrous FOR UPDATE rendus avant que les mailboxes ne
+     * traitent (et n'acquittent) les messages ; une erreur après un claim ne
+     * l'annule pas.</p>
+     */
+    @ActivateRequestContext
+    protected void poll() {
+        if (draining.get()) {
+            return;
+        }
+        try {
+            final Set<Integer> slots = consumerGroup.ownedSlots();
+            if (slots.isEmpty()) {
+                // Aucun bail détenu : le heartbeat réveillera le poller
+                return;
+            }
+            final long poll = pollSequence.incrementAndGet();
+            final int limit = batchController.nextBatchSize(inFlight.size());
+            if (limit > 0) {
+                List<OutboxMessage> readyMessages = claimWeighted(slots, limit, poll);
+                // Lots par agrégat (le claim renvoie les versions d'un agrégat contiguës)
+                final Map<UUID, List<OutboxMessage>> runs = new LinkedHashMap<>();
+                readyMessages.forEach(msg -> runs
+                        .computeIfAbsent(msg.event().aggregateId(), aggregate -> new ArrayList<>())
+                        .add(msg));
+                final List<Long> rejected = new ArrayList<>();
+                final int submitted = runs.entrySet().stream()
+                        .mapToInt(run -> submit(run.getKey(), run.getValue(), rejected))
+                        .sum();
+                // Non soumis : claims levés, re-claimables au prochain poll
+                outbox.releaseClaims(rejected, consumerGroup.nodeId());
+                // Échecs flushés avant ce fetch : la base exclut désormais leurs agrégats
+                pendingFailures.values().removeIf(failure -> failure.flushedAtPoll() < poll);
+                batchController.onFetch(limit, readyMessages.size(), submitted, inFlight.size());
+                if (batchController.shouldRefreshBacklog()) {
+                    long backlog = 0;
+                    for (AggregateTypeShare share : shares) {
+                        share.updateBacklog(outbox.countReadyByAggregateType(
+                                share.aggregateType(), slots, retryPolicy.maxAttempts()));
+                        backlog += share.backlogEstimate;
+                    }
+                    batchController.updateBacklogEstimate(backlog);
+                }
+            }
+            if (batchController.mode() == AdaptiveBatchController.Mode.CATCH_UP) {
+                // Backlog : re-poll sans attendre le poll de secours
+                pollScheduler.schedule(this::wakeUp, batchController.delayMs(), TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            LOG.error("Error occurred while polling outbox messages", e);
+        }
+    }
+
+    /**
+     * Claim jusqu'à {@code limit} messages répartis entre les types par deficit
+     * round robin pondéré (scheduler de poll uniquement) ; un type dont le
+     * backlog est résorbé met à jour son estimation.
+     */
+    private List<OutboxMessage> claimWeighted(Set<Integer> slots, int limit, long poll) {
+        return roundRobin.next(limit, poll,
+                (index, quota) -> claim(shares.get(index), slots, quota),
+                (index, fetched) -> shares.get(index).updateBacklog(fetched));
+    }
+
+    /**
+     * Claim les messages ready d'un type : file INTERACTIVE d'abord, part BULK bornée.
+     *
+     * <ol>
+     *   <li>INTERACTIVE claim jusqu'à limit - floor(limit x bulk-share)</li>
+     *   <li>BULK claim la marge restante (sa part réservée, ou plus si INTERACTIVE est vide)</li>
+     *   <li>Marge laissée par BULK → rendue à INTERACTIVE</li>
+     * </ol>
+     *
+     * <p>Les messages en attente d'un agrégat partagent une seule file : les claims
+     * successifs ne coupent jamais sa séquence de versions.</p>
+     */
+    private List<OutboxMessage> claim(AggregateTypeShare share, Set<Integer> slots, int limit) {
+        final int interactiveLimit = limit - (int) (limit * bulkShare);
+        final List<OutboxMessage> fetched = new ArrayList<>(
+                claimLane(share, DeliveryLane.INTERACTIVE, slots, interactiveLimit));
+        final boolean interactiveFull = fetched.size() == interactiveLimit;
+        fetched.addAll(claimLane(share, DeliveryLane.BULK, slots, limit - fetched.size()));
+        if (interactiveFull && fetched.size() < limit) {
+            fetched.addAll(claimLane(share, DeliveryLane.INTERACTIVE, slots, limit - fetched.size()));
+        }
+        return fetched;
+    }
+
+    /**
+     * Claim les messages ready d'une file d'un type.
+     */
+    private List<OutboxMessage> claimLane(AggregateTypeShare share, DeliveryLane deliveryLane,
+            Set<Integer> slots, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        final List<OutboxMessage> fetched = outbox.claimReadyMessagesByAggregateTypeOrderByAggregateVersion(
+                share.aggregateType(), deliveryLane, slots, consumerGroup.nodeId(), claimTtl, limit,
+                retryPolicy.maxAttempts());
+        share.claimed.get(deliveryLane).addAndGet(fetched.size());
+        return fetched;
+    }
+
+    /**
+     * Claims cumulés d'un type, par file.
+     */
+    private static Map<DeliveryLane, Long> claimedByLane(AggregateTypeShare share) {
+        final Map<DeliveryLane, Long> claimed = new EnumMap<>(DeliveryLane.class);
+        share.claimed.forEach((deliveryLane, count) -> claimed.put(deliveryLane, count.get()));
+        return claimed;
+    }
+
+    /**
+     * Indique si un shard a encore des messages soumis et non acquittés.
+     */
+    private boolean hasInFlight(int slot) {
+        return inFlight.values().stream()
+                .anyMatch(msg -> OutboxRepository.shardOf(msg.event().aggregateId()) == slot);
+    }
+
+    /**
+     * Prolonge les claims des messages en cours (file de mailbox longue, projection lente).
+     */
+    private void renewClaims() {
+        try {
+            outbox.renewClaims(List.copyOf(inFlight.keySet()), consumerGroup.nodeId(), claimTtl);
+        } catch (Exception e) {
+            LOG.warnf("Outbox claims renewal FAILED for %d messages: %s", inFlight.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Enfile le flush des écritures différées dans la mailbox de chaque agrégat
+     * concerné (scheduler de maintenance uniquement, sauf au shutdown).
+     */
+    private void scheduleDeferredFlushes() {
+        deferred.forEach((aggregateId, run) -> {
+            if (run.flushScheduled.compareAndSet(false, true)
+                    && !mailboxes.trySubmit(aggregateId, 0, () -> flushDeferred(aggregateId))) {
+                run.flushScheduled.set(false);
+            }
+        });
+    }
+
+    /**
+     * Flush des écritures différées d'un agrégat (dans sa mailbox) : état du
+     * handler écrit et messages acquittés en une transaction, relâchés si elle
+     * échoue.
+     */
+    private void flushDeferred(UUID aggregateId) {
+        final DeferredRun run = deferred.remove(aggregateId);
+        if (run == null || handingBack) {
+            // Shutdown : messages toujours en cours, claims levés à la fin du drainage
+            return;
+        }
+        try {
+            batchProjector.flushDeferred(run.handler, aggregateId, run.ids);
+            run.ids.forEach(this::onFlushed);
+        } catch (Exception e) {
+            LOG.warnf("Outbox deferred write FAILED (rolled back), releasing: aggregateId=%s, messages=%d: %s",
+                    aggregateId, run.ids.size(), e.getMessage());
+            run.handler.discardDeferred(aggregateId);
+            run.ids.forEach(ackBuffer::release);
+        }
+    }
+
+    /**
+     * Résultat écrit en base : message retiré des messages en cours, échec
+     * marqué comme flushé (évincé au prochain poll).
+     */
+    private void onFlushed(Long id) {
+        final OutboxMessage msg = inFlight.remove(id);
+        if (msg != null) {
+            pendingFailures.computeIfPresent(msg.event().aggregateId(), (aggregate, failure) -> failure.outboxId() == id
+                    ? new PendingFailure(id, pollSequence.get())
+                    : failure);
+        }
+    }
+
+    /**
+     * Enregistre l'échec (avant le buffer, qui peut flusher immédiatement).
+     */
+    private void fail(OutboxMessage msg, String error) {
+        pendingFailures.put(msg.event().aggregateId(), new PendingFailure(msg.id(), NOT_FLUSHED));
+        ackBuffer.fail(msg.id(), error);
+    }
+
+    /**
+     * Soumet le lot d'un agrégat à sa mailbox, en une tâche (sauf échec en attente
+     * de flush, messages déjà en cours ou borne globale atteinte).
+     *
+     * @param rejected reçoit les ids non soumis dont le claim doit être levé
+     * @return nombre de messages soumis
+     */
+    private int submit(UUID aggregateId, List<OutboxMessage> run, List<Long> rejected) {
+        if (pendingFailures.containsKey(aggregateId)) {
+            // Échec précédent pas encore visible en base : ordre préservé
+            run.forEach(msg -> rejected.add(msg.id()));
+            return 0;
+        }
+        if (!consumerGroup.ownedSlots().contains(OutboxRepository.shardOf(aggregateId))) {
+            // Shard en libération depuis le fetch : laissé au prochain détenteur
+            run.forEach(msg -> rejected.add(msg.id()));
+            return 0;
+        }
+        // Claim expiré puis repris : toujours en cours localement, ignoré
+        final List<OutboxMessage> accepted = run.stream()
+                .filter(msg -> inFlight.putIfAbsent(msg.id(), msg) == null)
+                .toList();
+        if (accepted.isEmpty()) {
+            return 0;
+        }
+        if (!mailboxes.trySubmit(aggregateId, accepted.size(), () -> process(accepted))) {
+            // Saturé : re-proposé au prochain poll
+            accepted.forEach(msg -> {
+                inFlight.remove(msg.id());
+                rejected.add(msg.id());
+            });
+            return 0;
+        }
+        return accepted.size();
+    }
+
+    /**
+     * Traitement asynchrone du lot d'un agrégat (dans sa mailbox).
+     *
+     * <ol>
+     *   <li>Échéance de drainage dépassée → lot rendu sans traitement</li>
+     *   <li>Agrégat bloqué entre-temps (échec d'un message précédent) → lot relâché</li>
+     *   <li>Messages jusqu'au premier non supporté par le handler du type → projetés comme suit</li>
+     *   <li>Premier message non supporté → en échec UnsupportedEventVersion (retry en backoff puis
+     *       dead letter, agrégat suspendu) si tout ce qui le précède a réussi, messages suivants relâchés</li>
+     *   <li>Messages supportés → handler + acquittement des succès en 1 transaction ; écritures
+     *       différées par le handler → acquittées au prochain flush de l'agrégat</li>
+     *   <li>Échec rendu par le handler → bufferisé (retry en backoff, agrégat suspendu),
+     *       messages suivants relâchés</li>
+     *   <li>Exception → transaction annulée, message fautif en échec (premier du lot
+     *       si le commit lui-même échoue), autres relâchés ; lot replié par le handler →
+     *       re-traité message par message pour isoler le fautif</li>
+     * </ol>
+     */
+    private void process(List<OutboxMessage> run) {
+        final UUID aggregateId = run.getFirst().event().aggregateId();
+        if (handingBack) {
+            // Shutdown : repris par le prochain détenteur du shard
+            run.forEach(msg -> ackBuffer.release(msg.id()));
+            return;
+        }
+        if (pendingFailures.containsKey(aggregateId)) {
+            // Préserve l'ordre : pas de projection après un échec sur l'agrégat
+            run.forEach(msg -> ackBuffer.release(msg.id()));
+            return;
+        }
+        final OutboxMessageHandler handler = sharesByType.get(run.getFirst().event().aggregateType()).handler;
+        int supportedCount = 0;
+        while (supportedCount < run.size() && handler.supports(run.get(supportedCount))) {
+            supportedCount++;
+        }
+        if (supportedCount > 0) {
+            project(handler, aggregateId, run.subList(0, supportedCount));
+        }
+        if (supportedCount == run.size()) {
+            return;
+        }
+        final List<OutboxMessage> blocked = run.subList(supportedCount, run.size());
+        if (pendingFailures.containsKey(aggregateId)) {
+            // Échec dans ce qui précède : ordre préservé
+            blocked.forEach(msg -> ackBuffer.release(msg.id()));
+            return;
+        }
+        // Version non supportée : agrégat bloqué derrière ce message, qui suit le cycle des échecs
+        final OutboxMessage unsupported = blocked.getFirst();
+        final String error = "UnsupportedEventVersion: " + unsupported.event().eventType()
+                + " v" + unsupported.event().eventVersion();
+        LOG.warnf("Outbox message NOT SUPPORTED: outbox=%d, aggregateId=%s: %s",
+                unsupported.id(), aggregateId, error);
+        fail(unsupported, error);
+        blocked.subList(1, blocked.size()).forEach(msg -> ackBuffer.release(msg.id()));
+    }
+
+    /**
+     * Projette les messages supportés d'un lot (voir {@link #process}) ; un échec
+     * est enregistré dans pendingFailures.
+     */
+    private void project(OutboxMessageHandler handler, UUID aggregateId, List<OutboxMessage> supported) {
+        OutboxMessage failed;
+        String error;
+        try {
+            final BatchOutcome outcome = batchProjector.projectAndAcknowledge(handler, supported);
+            // Acquittés dans la transaction du lot : plus en cours
+            outcome.acknowledged().forEach(this::onFlushed);
+            if (!outcome.deferred().isEmpty()) {
+                deferred.computeIfAbsent(aggregateId, id -> new DeferredRun(handler)).ids.addAll(outcome.deferred());
+                if (draining.get()) {
+                    flushDeferred(aggregateId);
+                }
+            }
+            if (outcome.failed() != null) {
+                fail(outcome.failed(), outcome.error());
+            }
+            outcome.skipped().forEach(ackBuffer::release);
+            return;
+        } catch (BatchProjectionException e) {
+            if (e.failed() == null) {
+                // Message fautif inconnu : lot re-traité message par message pour l'isoler
+                LOG.warnf("Outbox batch projection FAILED (rolled back), isolating: aggregateId=%s, batch=%d: %s",
+                        aggregateId, supported.size(), e.getMessage());
+                supported.forEach(msg -> process(List.of(msg)));
+                return;
+            }
+            failed = e.failed();
+            error = e.getCause().getClass().getSimpleName() + ": " + e.getMessage();
+        } catch (Exception e) {
+            failed = supported.getFirst();
+            error = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+        LOG.errorf("Outbox batch projection FAILED (rolled back): outbox=%d, aggregateId=%s, batch=%d: %s",
+                failed.id(), aggregateId, supported.size(), error);
+        fail(failed, error);
+        for (OutboxMessage msg : supported) {
+            if (msg.id() != failed.id()) {
+                ackBuffer.release(msg.id());
+            }
+        }
+    }
+}
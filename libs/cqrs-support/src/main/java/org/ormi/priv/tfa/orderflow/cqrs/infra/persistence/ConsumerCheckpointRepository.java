@@ -0,0 +1,48 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.OptionalLong;
+
+/**
+ * Repository interface des checkpoints de consommateurs de l'event log.
+ *
+ * <p>Chaque consommateur (projecteur, read model...) lit eventing.event_log dans
+ * l'ordre des ids depuis son propre checkpoint : aucune écriture par événement
+ * et par consommateur, une seule mise à jour par lot traité.</p>
+ *
+ * <h3>Table eventing.consumer_checkpoint</h3>
+ * <table>
+ *   <tr><th>Colonne</th><th>Rôle</th></tr>
+ *   <tr><td>consumer_name</td><td>Identifiant du consommateur</td></tr>
+ *   <tr><td>last_event_id</td><td>Dernier event_log.id traité</td></tr>
+ *   <tr><td>owner / lease_until</td><td>Bail du nœud actif (un seul lecteur par consommateur)</td></tr>
+ * </table>
+ */
+public interface ConsumerCheckpointRepository {
+
+    /**
+     * Prend (ou prolonge) le bail du consommateur, créé au besoin à 0.
+     *
+     * @return position du checkpoint, vide si un autre nœud détient le bail
+     */
+    OptionalLong acquire(String consumerName, String owner, Duration ttl);
+
+    /**
+     * Crée le checkpoint s'il n'existe pas, à la position du plus avancé des
+     * consommateurs donnés (0 si aucun n'existe).
+     */
+    void initialize(String consumerName, Collection<String> from);
+
+    /**
+     * Avance le checkpoint et prolonge le bail.
+     *
+     * @return false si le bail a été perdu (repris par un autre nœud)
+     */
+    boolean advance(String consumerName, String owner, long lastEventId, Duration ttl);
+
+    /**
+     * Rend le bail (arrêt propre : reprise immédiate par un autre nœud).
+     */
+    void release(String consumerName, String owner);
+}
@@ -0,0 +1,33 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Message outbox ayant épuisé ses tentatives (ligne eventing.outbox_dead_letter).
+ *
+ * @param id identifiant outbox d'origine
+ * @param eventId événement source (event_log)
+ * @param aggregateType type agrégat
+ * @param aggregateId identifiant agrégat
+ * @param aggregateVersion version agrégat de l'événement
+ * @param attempts tentatives effectuées
+ * @param lastError dernière erreur
+ * @param errorClass classe d'erreur (préfixe de lastError avant ':')
+ * @param errorHistory historique [{attempt, error, failedAt}]
+ * @param deadLetteredAt date de mise en dead letter
+ */
+public record DeadLetter(
+        Long id,
+        Long eventId,
+        String aggregateType,
+        UUID aggregateId,
+        Long aggregateVersion,
+        int attempts,
+        String lastError,
+        String errorClass,
+        JsonNode errorHistory,
+        Instant deadLetteredAt) {
+}
@@ -0,0 +1,60 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Repository interface des dead letters outbox (eventing.outbox_dead_letter).
+ *
+ * <p>Les messages y sont déplacés par {@link OutboxRepository#markAllFailed} une
+ * fois leurs tentatives épuisées. Ils n'y sont plus jamais relus par les pollers :
+ * seul un replay explicite les remet en outbox.</p>
+ *
+ * <p>Un agrégat ayant une dead letter est bloqué : ses messages suivants restent
+ * en outbox sans être claimés. Sinon ses versions suivantes seraient projetées
+ * et le replay de la version en dead letter serait ignoré comme une re-livraison
+ * (version déjà dépassée par la vue).</p>
+ *
+ * <h3>Replay</h3>
+ * <pre>
+ * replay(filter, limit) → DELETE dead_letter ... RETURNING
+ *                         + DELETE outbox (messages en attente des agrégats rejoués)
+ *                         + INSERT outbox (attempts = 0, historique conservé)
+ * </pre>
+ * <p>Ordonné par (agrégat, version) : les événements d'un agrégat sont remis en
+ * outbox dans l'ordre causal, devant ses messages en attente (ré-insérés avec
+ * leurs tentatives). L'agrégat est débloqué une fois sa dernière dead letter
+ * rejouée.</p>
+ */
+public interface DeadLetterRepository {
+
+    /**
+     * Critères de sélection des dead letters (null = pas de filtre).
+     *
+     * @param aggregateType type agrégat (obligatoire)
+     * @param aggregateId agrégat ciblé
+     * @param errorClass classe d'erreur ciblée
+     */
+    record Filter(String aggregateType, UUID aggregateId, String errorClass) {
+    }
+
+    /**
+     * Liste paginée par id (keyset), plus anciens d'abord.
+     *
+     * @param afterId dernier id de la page précédente (null = début)
+     */
+    List<DeadLetter> find(Filter filter, Long afterId, int limit);
+
+    /**
+     * Nombre de dead letters par classe d'erreur, pour un type d'agrégat.
+     */
+    Map<String, Long> countByErrorClass(String aggregateType);
+
+    /**
+     * Remet en outbox jusqu'à {@code limit} dead letters correspondant au filtre.
+     *
+     * @return nombre de dead letters remises en outbox (0 = plus rien à rejouer)
+     */
+    int replay(Filter filter, int limit);
+}
@@ -0,0 +1,49 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+/**
+ * File de livraison d'un message outbox (colonne {@code eventing.outbox.lane}).
+ *
+ * <p>Portée par la commande jusqu'à la ligne outbox : le poller draine
+ * INTERACTIVE d'abord et borne la part du batch laissée à BULK quand les deux
+ * ont du backlog. Plus la priorité est petite, plus la file est prioritaire.</p>
+ *
+ * <h3>Héritage par agrégat</h3>
+ * <p>Tous les messages non acquittés d'un agrégat partagent la même file
+ * (la plus prioritaire) : une édition interactive promeut les messages bulk
+ * plus anciens de son agrégat, un message bulk publié derrière une édition en
+ * attente rejoint la file interactive. Un claim par file ne coupe donc jamais
+ * la séquence de versions d'un agrégat.</p>
+ */
+public enum DeliveryLane {
+    /** Éditions utilisateur (budget de latence) */
+    INTERACTIVE((short) 0),
+    /** Imports en masse (débit, part bornée quand INTERACTIVE a du backlog) */
+    BULK((short) 1);
+
+    private final short priority;
+
+    DeliveryLane(short priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Valeur stockée en base (0 = plus prioritaire).
+     */
+    public short priority() {
+        return priority;
+    }
+
+    /**
+     * File correspondant à une valeur stockée.
+     *
+     * @throws IllegalArgumentException si la valeur est inconnue
+     */
+    public static DeliveryLane ofPriority(short priority) {
+        for (DeliveryLane lane : values()) {
+            if (lane.priority == priority) {
+                return lane;
+            }
+        }
+        throw new IllegalArgumentException("Unknown delivery lane priority: " + priority);
+    }
+}
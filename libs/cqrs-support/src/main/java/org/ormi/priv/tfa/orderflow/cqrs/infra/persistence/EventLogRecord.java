@@ -0,0 +1,50 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.EventLogEntity;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Vue lecture seule d'une ligne eventing.event_log (hors contexte de persistance).
+ *
+ * <p>Équivalent immuable de {@link EventLogEntity} : aucune entité managée,
+ * pas de dirty checking ni de chargement différé. Produit directement par les
+ * requêtes natives du chemin chaud (fetch outbox).</p>
+ *
+ * @param id identifiant event_log
+ * @param aggregateType type agrégat (Product...)
+ * @param aggregateId identifiant agrégat
+ * @param aggregateVersion version agrégat après l'événement
+ * @param eventType type événement (ProductRegistered...)
+ * @param eventVersion version du schéma d'événement
+ * @param occurredAt timestamp UTC
+ * @param payload payload JSONB désérialisé
+ */
+public record EventLogRecord(
+        Long id,
+        String aggregateType,
+        UUID aggregateId,
+        Long aggregateVersion,
+        String eventType,
+        int eventVersion,
+        Instant occurredAt,
+        JsonNode payload) {
+
+    /**
+     * Copie d'une entité (chemins encore basés sur JPA).
+     */
+    public static EventLogRecord from(EventLogEntity entity) {
+        return new EventLogRecord(
+                entity.getId(),
+                entity.getAggregateType(),
+                entity.getAggregateId(),
+                entity.getAggregateVersion(),
+                entity.getEventType(),
+                entity.getEventVersion(),
+                entity.getOccurredAt(),
+                entity.getPayload());
+    }
+}
@@ -1,5 +1,8 @@
 package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
 
+import java.time.Duration;
+import java.util.List;
+
 import org.ormi.priv.tfa.orderflow.cqrs.EventEnvelope;
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.EventLogEntity;
 
@@ -31,4 +34,25 @@ public interface EventLogRepository {
      * @return entité persistée (avec ID généré)
      */
     EventLogEntity append(EventEnvelope<?> eventLog);
+
+    /**
+     * Lecture par curseur : événements d'id strictement supérieur, dans l'ordre des ids.
+     *
+     * <p>Les ids sont attribués à l'INSERT, pas au commit : un id absent peut
+     * appartenir à une transaction encore en cours (ou annulée).</p>
+     *
+     * @param afterId position du curseur (exclue)
+     * @param limit nombre max d'événements
+     */
+    List<EventLogRecord> findAfter(long afterId, int limit);
+
+    /**
+     * Indique si une transaction en écriture ouverte depuis plus de {@code age}
+     * est encore en cours (elle peut détenir un id manquant du log).
+     *
+     * <p>Seules comptent les transactions de la base courante détenant un verrou
+     * d'écriture sur event_log. Âge évalué par l'horloge de la base (pas de
+     * décalage applicatif).</p>
+     */
+    boolean hasWritesInProgressOlderThan(Duration age);
 }
@@ -0,0 +1,66 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository interface des consumer groups outbox (membres + baux de shards).
+ *
+ * <p>Les nœuds d'un même groupe se partagent les {@link OutboxRepository#SHARD_COUNT}
+ * shards de l'outbox : chaque shard est loué à un seul nœud à la fois, pour une
+ * durée limitée renouvelée par heartbeat.</p>
+ *
+ * <h3>Tables</h3>
+ * <table>
+ *   <tr><th>Table</th><th>Rôle</th></tr>
+ *   <tr><td>eventing.outbox_consumer</td><td>Membres vivants (heartbeat_at)</td></tr>
+ *   <tr><td>eventing.outbox_lease</td><td>1 ligne par (groupe, slot) : owner + lease_until</td></tr>
+ * </table>
+ *
+ * <h3>Cycle heartbeat</h3>
+ * <pre>
+ * 1. heartbeat()     → UPSERT membre
+ * 2. liveMembers()   → purge des membres expirés, liste triée
+ * 3. renew()         → prolonge les baux encore détenus
+ * 4. release()/acquire() → rééquilibrage vers la part équitable
+ * </pre>
+ */
+public interface OutboxLeaseRepository {
+
+    /**
+     * Enregistre (ou rafraîchit) le membre et crée les slots du groupe si besoin.
+     */
+    void heartbeat(String consumerGroup, String nodeId);
+
+    /**
+     * Supprime les membres sans heartbeat depuis {@code ttl} et retourne les
+     * membres vivants triés par node_id (rang stable pour le partage).
+     */
+    List<String> liveMembers(String consumerGroup, Duration ttl);
+
+    /**
+     * Prolonge les baux détenus par le nœud.
+     *
+     * @return slots effectivement détenus (un bail expiré repris ailleurs est perdu)
+     */
+    Set<Integer> renew(String consumerGroup, String nodeId, Duration ttl);
+
+    /**
+     * Prend jusqu'à {@code count} slots libres ou expirés.
+     *
+     * @return slots acquis
+     */
+    Set<Integer> acquire(String consumerGroup, String nodeId, int count, Duration ttl);
+
+    /**
+     * Libère des slots détenus (après drainage des messages en cours).
+     */
+    void release(String consumerGroup, String nodeId, Collection<Integer> slots);
+
+    /**
+     * Quitte le groupe : libère tous les slots et supprime le membre.
+     */
+    void leave(String consumerGroup, String nodeId);
+}
@@ -0,0 +1,20 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+/**
+ * Message outbox prêt à traiter, avec son événement source (lecture seule).
+ *
+ * <p>Résultat de {@link OutboxRepository#claimReadyMessagesByAggregateTypeOrderByAggregateVersion} :
+ * ligne outbox (claimée par le poller) + event_log chargées en un seul aller-retour,
+ * sans entité managée.
+ * L'acquittement passe par les ids ({@link OutboxRepository#acknowledgeAll},
+ * {@link OutboxRepository#markAllFailed}).</p>
+ *
+ * @param id identifiant outbox
+ * @param attempts tentatives déjà effectuées
+ * @param event événement source
+ */
+public record OutboxMessage(
+        Long id,
+        int attempts,
+        EventLogRecord event) {
+}
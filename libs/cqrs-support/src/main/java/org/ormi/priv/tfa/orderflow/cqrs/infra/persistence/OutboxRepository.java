@@ -1,6 +1,10 @@
 package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.OutboxEntity;
 
@@ -10,34 +14,127 @@ import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.OutboxEntity;
  * <p>Contrat pour le polling + traitement idempotent des messages outbox :
  * <ul>
  *   <li>publish() : insert tx avec business logic</li>
- *   <li>fetchReady() : poll ordonné par aggregate version</li>
+ *   <li>fetchReady() : poll par âge (plus ancien d'abord), versions ordonnées par agrégat</li>
  *   <li>delete/markFailed() : lifecycle traitement</li>
  * </ul></p>
  *
  * <h3>Flux Outbox Poller</h3>
  * <pre>
- * 1. publish(event)           → INSERT (tx business)
- * 2. fetchReady(type, limit)  → SELECT ready ORDER BY version
- * 3. process() → success? delete() : markFailed()
+ * 1. publish(event)                 → INSERT (tx business), file héritée par agrégat
+ * 2. claimReady(type, lane, limit)  → UPDATE claimed_by/claimed_until ... RETURNING
+ * 3. process() → success? delete() (acked_at) : markFailed()
+ *    (ou en lot : acknowledgeAll() / markAllFailed())
+ *    (ou relâché sans traitement : releaseClaims())
+ * 4. attempts épuisés → eventing.outbox_dead_letter ({@link DeadLetterRepository}),
+ *    agrégat bloqué jusqu'au replay
+ * 5. partition du jour passé entièrement acquittée → dropConsumedPartitions()
  * </pre>
+ *
+ * <h3>Partitionnement</h3>
+ * <p>eventing.outbox est partitionnée par jour sur created_at. Un acquittement
+ * renseigne acked_at au lieu de supprimer la ligne. Il laisse autant de tuples
+ * morts qu'un DELETE (comme le claim, sa prolongation et l'échec : un tuple
+ * mort par UPDATE), et acked_at figurant dans les prédicats des index partiels,
+ * ces UPDATE ne sont pas HOT et ajoutent une entrée à chaque index. Le gain est
+ * ailleurs : la place d'une journée est rendue en bloc par suppression de sa
+ * partition une fois consommée, au lieu d'attendre l'autovacuum.</p>
+ *
+ * <p>Les opérations par id (acquittement, échec, claims) ne portent pas
+ * created_at, seconde colonne de la clé primaire (id, created_at) : aucun
+ * élagage de partition, chaque id sonde l'index de clé primaire de toutes les
+ * partitions (jours à venir, jours passés non consommés, DEFAULT). Coût borné
+ * tant que les partitions consommées sont supprimées, les partitions à venir
+ * étant vides.</p>
+ *
+ * <h3>Notifications</h3>
+ * <p>Chaque INSERT dans eventing.outbox émet un {@code NOTIFY} sur
+ * {@link #READY_CHANNEL} (trigger Liquibase platform-004), délivré au commit
+ * de la transaction métier. Les pollers peuvent s'y abonner ({@code LISTEN})
+ * pour se réveiller immédiatement au lieu d'attendre le prochain intervalle.</p>
  */
 public interface OutboxRepository {
+
+    /** Canal Postgres LISTEN/NOTIFY signalant de nouveaux messages outbox */
+    String READY_CHANNEL = "eventing_outbox_ready";
+
+    /** Nombre de shards (slots louables par les nœuds d'un consumer group) */
+    int SHARD_COUNT = 64;
+
+    /**
+     * Shard d'un agrégat : floorMod(aggregateId.hashCode(), SHARD_COUNT).
+     *
+     * <p>Calcul identique au backfill SQL de platform-006 : tous les messages
+     * d'un agrégat tombent dans le même shard (ordre préservé).</p>
+     */
+    static int shardOf(UUID aggregateId) {
+        return Math.floorMod(aggregateId.hashCode(), SHARD_COUNT);
+    }
     
     /**
      * Publish outbox (transactionnel avec business tx).
+     *
+     * <p>Sans effet si {@code orderflow.outbox.publish-enabled=false} (lecteurs
+     * en mode curseur ou réplication sur event_log).</p>
      */
     void publish(OutboxEntity entity);
 
     /**
      * Poll messages prêts (nextAttemptAt <= now() && attempts < maxRetries).
      *
-     * <p>Ordonné par aggregate_version → respect causalité événements.</p>
+     * <p>Sélection par âge (id croissant) : aucun agrégat n'est affamé par
+     * l'ordre des UUID. Les versions d'un même agrégat sont insérées dans
+     * l'ordre, l'ordre par id respecte donc la causalité.</p>
      */
     List<OutboxEntity> fetchReadyByAggregateTypeOrderByAggregateVersion(
             String aggregateType, int limit, int maxRetries);
 
     /**
-     * Delete après succès (idempotent).
+     * Claim des messages prêts avec leur événement source, en un seul aller-retour.
+     *
+     * <p>Mêmes critères et même ordre que
+     * {@link #fetchReadyByAggregateTypeOrderByAggregateVersion}, restreints aux
+     * shards possédés par le nœud et aux messages non claimés (ou dont le claim a
+     * expiré). Le lot est trié par agrégat (du plus ancien message au plus récent)
+     * puis par version. Les messages retournés sont claimés ({@code claimed_by},
+     * {@code claimed_until}) dans une transaction propre, committée au retour :
+     * aucun poll suivant ne les re-fetch tant que le claim court.</p>
+     *
+     * <p>Retourne des records lecture seule (pas d'entité managée, pas de SELECT
+     * event_log par ligne).</p>
+     *
+     * <p>Restreint à une file de livraison : les messages en attente d'un agrégat
+     * partageant tous la même file ({@link DeliveryLane}), un claim par file ne
+     * saute jamais une version.</p>
+     *
+     * @param lane file à claimer
+     * @param claimedBy identifiant du nœud (node_id)
+     * @param claimTtl durée du claim (prolongeable par {@link #renewClaims})
+     */
+    List<OutboxMessage> claimReadyMessagesByAggregateTypeOrderByAggregateVersion(
+            String aggregateType, DeliveryLane lane, Collection<Integer> shards, String claimedBy,
+            Duration claimTtl, int limit, int maxRetries);
+
+    /**
+     * Prolonge les claims de messages encore en cours de traitement.
+     *
+     * @return nombre de claims prolongés (ceux d'un autre nœud sont ignorés)
+     */
+    int renewClaims(Collection<Long> ids, String claimedBy, Duration claimTtl);
+
+    /**
+     * Relâche des messages claimés sans les traiter (re-claimables immédiatement).
+     */
+    void releaseClaims(Collection<Long> ids, String claimedBy);
+
+    /**
+     * Compte les messages prêts et non claimés (mêmes critères que le claim, sans verrou).
+     *
+     * <p>Estimation du backlog pour la supervision du poller.</p>
+     */
+    long countReadyByAggregateType(String aggregateType, Collection<Integer> shards, int maxRetries);
+
+    /**
+     * Acquittement après succès (idempotent, alias historique d'acknowledgeAll).
      */
     void delete(OutboxEntity entity);
 
@@ -50,4 +147,55 @@ public interface OutboxRepository {
      * Mark failed avec délai custom (UPDATE attempts++ + nextAttemptAt).
      */
     void markFailed(OutboxEntity entity, String err, int retryAfter);
+
+    /**
+     * Acquitte un lot de messages en une seule requête (UPDATE acked_at ... WHERE id = ANY).
+     *
+     * <p>Les ids déjà acquittés sont ignorés (idempotent).</p>
+     */
+    void acknowledgeAll(Collection<Long> ids);
+
+    /**
+     * Mark failed en lot (UPDATE attempts++ + lastError par id + nextAttemptAt en backoff).
+     *
+     * <p>next_attempt_at est calculé en SQL par message, d'après ses attempts et la
+     * {@link OutboxRetryPolicy} (backoff exponentiel + jitter). Chaque erreur est
+     * ajoutée à error_history et le claim est levé. Dans la même transaction, les messages ayant atteint
+     * {@link OutboxRetryPolicy#maxAttempts()} sont déplacés en dead letter :
+     * l'outbox ne garde que les messages pouvant encore progresser.</p>
+     *
+     * <p>Convention : {@code "<classe>: <détail>"}, la classe (avant ':') sert au
+     * regroupement et au replay des dead letters.</p>
+     *
+     * @param errorsById erreur à enregistrer, par id outbox
+     * @param retryPolicy backoff et nombre max de tentatives
+     * @return nombre de messages déplacés en dead letter
+     */
+    int markAllFailed(Map<Long, String> errorsById, OutboxRetryPolicy retryPolicy);
+
+    /**
+     * Déplace en dead letter tous les messages épuisés d'un type d'agrégat.
+     *
+     * <p>Rattrapage au démarrage (messages épuisés avant l'existence des dead letters
+     * ou après une baisse de maxAttempts).</p>
+     *
+     * @return nombre de messages déplacés
+     */
+    int deadLetterExhausted(String aggregateType, int maxAttempts);
+
+    /**
+     * Crée les partitions journalières d'aujourd'hui à aujourd'hui + {@code daysAhead},
+     * et celles des jours dont des messages sont dans la partition DEFAULT (déplacés).
+     *
+     * @return nombre de partitions créées (0 si déjà présentes ou maintenance en cours ailleurs)
+     */
+    int ensurePartitions(int daysAhead);
+
+    /**
+     * Supprime les partitions des jours passés dont tous les messages sont acquittés
+     * et purge les messages acquittés de la partition DEFAULT.
+     *
+     * @return nombre de partitions supprimées
+     */
+    int dropConsumedPartitions();
 }
@@ -0,0 +1,39 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.persistence;
+
+import java.time.Duration;
+
+/**
+ * Politique de retry des messages outbox en échec (backoff exponentiel + jitter).
+ *
+ * <p>Le délai est calculé en SQL au moment du marquage de l'échec, à partir de la
+ * colonne attempts, et stocké dans next_attempt_at : aucun état en mémoire, les
+ * agrégats en attente de retry sont exclus du fetch par la base.</p>
+ *
+ * <h3>Délai après la tentative n (n = attempts avant incrément)</h3>
+ * <pre>
+ * min(maxDelay, baseDelay * 2^n) * (1 - jitter * random())
+ * </pre>
+ *
+ * @param maxAttempts tentatives avant mise en dead letter
+ * @param baseDelay délai après le premier échec
+ * @param maxDelay plafond du délai
+ * @param jitter part aléatoire retranchée du délai (0 = aucune, 1 = full jitter)
+ */
+public record OutboxRetryPolicy(
+        int maxAttempts,
+        Duration baseDelay,
+        Duration maxDelay,
+        double jitter) {
+
+    public OutboxRetryPolicy {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be >= 1: " + maxAttempts);
+        }
+        if (baseDelay.isNegative() || maxDelay.compareTo(baseDelay) < 0) {
+            throw new IllegalArgumentException("Invalid retry delays: base=" + baseDelay + ", max=" + maxDelay);
+        }
+        if (jitter < 0 || jitter > 1) {
+            throw new IllegalArgumentException("jitter must be between 0 and 1: " + jitter);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.projection;
+
+import java.util.List;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+
+/**
+ * Projection d'un read model alimentée par {@link ProjectionRuntime} (SPI).
+ *
+ * <p>Un bean CDI par read model : il associe un {@code Projector} à son stockage
+ * (chargement de l'état, repli des événements, écriture). Le runtime les découvre
+ * au démarrage, lit l'event log une seule fois pour tous et donne à chacun son
+ * thread, son checkpoint et sa file : ajouter un read model ne coûte pas de
+ * lecture supplémentaire et ne ralentit pas les autres.</p>
+ *
+ * <h3>Contrat</h3>
+ * <ul>
+ *   <li>{@link #name()} : identifiant du checkpoint (stable d'un déploiement à l'autre)</li>
+ *   <li>{@link #supports} : filtre d'intérêt, évalué sur le thread de lecture
+ *       (doit être rapide et sans I/O)</li>
+ *   <li>{@link #project} : lot dans l'ordre des ids, jamais vide, dans sa propre
+ *       transaction ; au moins une fois (idempotent, versions déjà projetées ignorées)</li>
+ *   <li>Exception → lot re-livré après un délai, les autres projections continuent</li>
+ * </ul>
+ */
+public interface ProjectionHandler {
+
+    /**
+     * Nom du consommateur (checkpoint et bail dans eventing.consumer_checkpoint).
+     */
+    String name();
+
+    /**
+     * Indique si l'événement intéresse la projection (type d'agrégat, version...).
+     */
+    boolean supports(EventLogRecord event);
+
+    /**
+     * Projette un lot d'événements supportés, dans l'ordre des ids.
+     *
+     * @param events événements dans l'ordre des ids (jamais vide)
+     */
+    void project(List<EventLogRecord> events) throws Exception;
+}
@@ -0,0 +1,471 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.projection;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.DeliveryMode;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.cursor.EventLogCursors;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.OutboxConsumerGroup;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.ConsumerCheckpointRepository;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRepository;
+
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.Startup;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+/**
+ * Runtime multi-projections sur eventing.event_log (mode cursor).
+ *
+ * <p>Découvre les beans {@link ProjectionHandler} et les alimente depuis une
+ * seule lecture du log : un curseur partagé ({@link EventLogCursors}, détection
+ * des trous et bail compris) lit chaque lot une fois et le distribue à toutes
+ * les projections. Chacune a sa lane : thread dédié, checkpoint et bail propres,
+ * file bornée. Un second read model ne coûte donc ni lecture supplémentaire ni
+ * temps sur le chemin des autres.</p>
+ *
+ * <h3>Lane d'une projection</h3>
+ * <table>
+ *   <tr><th>État</th><th>Source</th><th>Passage</th></tr>
+ *   <tr><td>attachée</td><td>segments distribués par le curseur partagé (file bornée)</td><td>file pleine, erreur → détachée</td></tr>
+ *   <tr><td>détachée</td><td>lecture propre de l'event log depuis son checkpoint, jusqu'à la position du curseur partagé</td><td>rattrapage terminé → attachée</td></tr>
+ * </table>
+ *
+ * <h3>Isolation</h3>
+ * <ul>
+ *   <li>La distribution ne bloque jamais : une lane lente est détachée et
+ *       rattrape seule, sans freiner le curseur partagé ni les autres lanes</li>
+ *   <li>Exception d'une projection → sa lane reprend depuis son checkpoint après
+ *       un délai, les autres continuent</li>
+ *   <li>Nouvelle projection (checkpoint absent) → rattrapage depuis le début du log</li>
+ *   <li>Checkpoint écrit après chaque lot projeté ; segments sans événement
+ *       supporté → checkpoint avancé au plus tard au renouvellement du bail</li>
+ * </ul>
+ *
+ * <p>Les lanes ne prennent leur bail que sur le nœud dont le curseur partagé est
+ * actif (et le rendent s'il le perd). Le checkpoint du curseur partagé
+ * ({@code orderflow.projection.tail-name}) est créé à la position de la
+ * projection la plus avancée.</p>
+ */
+@ApplicationScoped
+@Startup
+public class ProjectionRuntime {
+
+    /** Délai avant nouvelle tentative après erreur */
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+
+    private static final Logger LOG = Logger.getLogger(ProjectionRuntime.class);
+
+    /**
+     * Photographie d'une lane (exposée par l'API admin).
+     */
+    public static record Status(
+            String projection,
+            String owner,
+            boolean active,
+            boolean attached,
+            long position,
+            long tailPosition,
+            int queued,
+            long events,
+            long detachments,
+            long failures,
+            Instant lastProjectedAt,
+            String lastError) {
+    }
+
+    /**
+     * Part d'un lot du curseur partagé destinée à une projection.
+     *
+     * @param events événements supportés (éventuellement vide)
+     * @param lastId dernier id du lot (position atteinte une fois le segment projeté)
+     */
+    private record Segment(List<EventLogRecord> events, long lastId) {
+    }
+
+    private final EventLogCursors cursors;
+    private final EventLogRepository eventLog;
+    private final ConsumerCheckpointRepository checkpoints;
+    private final List<ProjectionHandler> handlers;
+    private final DeliveryMode deliveryMode;
+    private final String tailName;
+    private final int queueCapacity;
+    private final String owner;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final Duration leaseTtl;
+
+    private final List<Lane> lanes = new ArrayList<>();
+
+    /**
+     * Constructeur CDI (section orderflow.projection, lecture et bail repris de orderflow.cursor).
+     *
+     * @throws IllegalArgumentException si queue-capacity n'est pas positive
+     */
+    @Inject
+    public ProjectionRuntime(
+            EventLogCursors cursors,
+            EventLogRepository eventLog,
+            ConsumerCheckpointRepository checkpoints,
+            OutboxConsumerGroup consumerGroup,
+            Instance<ProjectionHandler> handlers,
+            @ConfigProperty(name = "orderflow.delivery.mode", defaultValue = "outbox") DeliveryMode deliveryMode,
+            @ConfigProperty(name = "orderflow.projection.tail-name", defaultValue = "projection-tail") String tailName,
+            @ConfigProperty(name = "orderflow.projection.queue-capacity", defaultValue = "16") int queueCapacity,
+            @ConfigProperty(name = "orderflow.cursor.batch-size", defaultValue = "500") int batchSize,
+            @ConfigProperty(name = "orderflow.cursor.poll-interval", defaultValue = "100ms") Duration pollInterval,
+            @ConfigProperty(name = "orderflow.cursor.lease-ttl", defaultValue = "10s") Duration leaseTtl) {
+        if (queueCapacity <= 0) {
+            throw new IllegalArgumentException("Projection queue-capacity must be positive: " + queueCapacity);
+        }
+        this.cursors = cursors;
+        this.eventLog = eventLog;
+        this.checkpoints = checkpoints;
+        this.handlers = handlers.stream().toList();
+        this.deliveryMode = deliveryMode;
+        this.tailName = tailName;
+        this.queueCapacity = queueCapacity;
+        this.owner = consumerGroup.nodeId();
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.leaseTtl = leaseTtl;
+    }
+
+    /**
+     * Démarre les lanes puis le curseur partagé si le mode cursor est actif.
+     *
+     * @throws IllegalStateException si deux projections (ou le curseur partagé) ont le même nom
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        final Set<String> names = new HashSet<>();
+        for (ProjectionHandler handler : handlers) {
+            if (handler.name().equals(tailName) || !names.add(handler.name())) {
+                throw new IllegalStateException("Duplicate projection name: " + handler.name());
+            }
+        }
+        checkpoints.initialize(tailName, names);
+        for (ProjectionHandler handler : handlers) {
+            final Lane lane = new Lane(handler);
+            lanes.add(lane);
+            lane.thread = Thread.ofPlatform()
+                    .name("projection-" + handler.name())
+                    .daemon()
+                    .start(lane::run);
+        }
+        cursors.start(tailName, this::fanOut);
+        LOG.infof("ProjectionRuntime STARTED: tail=%s, projections=%s, queue=%d, owner=%s",
+                tailName, names, queueCapacity, owner);
+    }
+
+    /**
+     * Arrête le curseur partagé puis les lanes (lot en cours terminé, baux rendus).
+     */
+    void onStop(@Observes ShutdownEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        cursors.stopAll();
+        lanes.forEach(lane -> lane.running = false);
+        for (Lane lane : lanes) {
+            try {
+                // Lot en cours terminé, attente interrompue
+                if (!lane.thread.join(RETRY_DELAY)) {
+                    lane.thread.interrupt();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            lane.release();
+        }
+        LOG.info("ProjectionRuntime STOPPED");
+    }
+
+    /**
+     * Indique si le mode cursor est actif et si au moins une projection est déclarée.
+     */
+    public boolean isEnabled() {
+        return deliveryMode == DeliveryMode.CURSOR && !handlers.isEmpty();
+    }
+
+    /**
+     * État des lanes de ce nœud pour supervision.
+     */
+    public List<Status> status() {
+        return lanes.stream().map(Lane::status).toList();
+    }
+
+    /**
+     * Distribue un lot du curseur partagé à toutes les lanes (sans bloquer).
+     */
+    private void fanOut(List<EventLogRecord> batch) {
+        final long first = batch.get(0).id();
+        final long last = batch.get(batch.size() - 1).id();
+        for (Lane lane : lanes) {
+            lane.offer(batch, first, last);
+        }
+    }
+
+    /**
+     * Lane d'une projection (état muté par son thread, sauf attachement et
+     * position du curseur partagé protégés par son moniteur).
+     */
+    private final class Lane {
+
+        private final ProjectionHandler handler;
+        private final BlockingQueue<Segment> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private Thread thread;
+
+        private volatile boolean running = true;
+        private volatile boolean active;
+        private volatile long position;
+        private volatile long events;
+        private volatile long detachments;
+        private volatile long failures;
+        private volatile Instant lastProjectedAt;
+        private volatile String lastError;
+        private Instant leaseRenewedAt = Instant.EPOCH;
+
+        /** Segments distribués via la file (sinon rattrapage par lecture propre) */
+        private boolean attached;
+        /** Dernier id distribué par le curseur partagé (-1 avant le premier lot) */
+        private long tailPosition = -1;
+
+        private Lane(ProjectionHandler handler) {
+            this.handler = handler;
+        }
+
+        private synchronized Status status() {
+            return new Status(handler.name(), owner, active, attached, position, tailPosition, queue.size(),
+                    events, detachments, failures, lastProjectedAt, lastError);
+        }
+
+        /**
+         * Reçoit un lot du curseur partagé (thread du curseur).
+         */
+        private synchronized void offer(List<EventLogRecord> batch, long first, long last) {
+            if (!attached && active && position >= (tailPosition >= 0 ? tailPosition : first - 1)) {
+                // À jour : le lot suit directement la position
+                attached = true;
+            }
+            tailPosition = last;
+            if (!attached) {
+                return;
+            }
+            final Segment segment;
+            try {
+                segment = new Segment(batch.stream().filter(handler::supports).toList(), last);
+            } catch (RuntimeException e) {
+                // Filtre rejoué (et en échec) sur le thread de la lane
+                detach("filter failed: " + e.getMessage());
+                return;
+            }
+            if (!queue.offer(segment)) {
+                detach("queue full");
+            }
+        }
+
+        /**
+         * Passe en rattrapage par lecture propre (moniteur détenu).
+         */
+        private void detach(String reason) {
+            attached = false;
+            queue.clear();
+            detachments++;
+            LOG.infof("Projection DETACHED, catching up from event log: projection=%s, position=%d, tail=%d: %s",
+                    handler.name(), position, tailPosition, reason);
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    if (!cursors.isActive(tailName)) {
+                        // Curseur partagé actif ailleurs : bail laissé aux lanes de ce nœud
+                        release();
+                        pause(pollInterval.multipliedBy(10));
+                        continue;
+                    }
+                    if (!active && !acquire()) {
+                        pause(pollInterval.multipliedBy(10));
+                        continue;
+                    }
+                    if (isAttached()) {
+                        drain();
+                    } else if (!catchUp()) {
+                        pause(pollInterval);
+                    }
+                } catch (Exception e) {
+                    if (!running) {
+                        return;
+                    }
+                    failures++;
+                    lastError = e.getMessage();
+                    LOG.warnf("Projection FAILED, retry in %ds: projection=%s, position=%d: %s",
+                            RETRY_DELAY.toSeconds(), handler.name(), position, e.getMessage());
+                    // Reprise depuis le checkpoint écrit
+                    deactivate();
+                    pause(RETRY_DELAY);
+                }
+            }
+        }
+
+        private synchronized boolean isAttached() {
+            return attached;
+        }
+
+        /**
+         * Prend le bail et se positionne sur le checkpoint (détachée).
+         */
+        private boolean acquire() {
+            final OptionalLong checkpoint = checkpoints.acquire(handler.name(), owner, leaseTtl);
+            if (checkpoint.isEmpty()) {
+                return false;
+            }
+            synchronized (this) {
+                position = checkpoint.getAsLong();
+                attached = false;
+                queue.clear();
+                active = true;
+            }
+            leaseRenewedAt = Instant.now();
+            LOG.infof("Projection ACTIVE: projection=%s, owner=%s, position=%d", handler.name(), owner, position);
+            return true;
+        }
+
+        /**
+         * Projette le prochain segment distribué (attente bornée à poll-interval).
+         */
+        private void drain() throws Exception {
+            final Segment segment;
+            try {
+                segment = queue.poll(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                return;
+            }
+            if (segment == null) {
+                renewIfDue();
+                return;
+            }
+            process(segment.events(), segment.lastId());
+        }
+
+        /**
+         * Lit l'event log depuis la position, jusqu'au dernier id distribué par le
+         * curseur partagé, puis se rattache une fois à sa hauteur.
+         *
+         * @return true si un lot plein a été projeté (relire sans attendre)
+         */
+        private boolean catchUp() throws Exception {
+            final long limit;
+            synchronized (this) {
+                limit = tailPosition;
+            }
+            if (limit <= position) {
+                renewIfDue();
+                return false;
+            }
+            final List<EventLogRecord> rows = eventLog.findAfter(position, batchSize);
+            final List<EventLogRecord> within = rows.stream().filter(row -> row.id() <= limit).toList();
+            // Trous jusqu'à limit déjà tranchés par le curseur partagé
+            final boolean reached = rows.size() < batchSize || within.size() < rows.size();
+            process(within.stream().filter(handler::supports).toList(),
+                    reached ? limit : within.get(within.size() - 1).id());
+            if (!reached) {
+                return true;
+            }
+            synchronized (this) {
+                if (active && position >= tailPosition) {
+                    attached = true;
+                    LOG.infof("Projection ATTACHED: projection=%s, position=%d", handler.name(), position);
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Projette les événements non encore projetés et avance jusqu'à lastId.
+         */
+        private void process(List<EventLogRecord> segment, long lastId) throws Exception {
+            final long from = position;
+            final List<EventLogRecord> fresh = segment.stream().filter(ev -> ev.id() > from).toList();
+            if (fresh.isEmpty()) {
+                position = Math.max(from, lastId);
+                renewIfDue();
+                return;
+            }
+            handler.project(fresh);
+            if (!checkpoints.advance(handler.name(), owner, lastId, leaseTtl)) {
+                LOG.warnf("Projection lease LOST: projection=%s, position=%d", handler.name(), from);
+                deactivate();
+                return;
+            }
+            position = lastId;
+            events += fresh.size();
+            lastProjectedAt = Instant.now();
+            leaseRenewedAt = lastProjectedAt;
+        }
+
+        /**
+         * Prolonge le bail (et écrit la position) pendant les périodes sans événement supporté.
+         */
+        private void renewIfDue() {
+            if (Instant.now().isAfter(leaseRenewedAt.plus(leaseTtl.dividedBy(3)))) {
+                if (!checkpoints.advance(handler.name(), owner, position, leaseTtl)) {
+                    LOG.warnf("Projection lease LOST: projection=%s, position=%d", handler.name(), position);
+                    deactivate();
+                    return;
+                }
+                leaseRenewedAt = Instant.now();
+            }
+        }
+
+        /**
+         * Rend le bail s'il est détenu.
+         */
+        private void release() {
+            if (!active) {
+                return;
+            }
+            deactivate();
+            try {
+                checkpoints.release(handler.name(), owner);
+                LOG.infof("Projection PASSIVE: projection=%s, position=%d", handler.name(), position);
+            } catch (Exception e) {
+                LOG.warnf("Projection lease release FAILED: projection=%s: %s", handler.name(), e.getMessage());
+            }
+        }
+
+        private synchronized void deactivate() {
+            active = false;
+            attached = false;
+            queue.clear();
+        }
+
+        private void pause(Duration duration) {
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.replication;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Suivi de eventing.event_log par réplication logique (slot pgoutput).
+ *
+ * <p>Alternative au polling de l'outbox : chaque transaction committée ayant
+ * inséré dans event_log est poussée par Postgres dès son commit, dans l'ordre
+ * des commits, puis remise à un {@link EventLogTransactionHandler}. Aucune
+ * lecture ni écriture de eventing.outbox.</p>
+ *
+ * <h3>Checkpoint</h3>
+ * <ul>
+ *   <li>Le slot de réplication conserve le LSN confirmé : c'est le checkpoint
+ *       (durable côté serveur, repris tel quel au redémarrage)</li>
+ *   <li>Transaction traitée → LSN de fin marqué comme flushé</li>
+ *   <li>Le driver remonte le dernier LSN flushé toutes les status-interval :
+ *       acquittements en lot, pas d'aller-retour par transaction</li>
+ *   <li>Erreur du handler ou connexion perdue → reconnexion, re-livraison depuis
+ *       le dernier LSN confirmé (au moins une fois : le handler doit être idempotent)</li>
+ * </ul>
+ *
+ * <h3>Prérequis</h3>
+ * <ul>
+ *   <li>{@code wal_level = logical} sur le serveur</li>
+ *   <li>Rôle avec l'attribut REPLICATION</li>
+ *   <li>Publication {@code orderflow_event_log} (changeset platform-011) ;
+ *       le slot est créé au premier démarrage</li>
+ * </ul>
+ *
+ * <p>Un slot n'accepte qu'un lecteur : avec plusieurs instances sur le même
+ * slot, une seule consomme, les autres retentent leur connexion et prennent le
+ * relais à sa disparition (actif/passif). Un slot abandonné retient le WAL :
+ * le supprimer ({@code pg_drop_replication_slot}) si le mode est désactivé.</p>
+ */
+@ApplicationScoped
+public class EventLogReplicationStream {
+
+    /** Délai avant reconnexion après erreur */
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+    /** Plugin de décodage logique natif (aucune extension serveur) */
+    private static final String OUTPUT_PLUGIN = "pgoutput";
+
+    private static final Logger LOG = Logger.getLogger(EventLogReplicationStream.class);
+
+    /**
+     * Photographie du flux (exposée par l'API admin).
+     */
+    public static record Status(
+            String slotName,
+            String publication,
+            boolean running,
+            boolean connected,
+            String receivedLsn,
+            String acknowledgedLsn,
+            long transactions,
+            long events,
+            Instant lastCommittedAt,
+            Instant lastDeliveredAt) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final String jdbcUrl;
+    private final String username;
+    private final Optional<String> password;
+    private final String slotName;
+    private final String publication;
+    private final Duration statusInterval;
+
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong events = new AtomicLong();
+
+    private volatile boolean running;
+    private volatile boolean connected;
+    private volatile Connection connection;
+    private volatile LogSequenceNumber receivedLsn = LogSequenceNumber.INVALID_LSN;
+    private volatile LogSequenceNumber acknowledgedLsn = LogSequenceNumber.INVALID_LSN;
+    private volatile Instant lastCommittedAt;
+    private volatile Instant lastDeliveredAt;
+    private Thread streamThread;
+
+    /**
+     * Constructeur CDI (datasource par défaut, section orderflow.replication).
+     */
+    @Inject
+    public EventLogReplicationStream(
+            ObjectMapper objectMapper,
+            @ConfigProperty(name = "quarkus.datasource.jdbc.url") String jdbcUrl,
+            @ConfigProperty(name = "quarkus.datasource.username") String username,
+            @ConfigProperty(name = "quarkus.datasource.password") Optional<String> password,
+            @ConfigProperty(name = "orderflow.replication.slot-name", defaultValue = "orderflow_event_log") String slotName,
+            @ConfigProperty(name = "orderflow.replication.publication", defaultValue = "orderflow_event_log") String publication,
+            @ConfigProperty(name = "orderflow.replication.status-interval", defaultValue = "1s") Duration statusInterval) {
+        this.objectMapper = objectMapper;
+        this.jdbcUrl = jdbcUrl;
+        this.username = username;
+        this.password = password;
+        this.slotName = slotName;
+        this.publication = publication;
+        this.statusInterval = statusInterval;
+    }
+
+    /**
+     * Démarre le flux sur un thread dédié (daemon).
+     *
+     * @param handler appelé pour chaque transaction committée, dans l'ordre
+     */
+    public synchronized void start(EventLogTransactionHandler handler) {
+        if (running) {
+            throw new IllegalStateException("Event log replication stream already started");
+        }
+        running = true;
+        streamThread = Thread.ofPlatform()
+                .name("event-log-replication")
+                .daemon()
+                .start(() -> stream(handler));
+    }
+
+    /**
+     * Arrête le flux : la connexion est fermée, la lecture bloquante s'interrompt.
+     *
+     * <p>Les transactions traitées depuis le dernier statut envoyé seront
+     * re-livrées au redémarrage (au plus status-interval).</p>
+     */
+    public synchronized void stop() {
+        running = false;
+        final Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                LOG.debugf("Replication connection close failed: %s", e.getMessage());
+            }
+        }
+        if (streamThread != null) {
+            streamThread.interrupt();
+        }
+        LOG.info("EventLogReplicationStream STOPPED");
+    }
+
+    /**
+     * État courant du flux pour supervision.
+     */
+    public Status status() {
+        return new Status(slotName, publication, running, connected,
+                receivedLsn.asString(), acknowledgedLsn.asString(),
+                transactions.get(), events.get(), lastCommittedAt, lastDeliveredAt);
+    }
+
+    /**
+     * Boucle de connexion : slot, flux, consommation, avec reconnexion.
+     */
+    private void stream(EventLogTransactionHandler handler) {
+        while (running) {
+            try (Connection replication = connect()) {
+                connection = replication;
+                ensureSlot(replication);
+                final PGReplicationStream stream = replication.unwrap(PGConnection.class)
+                        .getReplicationAPI()
+                        .replicationStream()
+                        .logical()
+                        .withSlotName(slotName)
+                        .withSlotOption("proto_version", 1)
+                        .withSlotOption("publication_names", publication)
+                        .withStatusInterval((int) statusInterval.toMillis(), TimeUnit.MILLISECONDS)
+                        .start();
+                connected = true;
+                LOG.infof("EventLogReplicationStream STREAMING: slot=%s, publication=%s, status interval=%dms",
+                        slotName, publication, statusInterval.toMillis());
+                consume(stream, handler);
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                LOG.warnf("EventLogReplicationStream interrupted, retry in %ds: %s",
+                        RECONNECT_DELAY.toSeconds(), e.getMessage());
+                try {
+                    Thread.sleep(RECONNECT_DELAY);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                connected = false;
+                connection = null;
+            }
+        }
+    }
+
+    /**
+     * Lecture des messages : événements regroupés par transaction, LSN acquitté au commit.
+     */
+    private void consume(PGReplicationStream stream, EventLogTransactionHandler handler) throws Exception {
+        // Relations re-émises par le serveur à chaque connexion
+        final PgOutputDecoder decoder = new PgOutputDecoder(objectMapper);
+        final List<EventLogRecord> pending = new ArrayList<>();
+        while (running) {
+            final ByteBuffer buffer = stream.read();
+            receivedLsn = stream.getLastReceiveLSN();
+            switch (decoder.decode(buffer)) {
+                case PgOutputDecoder.Begin begin -> pending.clear();
+                case PgOutputDecoder.Insert insert -> pending.add(insert.event());
+                case PgOutputDecoder.Commit commit -> {
+                    if (!pending.isEmpty()) {
+                        handler.onTransaction(List.copyOf(pending));
+                        transactions.incrementAndGet();
+                        events.addAndGet(pending.size());
+                        lastCommittedAt = commit.committedAt();
+                        lastDeliveredAt = Instant.now();
+                        pending.clear();
+                    }
+                    // Transactions sans event_log acquittées aussi : le slot avance
+                    final LogSequenceNumber lsn = LogSequenceNumber.valueOf(commit.endLsn());
+                    stream.setAppliedLSN(lsn);
+                    stream.setFlushedLSN(lsn);
+                    acknowledgedLsn = lsn;
+                }
+                case null -> {
+                    // Message ignoré (Relation, Origin, Type...)
+                }
+            }
+        }
+    }
+
+    /**
+     * Connexion de réplication dédiée (hors pool : protocole de réplication).
+     */
+    private Connection connect() throws SQLException {
+        final Properties properties = new Properties();
+        PGProperty.USER.set(properties, username);
+        password.ifPresent(value -> PGProperty.PASSWORD.set(properties, value));
+        PGProperty.ASSUME_MIN_SERVER_VERSION.set(properties, "10");
+        PGProperty.REPLICATION.set(properties, "database");
+        PGProperty.PREFER_QUERY_MODE.set(properties, "simple");
+        return DriverManager.getConnection(jdbcUrl, properties);
+    }
+
+    /**
+     * Crée le slot logique s'il n'existe pas (premier démarrage).
+     */
+    private void ensureSlot(Connection replication) throws SQLException {
+        try (PreparedStatement statement = replication.prepareStatement(
+                "SELECT 1 FROM pg_replication_slots WHERE slot_name = ?")) {
+            statement.setString(1, slotName);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        replication.unwrap(PGConnection.class)
+                .getReplicationAPI()
+                .createReplicationSlot()
+                .logical()
+                .withSlotName(slotName)
+                .withOutputPlugin(OUTPUT_PLUGIN)
+                .make();
+        LOG.infof("EventLogReplicationStream slot CREATED: slot=%s, plugin=%s", slotName, OUTPUT_PLUGIN);
+    }
+}
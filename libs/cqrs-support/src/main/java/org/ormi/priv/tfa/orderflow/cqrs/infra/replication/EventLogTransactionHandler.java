@@ -0,0 +1,24 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.replication;
+
+import java.util.List;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+
+/**
+ * Consommateur des transactions committées sur eventing.event_log.
+ *
+ * <p>Appelé par {@link EventLogReplicationStream} une fois par transaction, dans
+ * l'ordre des commits, sur le thread du flux. Retour normal = transaction
+ * traitée : son LSN sera acquitté. Exception = le flux se reconnecte et
+ * re-livre depuis le dernier LSN acquitté (au moins une fois).</p>
+ */
+@FunctionalInterface
+public interface EventLogTransactionHandler {
+
+    /**
+     * Traite les événements insérés par une transaction.
+     *
+     * @param events événements dans l'ordre d'insertion (jamais vide)
+     */
+    void onTransaction(List<EventLogRecord> events) throws Exception;
+}
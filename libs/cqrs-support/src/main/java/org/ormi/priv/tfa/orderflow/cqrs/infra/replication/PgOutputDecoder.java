@@ -0,0 +1,198 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.replication;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Décodeur du protocole logique pgoutput (version 1), limité à eventing.event_log.
+ *
+ * <p>Seuls les messages utiles au suivi de l'event log sont décodés ; les autres
+ * (Origin, Type, Update, Delete, Truncate) sont ignorés : la publication ne
+ * publie que les INSERT.</p>
+ *
+ * <h3>Messages</h3>
+ * <table>
+ *   <tr><th>Type</th><th>Résultat</th></tr>
+ *   <tr><td>B (Begin)</td><td>{@link Begin}</td></tr>
+ *   <tr><td>R (Relation)</td><td>colonnes mémorisées (null)</td></tr>
+ *   <tr><td>I (Insert) sur event_log</td><td>{@link Insert}</td></tr>
+ *   <tr><td>C (Commit)</td><td>{@link Commit} (LSN à acquitter)</td></tr>
+ * </table>
+ *
+ * <p>Les tuples sont au format texte (défaut pgoutput) : les colonnes sont
+ * retrouvées par nom via le dernier message Relation reçu pour la table.</p>
+ *
+ * <p>Non thread-safe : un décodeur par flux de réplication.</p>
+ */
+public class PgOutputDecoder {
+
+    /** Origine des timestamps du protocole (microsecondes depuis 2000-01-01 UTC) */
+    private static final long PG_EPOCH_SECONDS = 946_684_800L;
+
+    private static final String EVENT_LOG_SCHEMA = "eventing";
+    private static final String EVENT_LOG_TABLE = "event_log";
+
+    /** Format texte timestamptz (DateStyle ISO) : 2026-01-31 12:34:56.123456+00 */
+    private static final DateTimeFormatter TIMESTAMPTZ = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart()
+            .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+            .optionalEnd()
+            .appendOffset("+HH:mm", "+00")
+            .toFormatter();
+
+    /**
+     * Message décodé utile au flux.
+     */
+    public sealed interface Change permits Begin, Insert, Commit {
+    }
+
+    /**
+     * Début de transaction.
+     *
+     * @param finalLsn LSN du commit à venir
+     * @param committedAt horodatage du commit
+     * @param xid identifiant de transaction
+     */
+    public record Begin(long finalLsn, Instant committedAt, int xid) implements Change {
+    }
+
+    /**
+     * Ligne insérée dans eventing.event_log.
+     *
+     * @param event événement inséré
+     */
+    public record Insert(EventLogRecord event) implements Change {
+    }
+
+    /**
+     * Fin de transaction.
+     *
+     * @param commitLsn LSN du commit
+     * @param endLsn LSN de fin de la transaction (position à acquitter)
+     * @param committedAt horodatage du commit
+     */
+    public record Commit(long commitLsn, long endLsn, Instant committedAt) implements Change {
+    }
+
+    /**
+     * Table publiée : event_log ou non, noms de colonnes dans l'ordre du tuple.
+     */
+    private record Relation(boolean eventLog, String[] columns) {
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Map<Integer, Relation> relations = new HashMap<>();
+
+    public PgOutputDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Décode un message pgoutput.
+     *
+     * @return le changement, ou null si le message est ignoré
+     */
+    public Change decode(ByteBuffer buffer) {
+        final char type = (char) buffer.get();
+        return switch (type) {
+            case 'B' -> new Begin(buffer.getLong(), toInstant(buffer.getLong()), buffer.getInt());
+            case 'C' -> {
+                buffer.get(); // flags (inutilisés)
+                yield new Commit(buffer.getLong(), buffer.getLong(), toInstant(buffer.getLong()));
+            }
+            case 'R' -> {
+                readRelation(buffer);
+                yield null;
+            }
+            case 'I' -> readInsert(buffer);
+            default -> null;
+        };
+    }
+
+    private void readRelation(ByteBuffer buffer) {
+        final int oid = buffer.getInt();
+        final String namespace = readString(buffer);
+        final String name = readString(buffer);
+        buffer.get(); // replica identity
+        final String[] columns = new String[buffer.getShort()];
+        for (int i = 0; i < columns.length; i++) {
+            buffer.get(); // flags (clé)
+            columns[i] = readString(buffer);
+            buffer.getInt(); // oid du type
+            buffer.getInt(); // typmod
+        }
+        relations.put(oid, new Relation(
+                EVENT_LOG_SCHEMA.equals(namespace) && EVENT_LOG_TABLE.equals(name), columns));
+    }
+
+    private Insert readInsert(ByteBuffer buffer) {
+        final Relation relation = relations.get(buffer.getInt());
+        if (relation == null) {
+            throw new IllegalStateException("pgoutput Insert received before its Relation message");
+        }
+        buffer.get(); // 'N' : nouveau tuple
+        final Map<String, String> row = readTuple(buffer, relation.columns());
+        if (!relation.eventLog()) {
+            return null;
+        }
+        try {
+            return new Insert(new EventLogRecord(
+                    Long.valueOf(row.get("id")),
+                    row.get("aggregate_type"),
+                    UUID.fromString(row.get("aggregate_id")),
+                    Long.valueOf(row.get("aggregate_version")),
+                    row.get("event_type"),
+                    Integer.parseInt(row.get("event_version")),
+                    row.get("occurred_at") == null ? null
+                            : OffsetDateTime.parse(row.get("occurred_at"), TIMESTAMPTZ).toInstant(),
+                    objectMapper.readTree(row.get("payload"))));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Invalid event_log payload: id=" + row.get("id"), e);
+        }
+    }
+
+    private static Map<String, String> readTuple(ByteBuffer buffer, String[] columns) {
+        final short count = buffer.getShort();
+        final Map<String, String> row = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            final char kind = (char) buffer.get();
+            if (kind == 't') {
+                final byte[] value = new byte[buffer.getInt()];
+                buffer.get(value);
+                row.put(columns[i], new String(value, StandardCharsets.UTF_8));
+            }
+            // 'n' (NULL) et 'u' (TOAST inchangé, jamais sur un INSERT) : absents
+        }
+        return row;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int start = buffer.position();
+        while (buffer.get() != 0) {
+            // jusqu'au terminateur
+        }
+        final byte[] bytes = new byte[buffer.position() - start - 1];
+        buffer.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Instant toInstant(long pgMicros) {
+        return Instant.ofEpochSecond(PG_EPOCH_SECONDS + Math.floorDiv(pgMicros, 1_000_000L),
+                Math.floorMod(pgMicros, 1_000_000L) * 1_000L);
+    }
+}
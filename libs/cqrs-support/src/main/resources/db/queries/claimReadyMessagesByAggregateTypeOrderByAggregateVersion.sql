@@ -0,0 +1,37 @@
+WITH ready AS MATERIALIZED (
+    SELECT r.id FROM eventing.outbox r
+    WHERE r.aggregate_type = :aggregateTypes
+    AND r.lane = CAST(:lane AS smallint)
+    AND r.acked_at IS NULL
+    AND r.shard_key = ANY(CAST(:shards AS int[]))
+    AND r.attempts < :maxAttempts
+    AND (r.next_attempt_at <= CURRENT_TIMESTAMP OR r.next_attempt_at IS NULL)
+    AND (r.claimed_until IS NULL OR r.claimed_until < CURRENT_TIMESTAMP)
+    AND NOT EXISTS (
+        SELECT 1 FROM eventing.outbox o2
+        WHERE o2.aggregate_id = r.aggregate_id
+        AND o2.next_attempt_at > CURRENT_TIMESTAMP
+        AND o2.acked_at IS NULL
+    )
+    AND NOT EXISTS (
+        SELECT 1 FROM eventing.outbox_dead_letter d
+        WHERE d.aggregate_type = r.aggregate_type
+        AND d.aggregate_id = r.aggregate_id
+    )
+    ORDER BY r.id
+    LIMIT :limit
+    FOR UPDATE SKIP LOCKED
+), claimed AS (
+    UPDATE eventing.outbox o
+    SET claimed_by = :claimedBy,
+        claimed_until = CURRENT_TIMESTAMP + :claimTtlMs * INTERVAL '1 millisecond'
+    FROM ready
+    WHERE o.id = ready.id
+    RETURNING o.id, o.attempts, o.event_id
+)
+SELECT c.id, c.attempts,
+       e.id AS event_id, e.aggregate_type, e.aggregate_id, e.aggregate_version,
+       e.event_type, e.event_version, e.occurred_at, CAST(e.payload AS text) AS payload
+FROM claimed c
+INNER JOIN eventing.event_log e ON e.id = c.event_id
+ORDER BY min(c.id) OVER (PARTITION BY e.aggregate_id), e.aggregate_version
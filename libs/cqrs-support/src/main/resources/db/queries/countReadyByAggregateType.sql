@@ -0,0 +1,12 @@
+SELECT COUNT(*) FROM eventing.outbox o
+WHERE o.aggregate_type = :aggregateTypes
+AND o.acked_at IS NULL
+AND o.shard_key = ANY(CAST(:shards AS int[]))
+AND o.attempts < :maxAttempts
+AND (o.next_attempt_at <= CURRENT_TIMESTAMP OR o.next_attempt_at IS NULL)
+AND (o.claimed_until IS NULL OR o.claimed_until < CURRENT_TIMESTAMP)
+AND NOT EXISTS (
+    SELECT 1 FROM eventing.outbox_dead_letter d
+    WHERE d.aggregate_type = o.aggregate_type
+    AND d.aggregate_id = o.aggregate_id
+)
@@ -1,13 +1,18 @@
 SELECT o.* FROM eventing.outbox o
-INNER JOIN eventing.event_log e ON o.event_id = e.id
-WHERE o.attempts < :maxAttempts
-AND e.aggregate_type = :aggregateTypes
+WHERE o.aggregate_type = :aggregateTypes
+AND o.acked_at IS NULL
+AND o.attempts < :maxAttempts
 AND (o.next_attempt_at <= CURRENT_TIMESTAMP OR o.next_attempt_at IS NULL)
 AND NOT EXISTS (
     SELECT 1 FROM eventing.outbox o2
-    JOIN eventing.event_log e2 ON o2.event_id = e2.id
-    WHERE e2.aggregate_id = e.aggregate_id
-    AND (o2.next_attempt_at > CURRENT_TIMESTAMP)
+    WHERE o2.aggregate_id = o.aggregate_id
+    AND o2.next_attempt_at > CURRENT_TIMESTAMP
+    AND o2.acked_at IS NULL
 )
-ORDER BY e.aggregate_id, e.aggregate_version
+AND NOT EXISTS (
+    SELECT 1 FROM eventing.outbox_dead_letter d
+    WHERE d.aggregate_type = o.aggregate_type
+    AND d.aggregate_id = o.aggregate_id
+)
+ORDER BY o.id
 FOR UPDATE SKIP LOCKED
@@ -0,0 +1,130 @@
+package org.ormi.priv.tfa.orderflow.cqrs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.ormi.priv.tfa.orderflow.cqrs.Projector.ProjectionResult;
+
+class ProjectorTest {
+
+    private static final UUID AGGREGATE_ID = UUID.randomUUID();
+
+    private enum Outcome { APPLY, NO_OP, FAIL }
+
+    /** Événement de test : l'issue de sa projection est portée par l'événement */
+    private record TestEvent(Outcome outcome) implements DomainEvent {
+        @Override public UUID aggregateId() { return AGGREGATE_ID; }
+        @Override public String aggregateType() { return "Test"; }
+        @Override public int version() { return 1; }
+        @Override public DomainEventPayload payload() { return new DomainEventPayload.Empty(); }
+    }
+
+    /**
+     * État = séquences appliquées ; garde les séquences projetées pour vérifier
+     * ce que le repli a réellement appelé.
+     */
+    private static final class RecordingProjector implements Projector<List<Long>, EventEnvelope<TestEvent>> {
+        private final List<Long> projected = new ArrayList<>();
+
+        @Override
+        public ProjectionResult<List<Long>> project(Optional<List<Long>> current, EventEnvelope<TestEvent> ev) {
+            projected.add(ev.sequence());
+            return switch (ev.event().outcome()) {
+                case APPLY -> {
+                    final List<Long> next = new ArrayList<>(current.orElse(List.of()));
+                    next.add(ev.sequence());
+                    yield ProjectionResult.projected(next);
+                }
+                case NO_OP -> ProjectionResult.noOp("ignored " + ev.sequence());
+                case FAIL -> ProjectionResult.failed("rejected " + ev.sequence());
+            };
+        }
+    }
+
+    private static EventEnvelope<TestEvent> event(long sequence, Outcome outcome) {
+        return EventEnvelope.with(new TestEvent(outcome), sequence);
+    }
+
+    private static List<EventEnvelope<TestEvent>> applied(long from, long to) {
+        final List<EventEnvelope<TestEvent>> events = new ArrayList<>();
+        for (long sequence = from; sequence <= to; sequence++) {
+            events.add(event(sequence, Outcome.APPLY));
+        }
+        return events;
+    }
+
+    @Test
+    void foldsFreshBurstFromEmptyState() {
+        final RecordingProjector projector = new RecordingProjector();
+
+        final ProjectionResult<List<Long>> result = projector.projectAll(Optional.empty(), applied(1, 5), 0L);
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), result.getProjection());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), projector.projected);
+    }
+
+    @Test
+    void skipsRedeliveredPrefix() {
+        final RecordingProjector projector = new RecordingProjector();
+
+        final ProjectionResult<List<Long>> result = projector.projectAll(
+                Optional.of(List.of(1L, 2L, 3L)), applied(2, 6), 3L);
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), result.getProjection());
+        assertEquals(List.of(4L, 5L, 6L), projector.projected);
+    }
+
+    @Test
+    void fullyRedeliveredBatchKeepsCurrentState() {
+        final RecordingProjector projector = new RecordingProjector();
+
+        final ProjectionResult<List<Long>> result = projector.projectAll(
+                Optional.of(List.of(1L, 2L, 3L)), applied(1, 3), 3L);
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of(1L, 2L, 3L), result.getProjection());
+        assertEquals(List.of(), projector.projected);
+    }
+
+    @Test
+    void haltsOnNoOp() {
+        final RecordingProjector projector = new RecordingProjector();
+
+        final ProjectionResult<List<Long>> result = projector.projectAll(Optional.empty(),
+                List.of(event(1, Outcome.APPLY), event(2, Outcome.NO_OP), event(3, Outcome.APPLY)), 0L);
+
+        assertTrue(result.isNoOp());
+        assertEquals("ignored 2", result.getNoopReason());
+        assertEquals(List.of(1L, 2L), projector.projected);
+    }
+
+    @Test
+    void haltsOnFailure() {
+        final RecordingProjector projector = new RecordingProjector();
+
+        final ProjectionResult<List<Long>> result = projector.projectAll(Optional.of(List.of(1L)),
+                List.of(event(2, Outcome.APPLY), event(3, Outcome.FAIL), event(4, Outcome.APPLY)), 1L);
+
+        assertTrue(result.isFailure());
+        assertEquals("rejected 3", result.getError());
+        assertEquals(List.of(2L, 3L), projector.projected);
+    }
+
+    @Test
+    void withoutInitialVersionProjectsEveryEvent() {
+        final RecordingProjector projector = new RecordingProjector();
+
+        final ProjectionResult<List<Long>> result = projector.projectAll(Optional.empty(), applied(1, 3));
+
+        assertTrue(result.isSuccess());
+        assertEquals(List.of(1L, 2L, 3L), projector.projected);
+    }
+}
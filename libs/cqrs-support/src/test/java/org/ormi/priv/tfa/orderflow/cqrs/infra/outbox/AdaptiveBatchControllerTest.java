@@ -0,0 +1,135 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.outbox.AdaptiveBatchController.Mode;
+
+class AdaptiveBatchControllerTest {
+
+    /** min 10, max 80, délai 10ms..1s, 1 000 messages en cours au plus */
+    private static AdaptiveBatchController controller() {
+        return new AdaptiveBatchController(10, 80, Duration.ofMillis(10), Duration.ofSeconds(1), 1_000);
+    }
+
+    @Test
+    void startsInLowLatencyWithMinBatch() {
+        final AdaptiveBatchController controller = controller();
+
+        assertEquals(Mode.LOW_LATENCY, controller.mode());
+        assertEquals(10, controller.nextBatchSize(0));
+        assertEquals(1_000, controller.delayMs());
+        assertFalse(controller.shouldRefreshBacklog());
+    }
+
+    @Test
+    void fullFetchesDoubleBatchAndHalveDelayUpToBounds() {
+        final AdaptiveBatchController controller = controller();
+
+        final int[] expectedBatches = { 20, 40, 80, 80 };
+        final long[] expectedDelays = { 500, 250, 125, 62 };
+        for (int i = 0; i < expectedBatches.length; i++) {
+            final int requested = controller.nextBatchSize(0);
+            controller.onFetch(requested, requested, requested, 0);
+            assertEquals(Mode.CATCH_UP, controller.mode());
+            assertEquals(expectedBatches[i], controller.nextBatchSize(0));
+            assertEquals(expectedDelays[i], controller.delayMs());
+        }
+        for (int i = 0; i < 10; i++) {
+            controller.onFetch(80, 80, 80, 0);
+        }
+        assertEquals(10, controller.delayMs());
+    }
+
+    @Test
+    void partialFetchReturnsToLowLatencyWithExactBacklog() {
+        final AdaptiveBatchController controller = controller();
+        controller.onFetch(10, 10, 10, 0);
+        controller.onFetch(20, 20, 20, 0);
+
+        controller.onFetch(40, 7, 7, 0);
+
+        assertEquals(Mode.LOW_LATENCY, controller.mode());
+        assertEquals(10, controller.nextBatchSize(0));
+        assertEquals(1_000, controller.delayMs());
+        assertEquals(7, controller.status(0).backlogEstimate());
+    }
+
+    @Test
+    void fullFetchOfMessagesAlreadyInFlightSlowsDown() {
+        final AdaptiveBatchController controller = controller();
+        controller.onFetch(10, 10, 10, 0);
+        controller.onFetch(20, 20, 20, 0);
+        final long delay = controller.delayMs();
+
+        controller.onFetch(40, 40, 0, 40);
+
+        assertEquals(Mode.CATCH_UP, controller.mode());
+        assertEquals(delay * 2, controller.delayMs());
+        assertEquals(40, controller.nextBatchSize(0));
+    }
+
+    @Test
+    void batchIsBoundedByInFlightMargin() {
+        final AdaptiveBatchController controller = controller();
+
+        assertEquals(10, controller.nextBatchSize(990));
+        assertEquals(4, controller.nextBatchSize(996));
+        assertEquals(0, controller.nextBatchSize(1_000));
+        assertEquals(0, controller.nextBatchSize(1_200));
+    }
+
+    @Test
+    void batchDoesNotGrowWhenDoublingWouldExceedInFlightMargin() {
+        final AdaptiveBatchController controller = controller();
+
+        controller.onFetch(10, 10, 10, 985);
+
+        assertEquals(Mode.CATCH_UP, controller.mode());
+        assertEquals(10, controller.status(985).batchSize());
+    }
+
+    @Test
+    void emptyRequestKeepsState() {
+        final AdaptiveBatchController controller = controller();
+        controller.onFetch(10, 10, 10, 0);
+
+        controller.onFetch(0, 0, 0, 1_000);
+
+        assertEquals(Mode.CATCH_UP, controller.mode());
+        assertEquals(20, controller.nextBatchSize(0));
+    }
+
+    @Test
+    void catchUpRefreshesBacklogOnlyAfterInterval() {
+        final AdaptiveBatchController controller = controller();
+        controller.onFetch(10, 10, 10, 0);
+        assertTrue(controller.shouldRefreshBacklog());
+
+        controller.updateBacklogEstimate(5_000);
+
+        assertFalse(controller.shouldRefreshBacklog());
+        assertEquals(5_000, controller.status(0).backlogEstimate());
+    }
+
+    @Test
+    void rejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBatchController(0, 10, Duration.ofMillis(10), Duration.ofSeconds(1), 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveBatchController(20, 10, Duration.ofMillis(10), Duration.ofSeconds(1), 100));
+    }
+
+    @Test
+    void maxInFlightIsAtLeastMaxBatch() {
+        final AdaptiveBatchController controller = new AdaptiveBatchController(10, 500,
+                Duration.ofMillis(10), Duration.ofSeconds(1), 100);
+
+        assertEquals(500, controller.maxInFlight());
+    }
+}
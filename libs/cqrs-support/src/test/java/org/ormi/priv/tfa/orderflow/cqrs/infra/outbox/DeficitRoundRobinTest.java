@@ -0,0 +1,126 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.outbox;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class DeficitRoundRobinTest {
+
+    /**
+     * Source dont chaque index a un backlog donné (Integer.MAX_VALUE = infini) ;
+     * les messages sont l'index de leur source.
+     */
+    private static final class Backlogs implements DeficitRoundRobin.Source<Integer> {
+        private final int[] backlogs;
+        private final List<Integer> order = new ArrayList<>();
+
+        private Backlogs(int... backlogs) {
+            this.backlogs = backlogs;
+        }
+
+        @Override
+        public List<Integer> claim(int index, int limit) {
+            order.add(index);
+            final int fetched = Math.min(limit, backlogs[index]);
+            if (backlogs[index] != Integer.MAX_VALUE) {
+                backlogs[index] -= fetched;
+            }
+            return Collections.nCopies(fetched, index);
+        }
+    }
+
+    private static final DeficitRoundRobin.DrainedListener IGNORE = (index, fetched) -> { };
+
+    private static long count(List<Integer> claimed, int index) {
+        return claimed.stream().filter(source -> source == index).count();
+    }
+
+    @Test
+    void sharesBatchByWeightWhenAllSourcesHaveBacklog() {
+        final DeficitRoundRobin roundRobin = new DeficitRoundRobin(List.of(3, 1));
+        final Backlogs backlogs = new Backlogs(Integer.MAX_VALUE, Integer.MAX_VALUE);
+
+        for (long round = 0; round < 4; round++) {
+            final List<Integer> claimed = roundRobin.next(8, round, backlogs, IGNORE);
+            assertEquals(8, claimed.size());
+            assertEquals(6, count(claimed, 0));
+            assertEquals(2, count(claimed, 1));
+        }
+        assertEquals(0, roundRobin.credit(0));
+        assertEquals(0, roundRobin.credit(1));
+    }
+
+    @Test
+    void carriesFractionalCreditAcrossRounds() {
+        final DeficitRoundRobin roundRobin = new DeficitRoundRobin(List.of(3, 2));
+        final Backlogs backlogs = new Backlogs(Integer.MAX_VALUE, Integer.MAX_VALUE);
+        final Map<Integer, Long> totals = new HashMap<>();
+
+        for (long round = 0; round < 100; round++) {
+            roundRobin.next(4, round, backlogs, IGNORE)
+                    .forEach(index -> totals.merge(index, 1L, Long::sum));
+        }
+        // 400 messages partagés 3:2, à un batch près
+        assertTrue(Math.abs(totals.get(0) - 240) <= 4, "type 0: " + totals.get(0));
+        assertTrue(Math.abs(totals.get(1) - 160) <= 4, "type 1: " + totals.get(1));
+    }
+
+    @Test
+    void drainedSourceLosesCreditAndSpareGoesToBackloggedSources() {
+        final DeficitRoundRobin roundRobin = new DeficitRoundRobin(List.of(1, 1));
+        final Backlogs backlogs = new Backlogs(2, Integer.MAX_VALUE);
+        final Map<Integer, Integer> drained = new HashMap<>();
+
+        final List<Integer> claimed = roundRobin.next(10, 0, backlogs, drained::put);
+
+        assertEquals(10, claimed.size());
+        assertEquals(2, count(claimed, 0));
+        assertEquals(8, count(claimed, 1));
+        assertEquals(Map.of(0, 2), drained);
+        assertEquals(0, roundRobin.credit(0));
+        // La marge redistribuée n'est pas décomptée du crédit
+        assertEquals(0, roundRobin.credit(1));
+        assertEquals(List.of(0, 1, 1), backlogs.order);
+    }
+
+    @Test
+    void drainedSourceDoesNotAccumulateCreditWhileIdle() {
+        final DeficitRoundRobin roundRobin = new DeficitRoundRobin(List.of(1, 1));
+        final Backlogs backlogs = new Backlogs(0, Integer.MAX_VALUE);
+        for (long round = 0; round < 10; round++) {
+            roundRobin.next(10, round, backlogs, IGNORE);
+        }
+
+        // Backlog revenu : le type ne dépasse pas sa part
+        backlogs.backlogs[0] = Integer.MAX_VALUE;
+        final List<Integer> claimed = roundRobin.next(10, 10, backlogs, IGNORE);
+        assertEquals(5, count(claimed, 0));
+        assertEquals(5, count(claimed, 1));
+    }
+
+    @Test
+    void rotatesOrderOfPassageEachRound() {
+        final DeficitRoundRobin roundRobin = new DeficitRoundRobin(List.of(1, 1, 1));
+
+        final Backlogs first = new Backlogs(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        roundRobin.next(3, 0, first, IGNORE);
+        final Backlogs second = new Backlogs(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE);
+        roundRobin.next(3, 1, second, IGNORE);
+
+        assertEquals(List.of(0, 1, 2), first.order);
+        assertEquals(List.of(1, 2, 0), second.order);
+    }
+
+    @Test
+    void rejectsWeightBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new DeficitRoundRobin(List.of(1, 0)));
+    }
+}
@@ -0,0 +1,195 @@
+package org.ormi.priv.tfa.orderflow.cqrs.infra.replication;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.replication.PgOutputDecoder.Begin;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.replication.PgOutputDecoder.Commit;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.replication.PgOutputDecoder.Insert;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class PgOutputDecoderTest {
+
+    private static final List<String> EVENT_LOG_COLUMNS = List.of("id", "aggregate_type", "aggregate_id",
+            "aggregate_version", "event_type", "event_version", "payload", "occurred_at");
+    private static final int EVENT_LOG_OID = 16_400;
+    /** 2026-01-31T12:34:56.123456Z en microsecondes depuis 2000-01-01 UTC */
+    private static final long COMMITTED_AT_MICROS = (Instant.parse("2026-01-31T12:34:56Z").getEpochSecond()
+            - 946_684_800L) * 1_000_000L + 123_456L;
+
+    private final PgOutputDecoder decoder = new PgOutputDecoder(new ObjectMapper());
+
+    /**
+     * Message pgoutput construit champ par champ (entiers big-endian, chaînes
+     * terminées par 0), comme envoyé par le serveur.
+     */
+    private static final class Message {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+
+        private Message(char type) {
+            byte1(type);
+        }
+
+        private Message byte1(int value) {
+            return write(() -> out.writeByte(value));
+        }
+
+        private Message int16(int value) {
+            return write(() -> out.writeShort(value));
+        }
+
+        private Message int32(int value) {
+            return write(() -> out.writeInt(value));
+        }
+
+        private Message int64(long value) {
+            return write(() -> out.writeLong(value));
+        }
+
+        private Message string(String value) {
+            return write(() -> {
+                out.write(value.getBytes(StandardCharsets.UTF_8));
+                out.writeByte(0);
+            });
+        }
+
+        /** Colonne texte ('t') ou NULL ('n') d'un tuple */
+        private Message column(String value) {
+            if (value == null) {
+                return byte1('n');
+            }
+            final byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            return byte1('t').int32(data.length).write(() -> out.write(data));
+        }
+
+        private ByteBuffer buffer() {
+            return ByteBuffer.wrap(bytes.toByteArray());
+        }
+
+        private interface Write {
+            void run() throws IOException;
+        }
+
+        private Message write(Write write) {
+            try {
+                write.run();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return this;
+        }
+    }
+
+    private static ByteBuffer relation(int oid, String namespace, String name, List<String> columns) {
+        final Message message = new Message('R').int32(oid).string(namespace).string(name).byte1('d')
+                .int16(columns.size());
+        columns.forEach(column -> message.byte1(0).string(column).int32(25).int32(-1));
+        return message.buffer();
+    }
+
+    private static ByteBuffer insert(int oid, String... values) {
+        final Message message = new Message('I').int32(oid).byte1('N').int16(values.length);
+        Arrays.stream(values).forEach(message::column);
+        return message.buffer();
+    }
+
+    @Test
+    void decodesBegin() {
+        final Begin begin = assertInstanceOf(Begin.class, decoder.decode(
+                new Message('B').int64(0x16B3748L).int64(COMMITTED_AT_MICROS).int32(742).buffer()));
+
+        assertEquals(0x16B3748L, begin.finalLsn());
+        assertEquals(Instant.parse("2026-01-31T12:34:56.123456Z"), begin.committedAt());
+        assertEquals(742, begin.xid());
+    }
+
+    @Test
+    void decodesCommit() {
+        final Commit commit = assertInstanceOf(Commit.class, decoder.decode(
+                new Message('C').byte1(0).int64(0x16B3748L).int64(0x16B3780L).int64(COMMITTED_AT_MICROS).buffer()));
+
+        assertEquals(0x16B3748L, commit.commitLsn());
+        assertEquals(0x16B3780L, commit.endLsn());
+        assertEquals(Instant.parse("2026-01-31T12:34:56.123456Z"), commit.committedAt());
+    }
+
+    @Test
+    void decodesEventLogInsertByColumnName() {
+        final UUID aggregateId = UUID.randomUUID();
+        assertNull(decoder.decode(relation(EVENT_LOG_OID, "eventing", "event_log", EVENT_LOG_COLUMNS)));
+
+        final Insert insert = assertInstanceOf(Insert.class, decoder.decode(insert(EVENT_LOG_OID,
+                "42", "Product", aggregateId.toString(), "3", "ProductNameUpdated", "1",
+                "{\"newName\": \"Chaise\"}", "2026-01-31 12:34:56.1234+00")));
+
+        final EventLogRecord event = insert.event();
+        assertEquals(42L, event.id());
+        assertEquals("Product", event.aggregateType());
+        assertEquals(aggregateId, event.aggregateId());
+        assertEquals(3L, event.aggregateVersion());
+        assertEquals("ProductNameUpdated", event.eventType());
+        assertEquals(1, event.eventVersion());
+        assertEquals("Chaise", event.payload().get("newName").asText());
+        assertEquals(Instant.parse("2026-01-31T12:34:56.1234Z"), event.occurredAt());
+    }
+
+    @Test
+    void decodesTimestampWithoutFractionAndNullTimestamp() {
+        final List<String> reordered = List.of("occurred_at", "id", "aggregate_type", "aggregate_id",
+                "aggregate_version", "event_type", "event_version", "payload");
+        decoder.decode(relation(EVENT_LOG_OID, "eventing", "event_log", reordered));
+        final String aggregateId = UUID.randomUUID().toString();
+
+        final Insert whole = (Insert) decoder.decode(insert(EVENT_LOG_OID,
+                "2026-01-31 12:34:56+00", "1", "Product", aggregateId, "1", "ProductRegistered", "1", "{}"));
+        final Insert missing = (Insert) decoder.decode(insert(EVENT_LOG_OID,
+                null, "2", "Product", aggregateId, "2", "ProductRetired", "1", "{}"));
+
+        assertEquals(Instant.parse("2026-01-31T12:34:56Z"), whole.event().occurredAt());
+        assertNull(missing.event().occurredAt());
+    }
+
+    @Test
+    void ignoresInsertIntoOtherTables() {
+        decoder.decode(relation(16_500, "eventing", "outbox", List.of("id", "event_id")));
+
+        assertNull(decoder.decode(insert(16_500, "1", "42")));
+    }
+
+    @Test
+    void rejectsInsertBeforeItsRelation() {
+        assertThrows(IllegalStateException.class, () -> decoder.decode(insert(EVENT_LOG_OID, "1")));
+    }
+
+    @Test
+    void rejectsInvalidPayload() {
+        decoder.decode(relation(EVENT_LOG_OID, "eventing", "event_log", EVENT_LOG_COLUMNS));
+
+        assertThrows(UncheckedIOException.class, () -> decoder.decode(insert(EVENT_LOG_OID,
+                "42", "Product", UUID.randomUUID().toString(), "3", "ProductNameUpdated", "1", "{not json",
+                "2026-01-31 12:34:56+00")));
+    }
+
+    @Test
+    void ignoresOtherMessageTypes() {
+        assertNull(decoder.decode(new Message('O').int64(1L).string("origin").buffer()));
+        assertNull(decoder.decode(new Message('T').int32(1).byte1(0).int32(EVENT_LOG_OID).buffer()));
+    }
+}
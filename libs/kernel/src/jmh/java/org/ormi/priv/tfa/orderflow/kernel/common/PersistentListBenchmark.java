@@ -0,0 +1,76 @@
+package org.ormi.priv.tfa.orderflow.kernel.common;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Ajout d'un événement à l'historique d'une vue de {@code events} événements.
+ *
+ * <ul>
+ *   <li>{@code concatSort} : ancien repli (copie, ajout, tri, copie immuable)</li>
+ *   <li>{@code insertInOrder} : {@link PersistentList#insertOrdered} en fin (cas nominal)</li>
+ *   <li>{@code insertOutOfOrder} : {@link PersistentList#insertOrdered} au milieu</li>
+ * </ul>
+ *
+ * <p>Lancement : {@code ./gradlew :libs:kernel:jmh} (options JMH via
+ * {@code -PjmhArgs="..."}).</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentListBenchmark {
+
+    private static final Comparator<Long> BY_SEQUENCE = Comparator.naturalOrder();
+
+    @Param({ "10", "1000", "100000" })
+    public int events;
+
+    private List<Long> history;
+    private PersistentList<Long> persistentHistory;
+
+    @Setup
+    public void setUp() {
+        history = new ArrayList<>(events);
+        for (long sequence = 1; sequence <= events; sequence++) {
+            history.add(sequence * 2);
+        }
+        history = List.copyOf(history);
+        persistentHistory = PersistentList.from(history);
+    }
+
+    @Benchmark
+    public List<Long> concatSort() {
+        final List<Long> merged = new ArrayList<>(history.size() + 1);
+        merged.addAll(history);
+        merged.add(events * 2L + 2);
+        merged.sort(BY_SEQUENCE);
+        return List.copyOf(merged);
+    }
+
+    @Benchmark
+    public PersistentList<Long> insertInOrder() {
+        return persistentHistory.insertOrdered(events * 2L + 2, BY_SEQUENCE);
+    }
+
+    @Benchmark
+    public PersistentList<Long> insertOutOfOrder() {
+        return persistentHistory.insertOrdered((long) events + 1, BY_SEQUENCE);
+    }
+}
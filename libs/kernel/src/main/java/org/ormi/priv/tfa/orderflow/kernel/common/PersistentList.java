@@ -0,0 +1,193 @@
+package org.ormi.priv.tfa.orderflow.kernel.common;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Liste immuable persistante à partage de structure (vecteur 32-aire + tail).
+ *
+ * <p>Chaque ajout renvoie une nouvelle liste partageant toute la structure de
+ * l'ancienne : seuls le tail (≤ 32 éléments) et, tous les 32 ajouts, un chemin
+ * de profondeur log32(n) sont copiés. L'historique d'une vue peut ainsi croître
+ * d'un événement sans recopier ni retrier les n précédents.</p>
+ *
+ * <h3>Complexités</h3>
+ * <table>
+ *   <tr><th>Opération</th><th>Coût</th></tr>
+ *   <tr><td>{@link #append}</td><td>O(1) amorti (O(log32 n) tous les 32 ajouts)</td></tr>
+ *   <tr><td>{@link #insertOrdered} dans l'ordre</td><td>= append</td></tr>
+ *   <tr><td>{@link #insertOrdered} hors ordre</td><td>O(n) (recherche dichotomique + reconstruction)</td></tr>
+ *   <tr><td>{@link #get}</td><td>O(log32 n)</td></tr>
+ * </table>
+ *
+ * <p>Les méthodes de mutation de {@link java.util.List} lèvent
+ * {@link UnsupportedOperationException}, comme {@link java.util.List#of}.</p>
+ *
+ * @param <E> type des éléments (non null)
+ */
+public final class PersistentList<E> extends AbstractList<E> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentList<?> EMPTY = new PersistentList<>(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int size;
+    /** Profondeur du trie en bits (BITS × niveaux au-dessus des feuilles) */
+    private final int shift;
+    private final Object[] root;
+    /** Derniers éléments, hors trie (≤ 32) */
+    private final Object[] tail;
+
+    private PersistentList(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    /**
+     * Liste vide.
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> empty() {
+        return (PersistentList<E>) EMPTY;
+    }
+
+    /**
+     * Liste persistante contenant les éléments donnés, dans l'ordre.
+     *
+     * <p>O(1) si la collection est déjà une {@code PersistentList}.</p>
+     */
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentList<E> from(Collection<? extends E> items) {
+        if (items instanceof PersistentList<?> persistent) {
+            return (PersistentList<E>) persistent;
+        }
+        PersistentList<E> list = empty();
+        for (E item : items) {
+            list = list.append(item);
+        }
+        return list;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        Objects.checkIndex(index, size);
+        return (E) leafFor(index)[index & MASK];
+    }
+
+    /**
+     * Nouvelle liste avec l'élément ajouté en fin.
+     */
+    public PersistentList<E> append(E element) {
+        Objects.requireNonNull(element, "element");
+        if (size - tailOffset() < WIDTH) {
+            final Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = element;
+            return new PersistentList<>(size + 1, shift, root, newTail);
+        }
+        // Tail plein : il devient une feuille du trie
+        final Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            // Racine pleine : un niveau de plus
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentList<>(size + 1, newShift, newRoot, new Object[] { element });
+    }
+
+    /**
+     * Nouvelle liste avec l'élément inséré après tous ceux qui ne le suivent pas
+     * selon {@code order} (liste supposée triée).
+     *
+     * <p>Cas courant (élément ≥ dernier) : {@link #append}. Sinon la position est
+     * cherchée par dichotomie et la liste reconstruite.</p>
+     */
+    public PersistentList<E> insertOrdered(E element, Comparator<? super E> order) {
+        if (size == 0 || order.compare(get(size - 1), element) <= 0) {
+            return append(element);
+        }
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (order.compare(get(mid), element) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        PersistentList<E> result = empty();
+        for (int i = 0; i < low; i++) {
+            result = result.append(get(i));
+        }
+        result = result.append(element);
+        for (int i = low; i < size; i++) {
+            result = result.append(get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Index du premier élément stocké dans le tail.
+     */
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    /**
+     * Copie le chemin menant à la prochaine feuille et y accroche le tail.
+     */
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        final int subIndex = ((size - 1) >>> level) & MASK;
+        final Object[] copy = parent.clone();
+        final Object[] inserted;
+        if (level == BITS) {
+            inserted = tailNode;
+        } else {
+            final Object[] child = (Object[]) parent[subIndex];
+            inserted = child != null
+                    ? pushTail(level - BITS, child, tailNode)
+                    : newPath(level - BITS, tailNode);
+        }
+        copy[subIndex] = inserted;
+        return copy;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        final Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+}
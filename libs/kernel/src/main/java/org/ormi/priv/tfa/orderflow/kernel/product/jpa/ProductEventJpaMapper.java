@@ -1,6 +1,7 @@
 package org.ormi.priv.tfa.orderflow.kernel.product.jpa;
 
 import org.ormi.priv.tfa.orderflow.cqrs.infra.jpa.EventLogEntity;
+import org.ormi.priv.tfa.orderflow.cqrs.infra.persistence.EventLogRecord;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1.ProductDescriptionUpdated;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1.ProductNameUpdated;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1.ProductRegistered;
@@ -28,52 +29,56 @@ public class ProductEventJpaMapper {
     static final String NEW_DESCRIPTION_FIELD = "newDescription";
 
     public ProductEventV1Envelope<?> toProductEventV1(EventLogEntity entity) {
-        if (entity.getEventVersion() != ProductEventVersion.V1.getValue()) {
-            throw new IllegalArgumentException("Unsupported event version: " + entity.getEventVersion());
+        return toProductEventV1(EventLogRecord.from(entity));
+    }
+
+    public ProductEventV1Envelope<?> toProductEventV1(EventLogRecord event) {
+        if (event.eventVersion() != ProductEventVersion.V1.getValue()) {
+            throw new IllegalArgumentException("Unsupported event version: " + event.eventVersion());
         }
-        if (entity.getEventType().equals(ProductRegistered.class.getSimpleName())) {
+        if (event.eventType().equals(ProductRegistered.class.getSimpleName())) {
             return new ProductRegisteredEnvelope(
                 new ProductRegistered(
-                    new ProductId(entity.getAggregateId()),
-                    new SkuId(entity.getPayload().get(SKUID_FIELD).asText()),
-                    entity.getPayload().get(NAME_FIELD).asText(),
-                    entity.getPayload().get(DESCRIPTION_FIELD).asText()
+                    new ProductId(event.aggregateId()),
+                    new SkuId(event.payload().get(SKUID_FIELD).asText()),
+                    event.payload().get(NAME_FIELD).asText(),
+                    event.payload().get(DESCRIPTION_FIELD).asText()
                 ),
-                entity.getAggregateVersion(),
-                entity.getOccurredAt()
+                event.aggregateVersion(),
+                event.occurredAt()
             );
         }
-        if (entity.getEventType().equals(ProductRetired.class.getSimpleName())) {
+        if (event.eventType().equals(ProductRetired.class.getSimpleName())) {
             return new ProductRetiredEnvelope(
                 new ProductRetired(
-                    new ProductId(entity.getAggregateId())
+                    new ProductId(event.aggregateId())
                 ),
-                entity.getAggregateVersion(),
-                entity.getOccurredAt()
+                event.aggregateVersion(),
+                event.occurredAt()
             );
         }
-        if (entity.getEventType().equals(ProductNameUpdated.class.getSimpleName())) {
+        if (event.eventType().equals(ProductNameUpdated.class.getSimpleName())) {
             return new ProductNameUpdatedEnvelope(
                 new ProductNameUpdated(
-                    new ProductId(entity.getAggregateId()),
-                    entity.getPayload().get(OLD_NAME_FIELD).asText(),
-                    entity.getPayload().get(NEW_NAME_FIELD).asText()
+                    new ProductId(event.aggregateId()),
+                    event.payload().get(OLD_NAME_FIELD).asText(),
+                    event.payload().get(NEW_NAME_FIELD).asText()
                 ),
-                entity.getAggregateVersion(),
-                entity.getOccurredAt()
+                event.aggregateVersion(),
+                event.occurredAt()
             );
         }
-        if (entity.getEventType().equals(ProductDescriptionUpdated.class.getSimpleName())) {
+        if (event.eventType().equals(ProductDescriptionUpdated.class.getSimpleName())) {
             return new ProductDescriptionUpdatedEnvelope(
                 new ProductDescriptionUpdated(
-                    new ProductId(entity.getAggregateId()),
-                    entity.getPayload().get(OLD_DESCRIPTION_FIELD).asText(),
-                    entity.getPayload().get(NEW_DESCRIPTION_FIELD).asText()
+                    new ProductId(event.aggregateId()),
+                    event.payload().get(OLD_DESCRIPTION_FIELD).asText(),
+                    event.payload().get(NEW_DESCRIPTION_FIELD).asText()
                 ),
-                entity.getAggregateVersion(),
-                entity.getOccurredAt()
+                event.aggregateVersion(),
+                event.occurredAt()
             );
         }
-        throw new IllegalArgumentException("Unsupported event type: " + entity.getEventType());
+        throw new IllegalArgumentException("Unsupported event type: " + event.eventType());
     }
 }
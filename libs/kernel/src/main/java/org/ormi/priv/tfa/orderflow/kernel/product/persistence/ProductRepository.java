@@ -15,7 +15,7 @@ import org.ormi.priv.tfa.orderflow.kernel.product.SkuId;
  * <h3>Opérations</h3>
  * <table>
  *   <tr><th>Méthode</th><th>Use Case</th></tr>
- *   <tr><td>save()</td><td>Apply events → mutate → persist</td></tr>
+ *   <tr><td>save()</td><td>Apply events → mutate → persist (upsert gardé par version)</td></tr>
  *   <tr><td>findById()</td><td>Load aggregate → handle command</td></tr>
  *   <tr><td>existsBySkuId()</td><td>Duplicate SKU check</td></tr>
  * </table>
@@ -29,9 +29,13 @@ import org.ormi.priv.tfa.orderflow.kernel.product.SkuId;
 public interface ProductRepository {
     
     /**
-     * Persiste agrégat (avec version optimistic concurrency).
+     * Persiste agrégat (avec version optimistic concurrency) : écrit seulement si
+     * sa version est postérieure à la version stockée.
+     *
+     * @return {@link SaveOutcome#APPLIED} si écrit, sinon agrégat modifié
+     *         entre-temps ({@link SaveOutcome#STALE} ou {@link SaveOutcome#CONFLICT})
      */
-    void save(Product product);
+    SaveOutcome save(Product product);
 
     /**
      * Charge agrégat par ID (avec lock/version).
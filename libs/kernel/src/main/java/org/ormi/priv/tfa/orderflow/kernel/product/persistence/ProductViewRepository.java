@@ -1,45 +1,73 @@
 package org.ormi.priv.tfa.orderflow.kernel.product.persistence;
 
+import java.util.List;
 import java.util.Optional;
 
-import org.ormi.priv.tfa.orderflow.kernel.Product;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductId;
 import org.ormi.priv.tfa.orderflow.kernel.product.SkuId;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView;
+import org.ormi.priv.tfa.orderflow.kernel.product.views.ProductView.ProductViewEvent;
 
 /**
- * Repository interface agrégat Produit (Write Model - Aggregate Store).
+ * Repository interface des vues produit (Read Model - Projection Store).
  *
- * <p>CRUD pour {@link Product} mutable (Command Side).
- * <em>Pas de queries complexes → read model dédié.</em></p>
+ * <p>Persistance des {@link ProductView} projetées (Query Side).
+ * <em>Écrit uniquement par les projections, lu par les requêtes.</em></p>
  *
  * <h3>Opérations</h3>
  * <table>
  *   <tr><th>Méthode</th><th>Use Case</th></tr>
- *   <tr><td>save()</td><td>Apply events → mutate → persist</td></tr>
- *   <tr><td>findById()</td><td>Load aggregate → handle command</td></tr>
- *   <tr><td>existsBySkuId()</td><td>Duplicate SKU check</td></tr>
+ *   <tr><td>save()</td><td>Projection → upsert gardé par version + ajout historique</td></tr>
+ *   <tr><td>findById()</td><td>Vue courante (fenêtre d'événements récents)</td></tr>
+ *   <tr><td>findBySkuId()</td><td>Recherche par SKU</td></tr>
+ *   <tr><td>searchPaginatedViewsOrderBySkuId()</td><td>Liste paginée par pattern SKU</td></tr>
+ *   <tr><td>findEventHistory()</td><td>Historique complet (appel explicite)</td></tr>
  * </table>
  *
- * <h3>CQRS séparation</h3>
- * <ul>
- *   <li>Write : ce repo (optimistic concurrency)</li>
- *   <li>Read : ProductViewRepository (denormalized)</li>
- * </ul>
+ * <h3>Historique</h3>
+ * <p>Les vues chargées ne portent que les derniers événements
+ * ({@link ProductView#getEvents()}) : leur coût ne croît pas avec l'historique
+ * du produit. L'historique complet est append-only et chargé à la demande.</p>
  */
-public interface ProductRepository {
-    
+public interface ProductViewRepository {
+
+    /**
+     * Persiste la vue (état courant + fenêtre récente) si sa version est
+     * postérieure à la version stockée, et ajoute ses nouveaux événements à
+     * l'historique.
+     *
+     * @return {@link SaveOutcome#STALE} si la version est déjà projetée (rejeu
+     *         idempotent), {@link SaveOutcome#CONFLICT} si un écrivain concurrent
+     *         l'a devancée
+     */
+    SaveOutcome save(ProductView productView);
+
+    /**
+     * Charge la vue d'un produit.
+     */
+    Optional<ProductView> findById(ProductId id);
+
+    /**
+     * Charge la vue d'un produit par SKU.
+     */
+    Optional<ProductView> findBySkuId(SkuId skuId);
+
     /**
-     * Persiste agrégat (avec version optimistic concurrency).
+     * Page de vues dont le SKU contient le pattern, triées par SKU.
+     *
+     * @param page numéro de page (1-based)
      */
-    void save(Product product);
+    List<ProductView> searchPaginatedViewsOrderBySkuId(String skuIdPattern, int page, int size);
 
     /**
-     * Charge agrégat par ID (avec lock/version).
+     * Nombre de vues dont le SKU contient le pattern.
      */
-    Optional<Product> findById(ProductId id);
+    long countPaginatedViewsBySkuIdPattern(String skuIdPattern);
 
     /**
-     * Vérifie unicité SKU (pré-condition métier).
+     * Historique complet des événements projetés d'un produit, par séquence croissante.
+     *
+     * @return liste vide si le produit est inconnu
      */
-    boolean existsBySkuId(SkuId skuId);
+    List<ProductViewEvent> findEventHistory(ProductId id);
 }
@@ -0,0 +1,45 @@
+package org.ormi.priv.tfa.orderflow.kernel.product.persistence;
+
+/**
+ * Issue d'une écriture gardée par version ({@code INSERT ... ON CONFLICT DO UPDATE
+ * ... WHERE version < nouvelle version}).
+ *
+ * <h3>Cas</h3>
+ * <table>
+ *   <tr><th>Issue</th><th>Ligne</th><th>Cause</th></tr>
+ *   <tr><td>{@link #APPLIED}</td><td>insérée ou mise à jour</td><td>version stockée absente ou antérieure</td></tr>
+ *   <tr><td>{@link #STALE}</td><td>inchangée</td><td>version stockée déjà égale ou postérieure (re-livraison, rejeu)</td></tr>
+ *   <tr><td>{@link #CONFLICT}</td><td>inchangée</td><td>écrivain concurrent committé pendant l'instruction</td></tr>
+ * </table>
+ */
+public enum SaveOutcome {
+
+    /** Ligne écrite */
+    APPLIED,
+    /** Version déjà stockée (ou plus récente) : rien à écrire */
+    STALE,
+    /** Version plus récente committée par un écrivain concurrent pendant l'écriture */
+    CONFLICT;
+
+    /**
+     * Indique si la ligne a été écrite.
+     */
+    public boolean applied() {
+        return this == APPLIED;
+    }
+
+    /**
+     * Issue d'un upsert gardé à partir de la version renvoyée par
+     * {@code RETURNING} et de la version lue au début de l'instruction.
+     *
+     * @param appliedVersion version écrite (null si la garde a rejeté l'écriture)
+     * @param storedVersion version stockée au début de l'instruction (null si absente)
+     * @param version version proposée
+     */
+    public static SaveOutcome of(Long appliedVersion, Long storedVersion, long version) {
+        if (appliedVersion != null) {
+            return APPLIED;
+        }
+        return storedVersion != null && storedVersion >= version ? STALE : CONFLICT;
+    }
+}
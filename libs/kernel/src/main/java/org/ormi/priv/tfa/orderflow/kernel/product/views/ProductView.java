@@ -1,8 +1,11 @@
 package org.ormi.priv.tfa.orderflow.kernel.product.views;
 
 import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
 
+import org.ormi.priv.tfa.orderflow.kernel.common.PersistentList;
+
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductEventV1.ProductEventV1Payload;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductId;
 import org.ormi.priv.tfa.orderflow.kernel.product.ProductLifecycle;
@@ -25,7 +28,7 @@ import lombok.Getter;
  * <table>
  *   <tr><th>Champs</th><th>Description</th></tr>
  *   <tr><td>version</td><td>Optimistic concurrency</td></tr>
- *   <tr><td>events[]</td><td>Historique complet (audit)</td></tr>
+ *   <tr><td>events[]</td><td>Derniers événements (historique complet : ProductViewRepository#findEventHistory)</td></tr>
  *   <tr><td>catalogs[]</td><td>Références catalogues</td></tr>
  * </table>
  */
@@ -72,6 +75,11 @@ public class ProductView {
      * Builder avec copy + overrides.
      */
     public static final class ProductViewBuilder {
+        private static final Comparator<ProductViewEvent> BY_SEQUENCE =
+                Comparator.comparingLong(ProductViewEvent::getSequence);
+        /** Validator partagé (thread-safe) : une factory par build coûte plusieurs ms */
+        private static final Validator VALIDATOR = Validation.buildDefaultValidatorFactory().getValidator();
+
         private ProductId id;
         private Long version;
         private SkuId skuId;
@@ -79,7 +87,7 @@ public class ProductView {
         private String description;
         private ProductLifecycle status;
         private List<ProductViewCatalogRef> catalogs;
-        private List<ProductViewEvent> events;
+        private PersistentList<ProductViewEvent> events;
         private Instant createdAt;
         private Instant updatedAt;
 
@@ -90,7 +98,10 @@ public class ProductView {
         public ProductViewBuilder description(String description) { this.description = description; return this; }
         public ProductViewBuilder status(ProductLifecycle status) { this.status = status; return this; }
         public ProductViewBuilder catalogs(List<ProductViewCatalogRef> catalogs) { this.catalogs = catalogs; return this; }
-        public ProductViewBuilder events(List<ProductViewEvent> events) { this.events = events; return this; }
+        public ProductViewBuilder events(List<ProductViewEvent> events) {
+            this.events = events == null ? null : PersistentList.from(events);
+            return this;
+        }
         public ProductViewBuilder createdAt(Instant createdAt) { this.createdAt = createdAt; return this; }
         public ProductViewBuilder updatedAt(Instant updatedAt) { this.updatedAt = updatedAt; return this; }
 
@@ -105,20 +116,32 @@ public class ProductView {
             this.description = view.description;
             this.status = view.status;
             this.catalogs = view.catalogs;
-            this.events = view.events;
+            this.events = PersistentList.from(view.events);
             this.createdAt = view.createdAt;
             this.updatedAt = view.updatedAt;
             return this;
         }
 
+        /**
+         * Ajoute un événement projeté, ordonné par séquence.
+         *
+         * <p>L'historique est une {@link PersistentList} partagée avec la vue
+         * d'origine : un événement dans l'ordre (cas nominal) est ajouté en O(1)
+         * sans recopier ni retrier les précédents.</p>
+         */
+        public ProductViewBuilder event(ProductViewEvent event) {
+            final PersistentList<ProductViewEvent> current = events == null ? PersistentList.empty() : events;
+            this.events = current.insertOrdered(event, BY_SEQUENCE);
+            return this;
+        }
+
         /**
          * Build + validation complète.
          */
         public ProductView build() throws ConstraintViolationException {
             ProductView view = new ProductView(id, version, skuId, name, description, status, 
                 catalogs, events, createdAt, updatedAt);
-            final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
-            final var violations = validator.validate(view);
+            final var violations = VALIDATOR.validate(view);
             if (!violations.isEmpty()) {
                 throw new ConstraintViolationException(violations);
             }
@@ -0,0 +1,140 @@
+package org.ormi.priv.tfa.orderflow.kernel.common;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class PersistentListTest {
+
+    /** Élément trié par séquence, distingué par son rang d'insertion */
+    private record Item(long sequence, int rank) {
+    }
+
+    private static final Comparator<Item> BY_SEQUENCE = Comparator.comparingLong(Item::sequence);
+
+    /**
+     * 32 : tail plein ; 1 056 : racine pleine (32 + 32²) ; 32 800 : un niveau de
+     * plus (32 + 32³). Chaque taille est testée de part et d'autre de la frontière.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = { 32, 1_056, 32_800 })
+    void appendKeepsEveryElementAcrossTrieBoundaries(int boundary) {
+        PersistentList<Integer> list = PersistentList.empty();
+        final List<PersistentList<Integer>> versions = new ArrayList<>();
+        for (int i = 0; i < boundary + 1; i++) {
+            if (i >= boundary - 1) {
+                versions.add(list);
+            }
+            list = list.append(i);
+        }
+
+        assertEquals(boundary + 1, list.size());
+        for (int i = 0; i < list.size(); i++) {
+            assertEquals(i, list.get(i));
+        }
+        // Versions précédentes intactes (structure partagée, jamais mutée)
+        assertEquals(boundary - 1, versions.get(0).size());
+        assertEquals(boundary, versions.get(1).size());
+        for (int i = 0; i < boundary; i++) {
+            assertEquals(i, versions.get(1).get(i));
+        }
+    }
+
+    @Test
+    void getRejectsOutOfBoundsIndex() {
+        final PersistentList<Integer> list = PersistentList.<Integer>empty().append(1);
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+    }
+
+    @Test
+    void insertOrderedAppendsInOrderElements() {
+        PersistentList<Item> list = PersistentList.empty();
+        for (int i = 0; i < 100; i++) {
+            list = list.insertOrdered(new Item(i, i), BY_SEQUENCE);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, list.get(i).sequence());
+        }
+    }
+
+    @Test
+    void insertOrderedPlacesOutOfOrderElementsLikeAStableSort() {
+        final Random random = new Random(42);
+        final List<Item> expected = new ArrayList<>();
+        PersistentList<Item> list = PersistentList.empty();
+        for (int rank = 0; rank < 2_000; rank++) {
+            final Item item = new Item(random.nextInt(500), rank);
+            list = list.insertOrdered(item, BY_SEQUENCE);
+            expected.add(item);
+        }
+        expected.sort(BY_SEQUENCE);
+
+        assertEquals(expected, list);
+    }
+
+    @Test
+    void insertOrderedPutsEqualSequenceAfterExistingOnes() {
+        PersistentList<Item> list = PersistentList.<Item>empty()
+                .append(new Item(1, 0))
+                .append(new Item(2, 1))
+                .append(new Item(2, 2))
+                .append(new Item(3, 3));
+
+        list = list.insertOrdered(new Item(2, 4), BY_SEQUENCE);
+
+        assertEquals(List.of(new Item(1, 0), new Item(2, 1), new Item(2, 2), new Item(2, 4), new Item(3, 3)), list);
+    }
+
+    @Test
+    void insertOrderedBeforeFirstElement() {
+        final PersistentList<Item> original = PersistentList.<Item>empty()
+                .append(new Item(5, 0))
+                .append(new Item(6, 1));
+
+        final PersistentList<Item> list = original.insertOrdered(new Item(1, 2), BY_SEQUENCE);
+
+        assertEquals(List.of(new Item(1, 2), new Item(5, 0), new Item(6, 1)), list);
+        assertEquals(List.of(new Item(5, 0), new Item(6, 1)), original);
+    }
+
+    @Test
+    void fromCopiesCollectionInOrder() {
+        final List<Integer> source = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            source.add(i);
+        }
+
+        final PersistentList<Integer> list = PersistentList.from(source);
+        source.set(0, -1);
+
+        assertEquals(100, list.size());
+        assertEquals(0, list.get(0));
+        assertEquals(99, list.get(99));
+    }
+
+    @Test
+    void fromReturnsPersistentListAsIs() {
+        final PersistentList<Integer> list = PersistentList.<Integer>empty().append(1).append(2);
+        assertSame(list, PersistentList.from(list));
+        assertTrue(PersistentList.from(List.of()).isEmpty());
+    }
+
+    @Test
+    void rejectsMutationAndNullElements() {
+        final PersistentList<Integer> list = PersistentList.<Integer>empty().append(1);
+        assertThrows(UnsupportedOperationException.class, () -> list.add(2));
+        assertThrows(UnsupportedOperationException.class, () -> list.set(0, 2));
+        assertThrows(NullPointerException.class, () -> list.append(null));
+    }
+}
@@ -0,0 +1,48 @@
+package org.ormi.priv.tfa.orderflow.kernel.product.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SaveOutcomeTest {
+
+    @Test
+    void insertOfNewRowIsApplied() {
+        assertEquals(SaveOutcome.APPLIED, SaveOutcome.of(1L, null, 1L));
+    }
+
+    @Test
+    void updateOverOlderVersionIsApplied() {
+        assertEquals(SaveOutcome.APPLIED, SaveOutcome.of(5L, 3L, 5L));
+    }
+
+    @Test
+    void sameVersionAlreadyStoredIsStale() {
+        assertEquals(SaveOutcome.STALE, SaveOutcome.of(null, 5L, 5L));
+    }
+
+    @Test
+    void newerVersionAlreadyStoredIsStale() {
+        assertEquals(SaveOutcome.STALE, SaveOutcome.of(null, 7L, 5L));
+    }
+
+    @Test
+    void rejectedWriteOverOlderStoredVersionIsConflict() {
+        // Version lue antérieure mais garde rejetée : un écrivain concurrent a committé entre-temps
+        assertEquals(SaveOutcome.CONFLICT, SaveOutcome.of(null, 3L, 5L));
+    }
+
+    @Test
+    void rejectedInsertOfAbsentRowIsConflict() {
+        assertEquals(SaveOutcome.CONFLICT, SaveOutcome.of(null, null, 1L));
+    }
+
+    @Test
+    void onlyAppliedIsApplied() {
+        assertTrue(SaveOutcome.APPLIED.applied());
+        assertFalse(SaveOutcome.STALE.applied());
+        assertFalse(SaveOutcome.CONFLICT.applied());
+    }
+}
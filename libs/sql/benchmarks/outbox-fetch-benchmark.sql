@@ -0,0 +1,122 @@
+-- Benchmark du fetch outbox : requête historique (jointures event_log) vs dénormalisée.
+--
+-- Autonome : travaille dans un schéma jetable "bench_outbox" (aucune table réelle touchée).
+-- Jeu de données : 100 000 agrégats x 10 versions = 1 000 000 messages en attente,
+-- 1 % des agrégats en attente de retry (next_attempt_at dans le futur).
+--
+-- Exécution :
+--   psql -d order_flow -f libs/sql/benchmarks/outbox-fetch-benchmark.sql
+-- Comparer les lignes "Execution Time" des plans EXPLAIN ANALYZE.
+
+DROP SCHEMA IF EXISTS bench_outbox CASCADE;
+CREATE SCHEMA bench_outbox;
+
+CREATE TABLE bench_outbox.event_log (
+    id bigserial PRIMARY KEY,
+    aggregate_type text NOT NULL,
+    aggregate_id uuid NOT NULL,
+    aggregate_version bigint NOT NULL,
+    event_type text NOT NULL,
+    event_version int NOT NULL,
+    payload jsonb NOT NULL,
+    occurred_at timestamptz DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO bench_outbox.event_log (aggregate_type, aggregate_id, aggregate_version, event_type, event_version, payload)
+SELECT 'Product',
+       md5(a::text)::uuid,
+       v,
+       'ProductNameUpdated',
+       1,
+       '{"oldName": "a", "newName": "b"}'::jsonb
+FROM generate_series(1, 100000) a, generate_series(1, 10) v;
+
+CREATE INDEX ix_eventlog_aggregate ON bench_outbox.event_log (aggregate_type, aggregate_id, aggregate_version);
+
+-- Avant : outbox sans colonnes agrégat, index sur next_attempt_at seul
+CREATE TABLE bench_outbox.outbox_before (
+    id bigserial PRIMARY KEY,
+    event_id bigint NOT NULL REFERENCES bench_outbox.event_log (id),
+    attempts int DEFAULT 0,
+    next_attempt_at timestamptz,
+    last_error text
+);
+INSERT INTO bench_outbox.outbox_before (event_id) SELECT id FROM bench_outbox.event_log ORDER BY id;
+CREATE INDEX ix_outbox_ready ON bench_outbox.outbox_before (next_attempt_at);
+
+-- Après : colonnes agrégat dénormalisées + index composite et partiel
+CREATE TABLE bench_outbox.outbox_after (
+    id bigserial PRIMARY KEY,
+    event_id bigint NOT NULL REFERENCES bench_outbox.event_log (id),
+    aggregate_type text NOT NULL,
+    aggregate_id uuid NOT NULL,
+    aggregate_version bigint NOT NULL,
+    attempts int DEFAULT 0,
+    next_attempt_at timestamptz,
+    last_error text
+);
+INSERT INTO bench_outbox.outbox_after (event_id, aggregate_type, aggregate_id, aggregate_version)
+SELECT id, aggregate_type, aggregate_id, aggregate_version FROM bench_outbox.event_log ORDER BY id;
+CREATE INDEX ix_outbox_aggregate ON bench_outbox.outbox_after (aggregate_type, aggregate_id, aggregate_version);
+CREATE INDEX ix_outbox_deferred ON bench_outbox.outbox_after (aggregate_id, next_attempt_at)
+    WHERE next_attempt_at IS NOT NULL;
+
+-- 1 % des agrégats en attente de retry
+UPDATE bench_outbox.outbox_before o SET next_attempt_at = now() + interval '1 hour', attempts = 1
+FROM bench_outbox.event_log e
+WHERE o.event_id = e.id AND e.aggregate_version = 1 AND get_byte(decode(md5(e.aggregate_id::text), 'hex'), 0) < 3;
+UPDATE bench_outbox.outbox_after o SET next_attempt_at = now() + interval '1 hour', attempts = 1
+WHERE o.aggregate_version = 1 AND get_byte(decode(md5(o.aggregate_id::text), 'hex'), 0) < 3;
+
+VACUUM ANALYZE bench_outbox.event_log;
+VACUUM ANALYZE bench_outbox.outbox_before;
+VACUUM ANALYZE bench_outbox.outbox_after;
+
+-- Avant (batch 10)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT o.* FROM bench_outbox.outbox_before o
+INNER JOIN bench_outbox.event_log e ON o.event_id = e.id
+WHERE o.attempts < 3
+AND e.aggregate_type = 'Product'
+AND (o.next_attempt_at <= CURRENT_TIMESTAMP OR o.next_attempt_at IS NULL)
+AND NOT EXISTS (
+    SELECT 1 FROM bench_outbox.outbox_before o2
+    JOIN bench_outbox.event_log e2 ON o2.event_id = e2.id
+    WHERE e2.aggregate_id = e.aggregate_id
+    AND (o2.next_attempt_at > CURRENT_TIMESTAMP)
+)
+ORDER BY e.aggregate_id, e.aggregate_version
+LIMIT 10
+FOR UPDATE SKIP LOCKED;
+
+-- Après (batch 10)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT o.* FROM bench_outbox.outbox_after o
+WHERE o.aggregate_type = 'Product'
+AND o.attempts < 3
+AND (o.next_attempt_at <= CURRENT_TIMESTAMP OR o.next_attempt_at IS NULL)
+AND NOT EXISTS (
+    SELECT 1 FROM bench_outbox.outbox_after o2
+    WHERE o2.aggregate_id = o.aggregate_id
+    AND o2.next_attempt_at > CURRENT_TIMESTAMP
+)
+ORDER BY o.aggregate_type, o.aggregate_id, o.aggregate_version
+LIMIT 10
+FOR UPDATE SKIP LOCKED;
+
+-- Après (batch 500, taille max du mode CATCH_UP)
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT o.* FROM bench_outbox.outbox_after o
+WHERE o.aggregate_type = 'Product'
+AND o.attempts < 3
+AND (o.next_attempt_at <= CURRENT_TIMESTAMP OR o.next_attempt_at IS NULL)
+AND NOT EXISTS (
+    SELECT 1 FROM bench_outbox.outbox_after o2
+    WHERE o2.aggregate_id = o.aggregate_id
+    AND o2.next_attempt_at > CURRENT_TIMESTAMP
+)
+ORDER BY o.aggregate_type, o.aggregate_id, o.aggregate_version
+LIMIT 500
+FOR UPDATE SKIP LOCKED;
+
+DROP SCHEMA bench_outbox CASCADE;